@@ -0,0 +1,91 @@
+package jiib.jsonparser.benchmarks;
+
+import java.util.Random;
+
+/**
+ * The Json documents used by the benchmarks.
+ * Each document is generated from a fixed seed, so all runs and versions measure the same input.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+public enum Corpus {
+    /** A typical API payload of about 1 KB */
+    SMALL,
+    /** Objects nested 256 levels deep */
+    DEEP,
+    /** A single object of 10 000 fields */
+    WIDE,
+    /** A list of 20 000 small records */
+    LARGE_ARRAY;
+
+    static final int DEEP_LEVELS = 256;
+    static final int WIDE_FIELDS = 10_000;
+    static final int ARRAY_ITEMS = 20_000;
+
+    /**
+     * Generate the Json document of this corpus
+     *
+     * @return  The Json document
+     */
+    public String generate() {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder();
+
+        switch (this) {
+            case SMALL:
+                json.append("{\"id\":12345,\"name\":\"Frodo Baggins\",\"email\":\"frodo@shire.me\",\"active\":true,\"score\":87.5,")
+                    .append("\"tags\":[\"hobbit\",\"ring-bearer\",\"fellowship\"],\"manager\":null,")
+                    .append("\"address\":{\"street\":\"Bagshot Row\",\"number\":3,\"city\":\"Hobbiton\",\"zip\":\"SH-01\"},")
+                    .append("\"history\":[");
+                for (int i = 0; i < 8; i++) {
+                    if (i > 0) json.append(',');
+                    _appendRecord(json, i, random);
+                }
+                json.append("]}");
+                break;
+
+            case DEEP:
+                for (int i = 0; i < DEEP_LEVELS; i++) {
+                    json.append("{\"level\":").append(i).append(",\"name\":\"level ").append(i).append("\",\"child\":");
+                }
+                json.append("{\"level\":").append(DEEP_LEVELS).append('}');
+                for (int i = 0; i < DEEP_LEVELS; i++) {
+                    json.append('}');
+                }
+                break;
+
+            case WIDE:
+                json.append('{');
+                for (int i = 0; i < WIDE_FIELDS; i++) {
+                    if (i > 0) json.append(',');
+                    json.append("\"field_").append(i).append("\":");
+                    switch (i % 4) {
+                        case 0: json.append(random.nextInt()); break;
+                        case 1: json.append(random.nextDouble() * 1000); break;
+                        case 2: json.append("\"value ").append(random.nextInt(1000)).append('"'); break;
+                        default: json.append(random.nextBoolean());
+                    }
+                }
+                json.append('}');
+                break;
+
+            case LARGE_ARRAY:
+                json.append("{\"count\":").append(ARRAY_ITEMS).append(",\"items\":[");
+                for (int i = 0; i < ARRAY_ITEMS; i++) {
+                    if (i > 0) json.append(',');
+                    _appendRecord(json, i, random);
+                }
+                json.append("]}");
+                break;
+        }
+        return json.toString();
+    }
+
+    private static void _appendRecord(StringBuilder json, int id, Random random) {
+        json.append("{\"id\":").append(id)
+            .append(",\"name\":\"record ").append(id).append('"')
+            .append(",\"score\":").append(random.nextInt(10_000) / 100.0)
+            .append(",\"active\":").append(random.nextBoolean())
+            .append('}');
+    }
+}
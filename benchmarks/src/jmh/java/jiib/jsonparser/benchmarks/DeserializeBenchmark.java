@@ -0,0 +1,73 @@
+package jiib.jsonparser.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jiib.jsonparser.JsonParsedObject;
+import jiib.jsonparser.JsonParser;
+
+/**
+ * Measure JsonParsedObject.tryDeserializing on a flat record, against binding it straight from the Json expression
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeserializeBenchmark {
+
+    /**
+     * The class the records are deserialized into
+     */
+    public static class Record {
+        public final Integer id;
+        public final String name;
+        public final Double score;
+        public final Boolean active;
+
+        public Record(Integer id, String name, Double score, Boolean active) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+            this.active = active;
+        }
+    }
+
+    private static final String RECORD_JSON = "{\"id\":7,\"name\":\"record 7\",\"score\":42.5,\"active\":true}";
+
+    private JsonParsedObject _record;
+    private JsonParsedObject _recordWithNull;
+
+    @Setup
+    public void setup() {
+        _record = JsonParser.parse(RECORD_JSON);
+        _recordWithNull = JsonParser.parse("{\"id\":7,\"name\":null,\"score\":42.5,\"active\":true}");
+    }
+
+    @Benchmark
+    public Record deserialize() {
+        return _record.tryDeserializing(Record.class);
+    }
+
+    @Benchmark
+    public Record deserializeWithNull() {
+        return _recordWithNull.tryDeserializing(Record.class);
+    }
+
+    @Benchmark
+    public Record parseThenDeserialize() {
+        return JsonParser.parse(RECORD_JSON).tryDeserializing(Record.class);
+    }
+
+    @Benchmark
+    public Record bind() {
+        return JsonParser.parse(RECORD_JSON, Record.class);
+    }
+}
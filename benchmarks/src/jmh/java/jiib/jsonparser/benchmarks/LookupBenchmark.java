@@ -0,0 +1,99 @@
+package jiib.jsonparser.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jiib.jsonparser.JsonParsedField;
+import jiib.jsonparser.JsonParsedObject;
+import jiib.jsonparser.JsonParser;
+import jiib.jsonparser.query.JsonQuery;
+import jiib.jsonparser.util.DottedPath;
+
+/**
+ * Measure the field lookups of JsonParsedObject, by name and by path
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LookupBenchmark {
+
+    private JsonParsedObject _small;
+    private JsonParsedObject _wide;
+    private JsonParsedObject _deep;
+    private JsonParsedObject _largeArray;
+
+    private String _wideName;
+    private String _deepPath;
+    private String _largeArrayPath;
+
+    private JsonQuery _smallQuery;
+    private JsonQuery _deepQuery;
+    private JsonQuery _largeArrayQuery;
+
+    @Setup
+    public void setup() {
+        _small = JsonParser.parse(Corpus.SMALL.generate());
+        _wide = JsonParser.parse(Corpus.WIDE.generate());
+        _deep = JsonParser.parse(Corpus.DEEP.generate());
+        _largeArray = JsonParser.parse(Corpus.LARGE_ARRAY.generate());
+
+        _wideName = "field_" + (Corpus.WIDE_FIELDS - 1);
+        _deepPath = "child.".repeat(Corpus.DEEP_LEVELS) + "level";
+        _largeArrayPath = "items." + (Corpus.ARRAY_ITEMS / 2) + ".name";
+
+        _smallQuery = JsonQuery.compile("address.city");
+        _deepQuery = JsonQuery.compile(_deepPath);
+        _largeArrayQuery = JsonQuery.compile(_largeArrayPath);
+    }
+
+    @Benchmark
+    public JsonParsedField fieldBySmallName() {
+        return _small.getField("address");
+    }
+
+    @Benchmark
+    public JsonParsedField fieldByWideName() {
+        return _wide.getField(_wideName);
+    }
+
+    // A new path on each call, as read from a request
+
+    @Benchmark
+    public JsonParsedField fieldBySmallPath() {
+        return _small.getField(new DottedPath("address.city"));
+    }
+
+    @Benchmark
+    public JsonParsedField fieldByDeepPath() {
+        return _deep.getField(new DottedPath(_deepPath));
+    }
+
+    @Benchmark
+    public JsonParsedField fieldByLargeArrayPath() {
+        return _largeArray.getField(new DottedPath(_largeArrayPath));
+    }
+
+    @Benchmark
+    public JsonParsedField fieldBySmallQuery() {
+        return _small.getField(_smallQuery);
+    }
+
+    @Benchmark
+    public JsonParsedField fieldByDeepQuery() {
+        return _deep.getField(_deepQuery);
+    }
+
+    @Benchmark
+    public JsonParsedField fieldByLargeArrayQuery() {
+        return _largeArray.getField(_largeArrayQuery);
+    }
+}
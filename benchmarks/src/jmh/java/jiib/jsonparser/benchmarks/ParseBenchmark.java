@@ -0,0 +1,100 @@
+package jiib.jsonparser.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import jiib.jsonparser.JsonParsedObject;
+import jiib.jsonparser.JsonParser;
+import jiib.jsonparser.JsonProjection;
+import jiib.jsonparser.JsonShape;
+import jiib.jsonparser.JsonSymbolTable;
+
+/**
+ * Measure JsonParser.parse on each corpus, held in memory as chars or UTF-8 bytes, or in a file
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+
+    @Param({"SMALL", "DEEP", "WIDE", "LARGE_ARRAY"})
+    public Corpus corpus;
+
+    // Keeps a few fields at the root of each corpus, the rest being skipped
+    private static final JsonProjection PROJECTION = JsonProjection.of("id", "name", "level", "count", "field_0");
+
+    private final JsonSymbolTable _symbols = new JsonSymbolTable();
+    private String _json;
+    private byte[] _bytes;
+    private Path _file;
+    private JsonShape _shape;
+
+    @Setup
+    public void setup() throws IOException {
+        _json = corpus.generate();
+        _bytes = _json.getBytes(StandardCharsets.UTF_8);
+        _file = Files.createTempFile("jiib-benchmark-", ".json");
+        Files.writeString(_file, _json);
+        _shape = JsonShape.of(JsonParser.parse(_json));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(_file);
+    }
+
+    @Benchmark
+    public JsonParsedObject parse() {
+        return JsonParser.parse(_json);
+    }
+
+    @Benchmark
+    public JsonParsedObject parseLazy() {
+        return JsonParser.parseLazy(_json);
+    }
+
+    @Benchmark
+    public JsonParsedObject parseBytes() {
+        return JsonParser.parse(_bytes);
+    }
+
+    @Benchmark
+    public JsonParsedObject parseReused() {
+        return JsonParser.local().read(_json);
+    }
+
+    @Benchmark
+    public JsonParsedObject parseWithSymbols() {
+        return JsonParser.parse(_json, _symbols);
+    }
+
+    @Benchmark
+    public JsonParsedObject parseProjected() {
+        return JsonParser.parse(_json, PROJECTION);
+    }
+
+    @Benchmark
+    public JsonParsedObject parseShaped() {
+        return JsonParser.local().read(_json, _shape);
+    }
+
+    @Benchmark
+    public JsonParsedObject parseFile() throws IOException {
+        return JsonParser.parse(_file);
+    }
+}
@@ -0,0 +1,66 @@
+package jiib.jsonparser.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jiib.jsonparser.JsonParser;
+
+/**
+ * Measure JsonParser.parseLines on a Json Lines input of 10 000 small records,
+ * against parsing the lines one by one on a single thread
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseLinesBenchmark {
+
+    static final int RECORDS = 10_000;
+
+    private byte[] _lines;
+
+    @Setup
+    public void setup() {
+        String record = Corpus.SMALL.generate();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < RECORDS; i++) {
+            lines.append(record).append('\n');
+        }
+        _lines = lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long lineByLine() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(_lines), StandardCharsets.UTF_8));
+        long count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            JsonParser.parse(line);
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long parseLinesOrdered() {
+        return JsonParser.parseLines(new ByteArrayInputStream(_lines), true, null).count();
+    }
+
+    @Benchmark
+    public long parseLinesUnordered() {
+        return JsonParser.parseLines(new ByteArrayInputStream(_lines), false, null).count();
+    }
+}
@@ -0,0 +1,46 @@
+package jiib.jsonparser.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jiib.jsonparser.JsonParsedObject;
+import jiib.jsonparser.JsonParser;
+
+/**
+ * Measure JsonParsedObject.toJson and toJsonBytes on each corpus
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializeBenchmark {
+
+    @Param({"SMALL", "DEEP", "WIDE", "LARGE_ARRAY"})
+    public Corpus corpus;
+
+    private JsonParsedObject _object;
+
+    @Setup
+    public void setup() {
+        _object = JsonParser.parse(corpus.generate());
+    }
+
+    @Benchmark
+    public String toJson() {
+        return _object.toJson();
+    }
+
+    @Benchmark
+    public byte[] toJsonBytes() {
+        return _object.toJsonBytes();
+    }
+}
@@ -0,0 +1,619 @@
+package jiib.jsonparser;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Bind the events of a JsonReader straight into java objects, without building a tree of JsonParsedObject.
+ * The way to bind each Class is resolved once, and kept for the next values of the same Class.
+ * <p>
+ * Supported types are : String, the primitives and their wrappers, BigInteger, BigDecimal, Number, enums (by name),
+ * arrays, collections and maps with String keys (typed through their generic parameters), JsonParsedObject,
+ * Object (bound to String, Number, Boolean, List and Map), and any other class :
+ * <ul>
+ *  <li>records, through their canonical constructor, the fields being matched by name</li>
+ *  <li>classes with a public no-arg constructor, through their public setters and public fields</li>
+ *  <li>other classes, through their public constructor with the most parameters, the fields being matched
+ *  to the parameters by name when compiled with <code>-parameters</code>, or else by order</li>
+ * </ul>
+ * Unknown fields are skipped, and missing ones are left to null, 0 or false.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parse(String, Class)
+ */
+final class JsonBinder {
+
+    /**
+     * Bind a value, the reader being on its first event, and leave the reader on its last event
+     */
+    private interface ValueBinder {
+        Object read(JsonReader reader, String fieldName);
+    }
+
+    private static final ClassValue<ValueBinder> BINDERS = new ClassValue<ValueBinder>() {
+        @Override
+        protected ValueBinder computeValue(Class<?> type) {
+            return _createBinder(type);
+        }
+    };
+
+    private static final ClassValue<ObjectPlan> PLANS = new ClassValue<ObjectPlan>() {
+        @Override
+        protected ObjectPlan computeValue(Class<?> type) {
+            return new ObjectPlan(type);
+        }
+    };
+
+    private JsonBinder() {}
+
+    /**
+     * Bind the value following in a reader
+     *
+     * @param   <T>     The Class to bind the value into
+     * @param   reader  The reader, positioned before the value
+     * @param   type    The Class to bind the value into
+     * @return  The new instance, or null for a null value
+     */
+    static <T> T bind(JsonReader reader, Class<T> type) {
+        reader.next();
+        return bindCurrent(reader, type, "{none}");
+    }
+
+    /**
+     * Bind the value whose first event has just been read
+     *
+     * @param   <T>         The Class to bind the value into
+     * @param   reader      The reader, whose last event is the first one of the value
+     * @param   type        The Class to bind the value into
+     * @param   fieldName   The name of the field holding the value, used in error messages
+     * @return  The new instance, or null for a null value
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T bindCurrent(JsonReader reader, Class<T> type, String fieldName) {
+        return (T)BINDERS.get(type).read(reader, fieldName);
+    }
+
+    // Errors
+
+    private static String _typeOf(JsonReader reader) {
+        switch (reader.getToken()) {
+            case START_OBJECT:  return JsonValueKind.OBJECT.getValueType();
+            case START_ARRAY:   return JsonValueKind.LIST.getValueType();
+            case VALUE_STRING:  return JsonValueKind.STRING.getValueType();
+            case VALUE_NUMBER:  return reader.getNumberKind().getValueType();
+            case VALUE_TRUE:
+            case VALUE_FALSE:   return JsonValueKind.BOOLEAN.getValueType();
+            case VALUE_NULL:    return JsonValueKind.NULL.getValueType();
+            default:            return reader.getToken().toString();
+        }
+    }
+
+    private static ClassCastException _wrongType(JsonReader reader, String fieldName, String expected) {
+        return new ClassCastException("The field '" + fieldName + "' is " + _typeOf(reader) + ", not " + expected);
+    }
+
+    // Binders creation
+
+    private static ValueBinder _binderFor(Type type) {
+        if (type instanceof Class) {
+            return BINDERS.get((Class<?>)type);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType)type;
+            Class<?> raw = (Class<?>)parameterized.getRawType();
+            Type[] args = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw)) {
+                return _collectionBinder(raw, _binderFor(args[0]));
+            }
+            if (Map.class.isAssignableFrom(raw)) {
+                if (args[0] != String.class && args[0] != Object.class && !(args[0] instanceof WildcardType)) {
+                    throw new IllegalArgumentException("Cannot bind a Map whose keys are " + args[0].getTypeName() + ", only String keys are supported");
+                }
+                return _mapBinder(raw, _binderFor(args[1]));
+            }
+            return BINDERS.get(raw);
+        }
+        if (type instanceof GenericArrayType) {
+            Type component = ((GenericArrayType)type).getGenericComponentType();
+            return _arrayBinder(_rawClass(component), _binderFor(component));
+        }
+        return BINDERS.get(_rawClass(type));
+    }
+
+    private static Class<?> _rawClass(Type type) {
+        if (type instanceof Class) return (Class<?>)type;
+        if (type instanceof ParameterizedType) return (Class<?>)((ParameterizedType)type).getRawType();
+        if (type instanceof GenericArrayType) return Array.newInstance(_rawClass(((GenericArrayType)type).getGenericComponentType()), 0).getClass();
+        if (type instanceof WildcardType) return _rawClass(((WildcardType)type).getUpperBounds()[0]);
+        if (type instanceof TypeVariable) return _rawClass(((TypeVariable<?>)type).getBounds()[0]);
+        return Object.class;
+    }
+
+    private static ValueBinder _createBinder(Class<?> type) {
+        if (type == String.class) return JsonBinder::_readString;
+        if (type == int.class || type == Integer.class) return _nullable(type, JsonBinder::_readInt);
+        if (type == long.class || type == Long.class) return _nullable(type, JsonBinder::_readLong);
+        if (type == double.class || type == Double.class) return _nullable(type, JsonBinder::_readDouble);
+        if (type == float.class || type == Float.class) return _nullable(type, (reader, name) -> (float)(double)_readDouble(reader, name));
+        if (type == short.class || type == Short.class) return _nullable(type, (reader, name) -> (short)_readInt(reader, name, Short.MIN_VALUE, Short.MAX_VALUE, "Short"));
+        if (type == byte.class || type == Byte.class) return _nullable(type, (reader, name) -> (byte)_readInt(reader, name, Byte.MIN_VALUE, Byte.MAX_VALUE, "Byte"));
+        if (type == boolean.class || type == Boolean.class) return _nullable(type, JsonBinder::_readBoolean);
+        if (type == char.class || type == Character.class) return _nullable(type, JsonBinder::_readChar);
+        if (type == BigInteger.class) return _nullable(type, JsonBinder::_readBigInteger);
+        if (type == BigDecimal.class) return _nullable(type, JsonBinder::_readBigDecimal);
+        if (type == Number.class) return _nullable(type, JsonBinder::_readNumber);
+        if (type == Object.class) return JsonBinder::_readAny;
+        if (type == JsonParsedObject.class) return _nullable(type, JsonBinder::_readTree);
+        if (type.isEnum()) return _nullable(type, (reader, name) -> _readEnum(type, reader, name));
+        if (type == int[].class) return _nullable(type, JsonBinder::_readIntArray);
+        if (type == long[].class) return _nullable(type, JsonBinder::_readLongArray);
+        if (type == double[].class) return _nullable(type, JsonBinder::_readDoubleArray);
+        if (type.isArray()) return _arrayBinder(type.getComponentType(), BINDERS.get(type.getComponentType()));
+        if (Collection.class.isAssignableFrom(type)) return _collectionBinder(type, JsonBinder::_readAny);
+        if (Map.class.isAssignableFrom(type)) return _mapBinder(type, JsonBinder::_readAny);
+        if (type.isPrimitive() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("Cannot bind a Json value into " + type.getName());
+        }
+        return _nullable(type, (reader, name) -> PLANS.get(type).read(reader, name));
+    }
+
+    /**
+     * Wrap a binder so a null value is bound to null, or rejected for a primitive type
+     */
+    private static ValueBinder _nullable(Class<?> type, ValueBinder binder) {
+        return (reader, name) -> {
+            if (reader.getToken() == JsonToken.VALUE_NULL) {
+                if (type.isPrimitive()) throw _wrongType(reader, name, type.getName());
+                return null;
+            }
+            return binder.read(reader, name);
+        };
+    }
+
+    private static ValueBinder _arrayBinder(Class<?> componentType, ValueBinder itemBinder) {
+        return _nullable(Object.class, (reader, name) -> {
+            List<Object> items = new ArrayList<>();
+            _readItems(reader, name, itemBinder, items);
+            Object array = Array.newInstance(componentType, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Array.set(array, i, items.get(i));
+            }
+            return array;
+        });
+    }
+
+    private static ValueBinder _collectionBinder(Class<?> type, ValueBinder itemBinder) {
+        MethodHandle constructor = _collectionConstructor(type);
+        return _nullable(Object.class, (reader, name) -> {
+            Collection<Object> items = _invoke(constructor);
+            _readItems(reader, name, itemBinder, items);
+            return items;
+        });
+    }
+
+    private static ValueBinder _mapBinder(Class<?> type, ValueBinder valueBinder) {
+        MethodHandle constructor = _collectionConstructor(type);
+        return _nullable(Object.class, (reader, name) -> {
+            if (reader.getToken() != JsonToken.START_OBJECT) throw _wrongType(reader, name, "{object}");
+            Map<String, Object> map = _invoke(constructor);
+            while (reader.next() == JsonToken.FIELD_NAME) {
+                String key = reader.getString();
+                reader.next();
+                map.put(key, valueBinder.read(reader, key));
+            }
+            return map;
+        });
+    }
+
+    private static MethodHandle _collectionConstructor(Class<?> type) {
+        Class<?> implementation = type;
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            if (type.isAssignableFrom(ArrayList.class)) implementation = ArrayList.class;
+            else if (type.isAssignableFrom(TreeSet.class) && SortedSet.class.isAssignableFrom(type)) implementation = TreeSet.class;
+            else if (type.isAssignableFrom(LinkedHashSet.class)) implementation = LinkedHashSet.class;
+            else if (type.isAssignableFrom(ArrayDeque.class) && Queue.class.isAssignableFrom(type)) implementation = ArrayDeque.class;
+            else if (type.isAssignableFrom(TreeMap.class) && SortedMap.class.isAssignableFrom(type)) implementation = TreeMap.class;
+            else if (type.isAssignableFrom(LinkedHashMap.class)) implementation = LinkedHashMap.class;
+            else throw new IllegalArgumentException("Cannot bind a Json value into " + type.getName());
+        }
+        try {
+            return _unreflect(implementation.getConstructor()).asType(MethodType.methodType(Object.class));
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Cannot bind a Json value into " + type.getName() + " : no public no-arg constructor", e);
+        }
+    }
+
+    private static void _readItems(JsonReader reader, String fieldName, ValueBinder itemBinder, Collection<Object> items) {
+        if (reader.getToken() != JsonToken.START_ARRAY) throw _wrongType(reader, fieldName, "List");
+        while (reader.next() != JsonToken.END_ARRAY) {
+            items.add(itemBinder.read(reader, String.valueOf(items.size() + 1)));
+        }
+    }
+
+    // Scalar values
+
+    private static Object _readString(JsonReader reader, String fieldName) {
+        if (reader.getToken() == JsonToken.VALUE_NULL) return null;
+        if (reader.getToken() != JsonToken.VALUE_STRING) throw _wrongType(reader, fieldName, "String");
+        return reader.getString();
+    }
+
+    private static Object _readInt(JsonReader reader, String fieldName) {
+        return _readInt(reader, fieldName, Integer.MIN_VALUE, Integer.MAX_VALUE, "Integer");
+    }
+
+    private static int _readInt(JsonReader reader, String fieldName, int min, int max, String expected) {
+        if (reader.getToken() != JsonToken.VALUE_NUMBER || reader.getNumberKind() != JsonValueKind.INTEGER) {
+            throw _wrongType(reader, fieldName, expected);
+        }
+        int value = reader.getInt();
+        if (value < min || value > max) {
+            throw new ClassCastException("The field '" + fieldName + "' value " + value + " does not fit in a " + expected);
+        }
+        return value;
+    }
+
+    private static Object _readLong(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.VALUE_NUMBER) throw _wrongType(reader, fieldName, "Long");
+        JsonValueKind kind = reader.getNumberKind();
+        if (kind != JsonValueKind.INTEGER && kind != JsonValueKind.LONG) throw _wrongType(reader, fieldName, "Long");
+        return reader.getLong();
+    }
+
+    private static Object _readDouble(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.VALUE_NUMBER) throw _wrongType(reader, fieldName, "Double");
+        return reader.getDouble();
+    }
+
+    private static Object _readBoolean(JsonReader reader, String fieldName) {
+        if (reader.getToken() == JsonToken.VALUE_TRUE) return Boolean.TRUE;
+        if (reader.getToken() == JsonToken.VALUE_FALSE) return Boolean.FALSE;
+        throw _wrongType(reader, fieldName, "Boolean");
+    }
+
+    private static Object _readChar(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.VALUE_STRING || reader.getString().length() != 1) {
+            throw _wrongType(reader, fieldName, "a single char String");
+        }
+        return reader.getString().charAt(0);
+    }
+
+    private static Object _readBigInteger(JsonReader reader, String fieldName) {
+        if (reader.getToken() == JsonToken.VALUE_NUMBER) {
+            switch (reader.getNumberKind()) {
+                case INTEGER:
+                case LONG:
+                    return BigInteger.valueOf(reader.getLong());
+                case BIG_INTEGER:
+                    return reader.getNumber();
+                default:
+            }
+        }
+        throw _wrongType(reader, fieldName, "BigInteger");
+    }
+
+    private static Object _readBigDecimal(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.VALUE_NUMBER) throw _wrongType(reader, fieldName, "BigDecimal");
+        switch (reader.getNumberKind()) {
+            case INTEGER:
+            case LONG:
+                return BigDecimal.valueOf(reader.getLong());
+            case DOUBLE:
+                return BigDecimal.valueOf(reader.getDouble());
+            case BIG_INTEGER:
+                return new BigDecimal((BigInteger)reader.getNumber());
+            default:
+                return reader.getNumber();
+        }
+    }
+
+    private static Object _readNumber(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.VALUE_NUMBER) throw _wrongType(reader, fieldName, "a number");
+        return reader.getNumber();
+    }
+
+    private static Object _readEnum(Class<?> type, JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.VALUE_STRING) throw _wrongType(reader, fieldName, type.getSimpleName());
+        String name = reader.getString();
+        for (Object constant : type.getEnumConstants()) {
+            if (((Enum<?>)constant).name().equals(name)) return constant;
+        }
+        throw new IllegalArgumentException("Invalid value for field : \"" + fieldName + "\", " + name + " is not a " + type.getSimpleName());
+    }
+
+    private static Object _readTree(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.START_OBJECT) throw _wrongType(reader, fieldName, "{object}");
+        return JsonTreeBuilder.buildObject(reader);
+    }
+
+    private static Object _readAny(JsonReader reader, String fieldName) {
+        switch (reader.getToken()) {
+            case START_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (reader.next() == JsonToken.FIELD_NAME) {
+                    String key = reader.getString();
+                    reader.next();
+                    map.put(key, _readAny(reader, key));
+                }
+                return map;
+            case START_ARRAY:
+                List<Object> items = new ArrayList<>();
+                _readItems(reader, fieldName, JsonBinder::_readAny, items);
+                return items;
+            case VALUE_STRING:
+                return reader.getString();
+            case VALUE_NUMBER:
+                return reader.getNumber();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    // Arrays of primitives, read without boxing
+
+    private static Object _readIntArray(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.START_ARRAY) throw _wrongType(reader, fieldName, "List");
+        int[] values = new int[8];
+        int size = 0;
+        while (reader.next() != JsonToken.END_ARRAY) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size] = _readInt(reader, String.valueOf(size + 1), Integer.MIN_VALUE, Integer.MAX_VALUE, "Integer");
+            size++;
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static Object _readLongArray(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.START_ARRAY) throw _wrongType(reader, fieldName, "List");
+        long[] values = new long[8];
+        int size = 0;
+        while (reader.next() != JsonToken.END_ARRAY) {
+            JsonValueKind kind = (reader.getToken() == JsonToken.VALUE_NUMBER) ? reader.getNumberKind() : null;
+            if (kind != JsonValueKind.INTEGER && kind != JsonValueKind.LONG) throw _wrongType(reader, String.valueOf(size + 1), "Long");
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = reader.getLong();
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private static Object _readDoubleArray(JsonReader reader, String fieldName) {
+        if (reader.getToken() != JsonToken.START_ARRAY) throw _wrongType(reader, fieldName, "List");
+        double[] values = new double[8];
+        int size = 0;
+        while (reader.next() != JsonToken.END_ARRAY) {
+            if (reader.getToken() != JsonToken.VALUE_NUMBER) throw _wrongType(reader, String.valueOf(size + 1), "Double");
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = reader.getDouble();
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    // Reflection
+
+    private static MethodHandle _unreflect(AccessibleObject member) {
+        // Lets the public members of a non-public class be used, like a record declared in a method
+        member.trySetAccessible();
+        try {
+            if (member instanceof Constructor) return MethodHandles.lookup().unreflectConstructor((Constructor<?>)member);
+            if (member instanceof Method) return MethodHandles.lookup().unreflect((Method)member);
+            return MethodHandles.lookup().unreflectSetter((Field)member);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot bind a Json value through " + member + " : it is not accessible", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T _invoke(MethodHandle constructor) {
+        try {
+            return (T)(Object)constructor.invokeExact();
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The way to bind a Json object into a Class : through a constructor taking all the values,
+     * or through a no-arg constructor then setters or fields
+     */
+    private static final class ObjectPlan {
+
+        private final Class<?> _class;
+        // Constructor taking the values, as an Object[]
+        private MethodHandle _constructor = null;
+        private Map<String, Integer> _parametersIndex = null;
+        private ValueBinder[] _parametersBinders = null;
+        private Object[] _parametersDefaults = null;
+        // No-arg constructor, then setters (instance, value)
+        private MethodHandle _noArgConstructor = null;
+        private Map<String, MethodHandle> _setters = null;
+        private Map<String, ValueBinder> _settersBinders = null;
+
+        ObjectPlan(Class<?> type) {
+            _class = type;
+            if (type.isRecord()) {
+                RecordComponent[] components = type.getRecordComponents();
+                Class<?>[] componentTypes = new Class<?>[components.length];
+                String[] names = new String[components.length];
+                Type[] genericTypes = new Type[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    componentTypes[i] = components[i].getType();
+                    names[i] = components[i].getName();
+                    genericTypes[i] = components[i].getGenericType();
+                }
+                try {
+                    _useConstructor(type.getDeclaredConstructor(componentTypes), names, genericTypes);
+                }
+                catch (NoSuchMethodException e) {
+                    throw new IllegalStateException("The record " + type.getName() + " has no canonical constructor", e);
+                }
+                return;
+            }
+
+            Constructor<?> widest = null;
+            for (Constructor<?> ctor : type.getConstructors()) {
+                if (ctor.getParameterCount() == 0) {
+                    _useSetters(ctor);
+                    return;
+                }
+                if (widest == null || ctor.getParameterCount() > widest.getParameterCount()) widest = ctor;
+            }
+            if (widest == null) {
+                throw new IllegalArgumentException("Cannot bind a Json value into " + type.getName() + " : no public constructor");
+            }
+
+            Parameter[] parameters = widest.getParameters();
+            // Without parameters names, the values are given to the parameters in the order of the fields
+            String[] names = null;
+            if (parameters[0].isNamePresent()) {
+                names = new String[parameters.length];
+                for (int i = 0; i < parameters.length; i++) {
+                    names[i] = parameters[i].getName();
+                }
+            }
+            _useConstructor(widest, names, widest.getGenericParameterTypes());
+        }
+
+        private void _useConstructor(Constructor<?> ctor, String[] names, Type[] genericTypes) {
+            int count = genericTypes.length;
+            _constructor = _unreflect(ctor).asSpreader(Object[].class, count).asType(MethodType.methodType(Object.class, Object[].class));
+            _parametersBinders = new ValueBinder[count];
+            _parametersDefaults = new Object[count];
+            for (int i = 0; i < count; i++) {
+                _parametersBinders[i] = _binderFor(genericTypes[i]);
+                Class<?> rawType = _rawClass(genericTypes[i]);
+                if (rawType.isPrimitive()) {
+                    // The default value of the primitive, like for a missing field of a java object
+                    _parametersDefaults[i] = Array.get(Array.newInstance(rawType, 1), 0);
+                }
+            }
+            if (names != null) {
+                _parametersIndex = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    _parametersIndex.put(names[i], i);
+                }
+            }
+        }
+
+        private void _useSetters(Constructor<?> noArgConstructor) {
+            _noArgConstructor = _unreflect(noArgConstructor).asType(MethodType.methodType(Object.class));
+            _setters = new HashMap<>();
+            _settersBinders = new HashMap<>();
+            MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+
+            for (Field field : _class.getFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) continue;
+                _setters.put(field.getName(), _unreflect(field).asType(setterType));
+                _settersBinders.put(field.getName(), _binderFor(field.getGenericType()));
+            }
+            // The setters take precedence over the fields of the same name
+            for (Method method : _class.getMethods()) {
+                String name = method.getName();
+                if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1 || name.length() < 4 || !name.startsWith("set")) continue;
+                String property = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+                _setters.put(property, _unreflect(method).asType(setterType));
+                _settersBinders.put(property, _binderFor(method.getGenericParameterTypes()[0]));
+            }
+        }
+
+        Object read(JsonReader reader, String fieldName) {
+            if (reader.getToken() != JsonToken.START_OBJECT) throw _wrongType(reader, fieldName, _class.getSimpleName());
+            return (_constructor != null) ? _readWithConstructor(reader) : _readWithSetters(reader);
+        }
+
+        private Object _readWithConstructor(JsonReader reader) {
+            Object[] args = _parametersDefaults.clone();
+            int position = 0;
+            while (reader.next() == JsonToken.FIELD_NAME) {
+                String name = reader.getString();
+                int index;
+                if (_parametersIndex != null) {
+                    Integer found = _parametersIndex.get(name);
+                    index = (found == null) ? -1 : found;
+                }
+                else index = position++;
+
+                if (index < 0 || index >= args.length) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.next();
+                args[index] = _parametersBinders[index].read(reader, name);
+            }
+
+            try {
+                return (Object)_constructor.invokeExact(args);
+            }
+            catch (RuntimeException | Error e) {
+                throw e;
+            }
+            catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private Object _readWithSetters(JsonReader reader) {
+            Object instance = _invoke(_noArgConstructor);
+            while (reader.next() == JsonToken.FIELD_NAME) {
+                String name = reader.getString();
+                MethodHandle setter = _setters.get(name);
+                if (setter == null) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.next();
+                Object value = _settersBinders.get(name).read(reader, name);
+                try {
+                    setter.invokeExact(instance, value);
+                }
+                catch (RuntimeException | Error e) {
+                    throw e;
+                }
+                catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return instance;
+        }
+    }
+}
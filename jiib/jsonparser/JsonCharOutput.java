@@ -0,0 +1,105 @@
+package jiib.jsonparser;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * An Appendable copying the chars appended straight into a fixed-size char buffer, written to a Writer once full.
+ * Integers are written as digits without building a String.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonWriter
+ */
+final class JsonCharOutput implements Appendable {
+
+    private final Writer _out;
+    private final char[] _chars;
+    private int _size = 0;
+
+    /**
+     * Create an output writing the chars to a Writer, through a fixed-size buffer
+     *
+     * @param out           The Writer to write the chars to
+     * @param bufferSize    The size of the buffer, raised to 20 chars so any integer fits in it
+     */
+    JsonCharOutput(Writer out, int bufferSize) {
+        _out = out;
+        _chars = new char[Math.max(bufferSize, 20)];
+    }
+
+    /**
+     * Make room for some more chars, writing the buffer to the Writer
+     */
+    private void _ensure(int count) throws IOException {
+        if (_size + count <= _chars.length) return;
+        _out.write(_chars, 0, _size);
+        _size = 0;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        _ensure(1);
+        _chars[_size++] = c;
+        return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        while (start < end) {
+            if (_size == _chars.length) _ensure(1);
+            int stop = Math.min(end, start + _chars.length - _size);
+            if (csq instanceof String) {
+                ((String)csq).getChars(start, stop, _chars, _size);
+                _size += stop - start;
+                start = stop;
+            }
+            else {
+                while (start < stop) _chars[_size++] = csq.charAt(start++);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write an integer as digits, without building a String
+     *
+     * @param   value   The integer to write
+     * @throws  IOException If the Writer fails
+     */
+    void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            append(Long.toString(value));
+            return;
+        }
+        _ensure(20);
+        if (value < 0) {
+            _chars[_size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) digits++;
+
+        int position = _size + digits;
+        _size = position;
+        do {
+            _chars[--position] = (char)('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    /**
+     * Write the chars not written yet to the Writer, and flush it
+     *
+     * @throws  IOException If the Writer fails
+     */
+    void flush() throws IOException {
+        _out.write(_chars, 0, _size);
+        _size = 0;
+        _out.flush();
+    }
+}
@@ -0,0 +1,650 @@
+package jiib.jsonparser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A forward-only cursor over the chars of a Json expression.
+ * The expression is walked once with an index, so reading a token never copies what remains to be read.
+ * When reading from a Reader, the chars are loaded in a fixed-size buffer, refilled as the cursor moves forward.
+ * A cursor can be reset on another expression, reusing its buffers.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonReader
+ */
+final class JsonCursor {
+
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private Reader _reader;
+    private char[] _buffer;
+    private int _limit;
+    private int _position = 0;
+    // Count of chars already dropped from the buffer, to locate errors in the whole expression
+    private long _offset = 0;
+    private StringBuilder _scratch = new StringBuilder();
+    // The table of canonical strings, or null to create a new String for each string read
+    private JsonSymbolTable _symbols = null;
+    // The last number read
+    private JsonValueKind _numberKind = null;
+    private long _numberBits = 0;
+    private Number _bigNumber = null;
+
+    /**
+     * Create a cursor on a Json expression held in memory
+     *
+     * @param json  The Json expression to read
+     */
+    JsonCursor(String json) {
+        this(json.toCharArray(), 0);
+    }
+
+    /**
+     * Create a cursor on a Json expression held in memory, starting at a given position
+     *
+     * @param buffer    The chars of the Json expression to read, which are not copied
+     * @param position  The position of the first char to read
+     */
+    JsonCursor(char[] buffer, int position) {
+        _reader = null;
+        _buffer = buffer;
+        _limit = buffer.length;
+        _position = position;
+    }
+
+    /**
+     * Create a cursor reading a Json expression from a Reader, through a fixed-size buffer
+     *
+     * @param reader        The Reader to read the Json expression from
+     * @param bufferSize    The size of the buffer, which is also the maximal length of a number
+     */
+    JsonCursor(Reader reader, int bufferSize) {
+        _reader = reader;
+        _buffer = new char[bufferSize];
+        _limit = 0;
+    }
+
+    /**
+     * Move the cursor to the start of another Json expression held in memory.
+     * The expression is copied into the buffer, which grows if it is too small.
+     *
+     * @param json  The Json expression to read
+     */
+    void reset(String json) {
+        if (_buffer.length < json.length()) {
+            _buffer = new char[json.length()];
+        }
+        json.getChars(0, json.length(), _buffer, 0);
+        _reader = null;
+        _limit = json.length();
+        _clear();
+    }
+
+    /**
+     * Move the cursor to the start of a token held in memory, located in a bigger Json expression
+     *
+     * @param buffer    The chars of the token to read, which are not copied
+     * @param limit     The number of chars of the token
+     * @param offset    The position of the token in the whole Json expression, to locate errors
+     */
+    void reset(char[] buffer, int limit, long offset) {
+        _buffer = buffer;
+        _reader = null;
+        _limit = limit;
+        _clear();
+        _offset = offset;
+    }
+
+    /**
+     * Move the cursor to the start of a Json expression read from a Reader
+     *
+     * @param reader    The Reader to read the Json expression from
+     */
+    void reset(Reader reader) {
+        if (_buffer.length < DEFAULT_BUFFER_SIZE) {
+            _buffer = new char[DEFAULT_BUFFER_SIZE];
+        }
+        _reader = reader;
+        _limit = 0;
+        _clear();
+    }
+
+    private void _clear() {
+        _position = 0;
+        _offset = 0;
+        _scratch.setLength(0);
+        _numberKind = null;
+        _numberBits = 0;
+        _bigNumber = null;
+    }
+
+    /**
+     * Drop the Reader, and the buffers grown beyond a given size so a single big expression does not hold them
+     *
+     * @param maxSize   The size in chars above which a buffer is dropped
+     */
+    void release(int maxSize) {
+        _reader = null;
+        _limit = 0;
+        _position = 0;
+        if (_buffer.length > maxSize) _buffer = new char[0];
+        if (_scratch.capacity() > maxSize) _scratch = new StringBuilder();
+        else _scratch.setLength(0);
+        _bigNumber = null;
+    }
+
+    private static boolean _isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static boolean _isDelimiter(char c) {
+        return c == ',' || c == ':' || c == ']' || c == '}' || _isWhitespace(c);
+    }
+
+    /**
+     * Drop the chars already read from the buffer, and load the next ones from the Reader
+     *
+     * @return  true if new chars have been loaded, or false at the end of the input or if the buffer is full
+     */
+    private boolean _fill() {
+        if (_reader == null) return false;
+
+        if (_position > 0) {
+            System.arraycopy(_buffer, _position, _buffer, 0, _limit - _position);
+            _offset += _position;
+            _limit -= _position;
+            _position = 0;
+        }
+        if (_limit == _buffer.length) return false;
+
+        try {
+            int read;
+            do {
+                read = _reader.read(_buffer, _limit, _buffer.length - _limit);
+            } while (read == 0);
+
+            if (read < 0) return false;
+            _limit += read;
+            return true;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Make sure the whole unquoted token under the cursor is loaded in the buffer
+     */
+    private void _bufferToken() {
+        int scanned = 0;
+        while (true) {
+            while (_position + scanned < _limit) {
+                if (_isDelimiter(_buffer[_position + scanned])) return;
+                scanned++;
+            }
+            if (!_fill()) {
+                // An expression held in memory is always whole in the buffer
+                if (_reader != null && _limit - _position == _buffer.length) {
+                    throw error("Invalid value : token longer than the " + _buffer.length + " chars buffer");
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move the cursor after any whitespace
+     *
+     * @return  true if there are still chars to read, or false
+     */
+    boolean skipWhitespace() {
+        while (true) {
+            while (_position < _limit) {
+                if (!_isWhitespace(_buffer[_position])) return true;
+                _position++;
+            }
+            if (!_fill()) return false;
+        }
+    }
+
+    /**
+     * Return the position of the cursor in the buffer
+     *
+     * @return  The index of the next char to read in the buffer
+     */
+    int position() {
+        return _position;
+    }
+
+    /**
+     * Return the count of chars read since the start of the expression
+     *
+     * @return  The position of the cursor in the whole expression
+     */
+    long charsRead() {
+        return _offset + _position;
+    }
+
+    /**
+     * Return the char under the cursor without moving it
+     *
+     * @return  The char under the cursor
+     */
+    char peek() {
+        return _buffer[_position];
+    }
+
+    /**
+     * Move the cursor to the next char
+     */
+    void skip() {
+        _position++;
+    }
+
+    private static int _hexValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    /**
+     * Decode the escape sequence under the cursor into the scratch buffer, and move the cursor after it
+     *
+     * @param   fieldName   The name of the field being read, used in error messages
+     */
+    private void _readEscape(String fieldName) {
+        char c = _buffer[_position + 1];
+        switch (c) {
+            case '"':  _scratch.append('"'); break;
+            case '\\': _scratch.append('\\'); break;
+            case '/':  _scratch.append('/'); break;
+            case 'b':  _scratch.append('\b'); break;
+            case 'f':  _scratch.append('\f'); break;
+            case 'n':  _scratch.append('\n'); break;
+            case 'r':  _scratch.append('\r'); break;
+            case 't':  _scratch.append('\t'); break;
+            case 'u':
+                int code = 0;
+                for (int i = 2; i < 6; i++) {
+                    int digit = _hexValue(_buffer[_position + i]);
+                    if (digit < 0) {
+                        throw error("Invalid string value for field : \"" + fieldName + "\", invalid unicode escape sequence");
+                    }
+                    code = (code << 4) | digit;
+                }
+                _scratch.append((char)code);
+                _position += 6;
+                return;
+            default:
+                throw error("Invalid string value for field : \"" + fieldName + "\", invalid escape sequence '\\" + c + "'");
+        }
+        _position += 2;
+    }
+
+    /**
+     * Set the table of canonical strings used for the strings read
+     *
+     * @param symbols   The table of canonical strings, or null to create a new String for each string read
+     */
+    void setSymbolTable(JsonSymbolTable symbols) {
+        _symbols = symbols;
+    }
+
+    /**
+     * Read a quoted string, the cursor being on its opening quote.
+     * Escape sequences are decoded.
+     *
+     * @param   fieldName   The name of the field being read, used in error messages
+     * @return  The content found between the quotes
+     */
+    String readString(String fieldName) {
+        return _readString(fieldName);
+    }
+
+    /**
+     * Read a quoted field name, the cursor being on its opening quote.
+     * Escape sequences are decoded.
+     *
+     * @param   fieldName   The name of the previous field, used in error messages
+     * @return  The field name found between the quotes
+     */
+    String readName(String fieldName) {
+        return _readString(fieldName);
+    }
+
+    /**
+     * Move the cursor after a quoted field name if it is the expected one, the cursor being on its opening quote.
+     * The name is compared in place, without building a String.
+     *
+     * @param   expected    The expected field name
+     * @return  true if the name has been read, or false if it is another name, holds an escape sequence, or is not loaded yet,
+     *          the cursor being left on the opening quote
+     */
+    boolean readExpectedName(String expected) {
+        int start = _position + 1;
+        int end = start + expected.length();
+        if (end >= _limit) return false;
+
+        char[] buffer = _buffer;
+        for (int i = 0; i < expected.length(); i++) {
+            char c = buffer[start + i];
+            if (c != expected.charAt(i) || c == '"' || c == '\\') return false;
+        }
+        if (buffer[end] != '"') return false;
+        _position = end + 1;
+        return true;
+    }
+
+    private String _readString(String fieldName) {
+        int start = ++_position;
+        // Once an escape sequence or the end of the buffer is met, the string is built in the scratch buffer
+        boolean scratched = false;
+        while (true) {
+            while (_position < _limit) {
+                char c = _buffer[_position];
+                if (c == '"') {
+                    String res;
+                    if (scratched) {
+                        res = _scratch.append(_buffer, start, _position - start).toString();
+                        if (_symbols != null) res = _symbols.canonical(res);
+                    }
+                    else if (_symbols != null) res = _symbols.lookup(_buffer, start, _position - start);
+                    else res = new String(_buffer, start, _position - start);
+                    _position++;
+                    return res;
+                }
+                if (c == '\\') {
+                    // The whole escape sequence is not loaded yet
+                    if (_position + 1 >= _limit || (_buffer[_position + 1] == 'u' && _position + 5 >= _limit)) break;
+
+                    if (!scratched) _scratch.setLength(0);
+                    scratched = true;
+                    _scratch.append(_buffer, start, _position - start);
+                    _readEscape(fieldName);
+                    start = _position;
+                }
+                else _position++;
+            }
+
+            // The string goes on after the buffer, keep what has been read so far
+            if (!scratched) _scratch.setLength(0);
+            scratched = true;
+            _scratch.append(_buffer, start, _position - start);
+            if (!_fill()) {
+                throw error("Invalid string value for field : \"" + fieldName + "\", the string is never closed");
+            }
+            start = _position;
+        }
+    }
+
+    /**
+     * Move the cursor after a quoted string without reading it, the cursor being on its opening quote.
+     *
+     * @param   fieldName   The name of the field being skipped, used in error messages
+     */
+    void skipString(String fieldName) {
+        _position++;
+        while (true) {
+            while (_position < _limit) {
+                char c = _buffer[_position];
+                if (c == '"') {
+                    _position++;
+                    return;
+                }
+                if (c == '\\') {
+                    if (_position + 1 >= _limit) break;
+                    _position += 2;
+                }
+                else _position++;
+            }
+            if (!_fill()) {
+                throw error("Invalid string value for field : \"" + fieldName + "\", the string is never closed");
+            }
+        }
+    }
+
+    /**
+     * Move the cursor after an unquoted token (number, boolean or null) without reading it
+     */
+    void skipToken() {
+        while (true) {
+            while (_position < _limit) {
+                if (_isDelimiter(_buffer[_position])) return;
+                _position++;
+            }
+            if (!_fill()) return;
+        }
+    }
+
+    /**
+     * Move the cursor after the end of an object or a list, the cursor being just after its opening char.
+     * Only the brackets are matched, the skipped content is not checked.
+     *
+     * @param   fieldName   The name of the field being skipped, used in error messages
+     */
+    void skipContainer(String fieldName) {
+        int depth = 1;
+        while (true) {
+            while (_position < _limit) {
+                char c = _buffer[_position];
+                if (c == '"') {
+                    skipString(fieldName);
+                    continue;
+                }
+                _position++;
+                if (c == '{' || c == '[') {
+                    depth++;
+                }
+                else if ((c == '}' || c == ']') && --depth == 0) {
+                    return;
+                }
+            }
+            if (!_fill()) {
+                throw error("Invalid value for field : \"" + fieldName + "\", an object or a list is never closed");
+            }
+        }
+    }
+
+    /**
+     * Move the cursor after a whole value without reading it, the cursor being on its first char.
+     * Only the brackets of objects and lists are matched, their content is not checked.
+     *
+     * @param   fieldName   The name of the field being skipped, used in error messages
+     */
+    void skipValue(String fieldName) {
+        char c = _buffer[_position];
+        if (c == '{' || c == '[') {
+            _position++;
+            skipContainer(fieldName);
+        }
+        else if (c == '"') {
+            skipString(fieldName);
+        }
+        else {
+            skipToken();
+        }
+    }
+
+    private boolean _isDigit(int position) {
+        return position < _limit && _buffer[position] >= '0' && _buffer[position] <= '9';
+    }
+
+    private void _expectTokenEnd(String fieldName) {
+        if (_position < _limit && !_isDelimiter(_buffer[_position])) {
+            throw error("Invalid value for field : \"" + fieldName + "\"");
+        }
+    }
+
+    /**
+     * Read a literal (true, false or null), checking only its own chars.
+     *
+     * @param   literal     The expected literal
+     * @param   fieldName   The name of the field being read, used in error messages
+     */
+    void readLiteral(String literal, String fieldName) {
+        _bufferToken();
+        int length = literal.length();
+        if (_limit - _position < length) {
+            throw error("Invalid value for field : \"" + fieldName + "\"");
+        }
+        for (int i = 0; i < length; i++) {
+            if (_buffer[_position + i] != literal.charAt(i)) {
+                throw error("Invalid value for field : \"" + fieldName + "\"");
+            }
+        }
+        _position += length;
+        _expectTokenEnd(fieldName);
+    }
+
+    /**
+     * Read a number following the Json grammar, checking only its own chars.
+     * The number is read as the smallest fitting kind : an INTEGER, then a LONG or a BIG_INTEGER for integral numbers,
+     * a DOUBLE, or a BIG_DECIMAL when a double would lose digits.
+     * As it has no integral representation, -0 is read as the double -0.0.
+     * The value is then available through numberBits or numberValue.
+     *
+     * @param   fieldName   The name of the field being read, used in error messages
+     * @return  The kind of the number read
+     */
+    JsonValueKind readNumber(String fieldName) {
+        _bufferToken();
+        int start = _position;
+        boolean negative = _buffer[_position] == '-';
+        if (negative) _position++;
+
+        // Integral part, without leading zeros
+        int digitsStart = _position;
+        long integral = 0;
+        if (!_isDigit(_position)) {
+            throw error("Invalid value for field : \"" + fieldName + "\"");
+        }
+        if (_buffer[_position] == '0') {
+            _position++;
+        }
+        else {
+            while (_isDigit(_position)) {
+                integral = integral * 10 + (_buffer[_position] - '0');
+                _position++;
+            }
+        }
+        int digitsCount = _position - digitsStart;
+        int significantDigits = (integral == 0) ? 0 : digitsCount;
+        boolean isDecimal = false;
+
+        // Fraction part
+        if (_position < _limit && _buffer[_position] == '.') {
+            isDecimal = true;
+            _position++;
+            if (!_isDigit(_position)) {
+                throw error("Invalid value for field : \"" + fieldName + "\", digits are expected after the '.'");
+            }
+            while (_isDigit(_position)) {
+                if (significantDigits > 0 || _buffer[_position] != '0') significantDigits++;
+                _position++;
+            }
+        }
+        // Exponent part
+        if (_position < _limit && (_buffer[_position] == 'e' || _buffer[_position] == 'E')) {
+            isDecimal = true;
+            _position++;
+            if (_position < _limit && (_buffer[_position] == '+' || _buffer[_position] == '-')) {
+                _position++;
+            }
+            if (!_isDigit(_position)) {
+                throw error("Invalid value for field : \"" + fieldName + "\", digits are expected in the exponent");
+            }
+            while (_isDigit(_position)) {
+                _position++;
+            }
+        }
+        _expectTokenEnd(fieldName);
+
+        if (!isDecimal) {
+            // Up to 18 digits always fit in a long
+            if (digitsCount <= 18) {
+                if (negative && integral == 0) {
+                    _numberBits = Double.doubleToRawLongBits(-0.0d);
+                    return _numberKind = JsonValueKind.DOUBLE;
+                }
+                _numberBits = negative ? -integral : integral;
+                if (_numberBits >= Integer.MIN_VALUE && _numberBits <= Integer.MAX_VALUE) {
+                    return _numberKind = JsonValueKind.INTEGER;
+                }
+                return _numberKind = JsonValueKind.LONG;
+            }
+            BigInteger value = new BigInteger(new String(_buffer, start, _position - start));
+            if (value.bitLength() < 64) {
+                _numberBits = value.longValue();
+                return _numberKind = JsonValueKind.LONG;
+            }
+            _bigNumber = value;
+            return _numberKind = JsonValueKind.BIG_INTEGER;
+        }
+
+        String token = new String(_buffer, start, _position - start);
+        // A double keeps up to 17 significant digits
+        if (significantDigits <= 17) {
+            double value = Double.parseDouble(token);
+            if (!Double.isInfinite(value) && (value != 0 || significantDigits == 0)) {
+                _numberBits = Double.doubleToRawLongBits(value);
+                return _numberKind = JsonValueKind.DOUBLE;
+            }
+        }
+        _bigNumber = new BigDecimal(token);
+        return _numberKind = JsonValueKind.BIG_DECIMAL;
+    }
+
+    /**
+     * Return the value of the last INTEGER, LONG or DOUBLE number read, as stored by JsonParsedField
+     *
+     * @return  The value as a long, or the raw bits of a double
+     */
+    long numberBits() {
+        return _numberBits;
+    }
+
+    /**
+     * Return the value of the last number read, boxed
+     *
+     * @return  An Integer, a Long, a BigInteger, a Double or a BigDecimal
+     */
+    Number numberValue() {
+        switch (_numberKind) {
+            case INTEGER:
+                return (int)_numberBits;
+            case LONG:
+                return _numberBits;
+            case DOUBLE:
+                return Double.longBitsToDouble(_numberBits);
+            default:
+                return _bigNumber;
+        }
+    }
+
+    /**
+     * Close the underlying Reader, if any
+     */
+    void close() {
+        if (_reader == null) return;
+        try {
+            _reader.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Build an exception locating an error at the current position
+     *
+     * @param   message The description of the error
+     * @return  The exception to be thrown
+     */
+    IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + (_offset + _position));
+    }
+}
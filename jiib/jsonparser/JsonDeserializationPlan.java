@@ -0,0 +1,117 @@
+package jiib.jsonparser;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The way to instantiate a java Class from the values of a JsonParsedObject, resolved once per Class.
+ * The public constructors are listed once, and the constructor matching a list of argument types is resolved
+ * into a MethodHandle on first use, then kept for the next objects with the same argument types.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedObject#tryDeserializing(Class)
+ */
+final class JsonDeserializationPlan {
+
+    // The most argument types lists kept per Class, the null arguments making many lists possible
+    static final int MAX_FACTORIES = 64;
+
+    private static final ClassValue<JsonDeserializationPlan> PLANS = new ClassValue<JsonDeserializationPlan>() {
+        @Override
+        protected JsonDeserializationPlan computeValue(Class<?> type) {
+            return new JsonDeserializationPlan(type);
+        }
+    };
+
+    private final Class<?> _class;
+    private final Constructor<?>[] _constructors;
+    // Each factory takes the arguments as an Object[] and returns the new instance
+    private final ConcurrentHashMap<List<Class<?>>, MethodHandle> _factories = new ConcurrentHashMap<>();
+
+    private JsonDeserializationPlan(Class<?> type) {
+        _class = type;
+        _constructors = type.getConstructors();
+    }
+
+    /**
+     * Return the plan of a Class
+     *
+     * @param   type    The Class to instantiate
+     * @return  The plan of the Class, shared by all the callers
+     */
+    static JsonDeserializationPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * Instantiate the Class
+     *
+     * @param   paramTypes  The classes of the arguments, null for a null argument, matching any class
+     * @param   args        The arguments of the constructor
+     * @return  The new instance
+     * @throws  NoSuchMethodException       If no public constructor matches the arguments classes
+     * @throws  InvocationTargetException   If the constructor throws an exception
+     */
+    Object newInstance(Class<?>[] paramTypes, Object[] args) throws NoSuchMethodException, InvocationTargetException {
+        List<Class<?>> key = Arrays.asList(paramTypes);
+        MethodHandle factory = _factories.get(key);
+        if (factory == null) {
+            factory = _resolve(paramTypes);
+            if (_factories.size() < MAX_FACTORIES) {
+                _factories.putIfAbsent(key, factory);
+            }
+        }
+
+        try {
+            return (Object)factory.invokeExact(args);
+        }
+        catch (Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * Return the count of argument types lists whose constructor is kept
+     *
+     * @return  The count of factories, at most MAX_FACTORIES
+     */
+    int getFactoryCount() {
+        return _factories.size();
+    }
+
+    /**
+     * Find the first public constructor whose parameters are the classes of the arguments
+     */
+    private MethodHandle _resolve(Class<?>[] paramTypes) throws NoSuchMethodException {
+        for (Constructor<?> ctor : _constructors) {
+            Class<?>[] ctorParams = ctor.getParameterTypes();
+            if (ctorParams.length != paramTypes.length) continue;
+
+            boolean found = true;
+            for (int i = 0; i < paramTypes.length && found; i++) {
+                found = (paramTypes[i] == null || paramTypes[i] == ctorParams[i]);
+            }
+            if (!found) continue;
+
+            try {
+                return MethodHandles.lookup().unreflectConstructor(ctor)
+                    .asSpreader(Object[].class, ctorParams.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            }
+            catch (IllegalAccessException e) {
+                throw new IllegalStateException("The public constructor " + ctor + " is not accessible", e);
+            }
+        }
+
+        throw new NoSuchMethodException(_class.getName() + ".<init>" + Arrays.toString(paramTypes));
+    }
+}
@@ -0,0 +1,276 @@
+package jiib.jsonparser;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compute the operations turning a tree into another one, and compare values deeply.
+ * Each object and list is given a 64-bit hash of its whole subtree, cached by the objects and kept for the time of the diff for the lists,
+ * so two subtrees with different hashes are told apart without being compared : the diff only descends into the subtrees which differ.
+ * Two subtrees with the same hash are still compared before being skipped, as different values may share a hash.
+ * The hash of an object does not depend on the order of its fields.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonPatch#diff(JsonParsedObject, JsonParsedObject)
+ */
+final class JsonDiff {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_HASH = 0x9e3779b97f4a7c15L;
+
+    // The hashes of the lists already gone through, the objects caching their own hash
+    private final IdentityHashMap<Object, Long> _listHashes = new IdentityHashMap<>();
+    private final List<JsonPatchOperation> _operations;
+
+    private JsonDiff(List<JsonPatchOperation> operations) {
+        _operations = operations;
+    }
+
+    /**
+     * Append the operations turning an object into another one
+     *
+     * @param source        The object to turn into the target
+     * @param target        The object to reach
+     * @param operations    The list to append the operations to
+     */
+    static void diff(JsonParsedObject source, JsonParsedObject target, List<JsonPatchOperation> operations) {
+        JsonDiff diff = new JsonDiff(operations);
+        if (!equalObjects(source, target)) {
+            diff._diffObject(source, target, "");
+        }
+    }
+
+    /**
+     * Return true if two fields hold equal values.
+     * The objects are equal when they hold the same fields, in any order, and the lists when they hold equal items in the same order.
+     * The numbers are equal when they have the same kind and the same value.
+     *
+     * @param   field   A field
+     * @param   other   Another field
+     * @return  true if both values are equal, whatever the names of the fields
+     */
+    @SuppressWarnings("unchecked")
+    static boolean equalValues(JsonParsedField field, JsonParsedField other) {
+        JsonValueKind kind = field.getKind();
+        if (kind != other.getKind()) return false;
+        switch (kind) {
+            case OBJECT:
+                return equalObjects((JsonParsedObject)field.getValue(), (JsonParsedObject)other.getValue());
+            case LIST:
+                List<JsonParsedField> items = (List<JsonParsedField>)field.getValue();
+                List<JsonParsedField> otherItems = (List<JsonParsedField>)other.getValue();
+                if (items == otherItems) return true;
+                if (items.size() != otherItems.size()) return false;
+                for (int i = 0; i < items.size(); i++) {
+                    if (!equalValues(items.get(i), otherItems.get(i))) return false;
+                }
+                return true;
+            case INTEGER:
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+                return field.bits() == other.bits();
+            case NULL:
+                return true;
+            default:
+                return field.getValue().equals(other.getValue());
+        }
+    }
+
+    /**
+     * Return true if two objects hold the same fields, in any order
+     *
+     * @param   object  An object
+     * @param   other   Another object
+     * @return  true if both objects are equal
+     */
+    static boolean equalObjects(JsonParsedObject object, JsonParsedObject other) {
+        if (object == other) return true;
+        if (object.getFieldCount() != other.getFieldCount()) return false;
+        // Different hashes tell different objects without going through them, equal hashes are checked field by field
+        if (object.hash64() != other.hash64()) return false;
+        for (JsonParsedField field : object.getFieldsRef()) {
+            JsonParsedField otherField = other.getField(field.getName());
+            if (otherField == null || !equalValues(field, otherField)) return false;
+        }
+        return true;
+    }
+
+    // Hashing
+
+    private static long _mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long _hashString(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return _mix(hash);
+    }
+
+    /**
+     * Return the hash of the fields of an object, whatever their order.
+     * The objects and lists held by the fields are linked to the object, so changing them clears its cached hash.
+     *
+     * @param   object  The object
+     * @return  The 64-bit hash of the object and its tree structure
+     */
+    static long hashFields(JsonParsedObject object) {
+        // The hashes of the fields are summed, so the order of the fields does not matter
+        long hash = 0;
+        for (JsonParsedField field : object.getFieldsRef()) {
+            hash += _mix(_hashString(field.getName()) ^ Long.rotateLeft(hashValue(field, object, null), 17));
+        }
+        return _mix(hash + object.getFieldCount());
+    }
+
+    /**
+     * Return the hash of the fields names and kinds of an object, in their order
+     *
+     * @param   object  The object
+     * @return  The 64-bit fingerprint of the structure of the object
+     */
+    static long hashShape(JsonParsedObject object) {
+        long hash = object.getFieldCount();
+        for (JsonParsedField field : object.getFieldsRef()) {
+            hash = _mix(hash * 31 + _hashString(field.getName()));
+            hash = _mix(hash * 31 + field.getKind().ordinal());
+        }
+        return hash;
+    }
+
+    /**
+     * Return the hash of the value of a field, whatever its name
+     *
+     * @param   field   The field
+     * @param   owner   The object the objects and lists of the value are linked to, or null
+     * @param   memo    The hashes of the lists already gone through, or null
+     * @return  The 64-bit hash of the value
+     */
+    @SuppressWarnings("unchecked")
+    static long hashValue(JsonParsedField field, JsonParsedObject owner, Map<Object, Long> memo) {
+        JsonValueKind kind = field.getKind();
+        switch (kind) {
+            case OBJECT:
+                JsonParsedObject object = (JsonParsedObject)field.getValue();
+                if (owner != null) object.setParent(owner);
+                return object.hash64();
+            case LIST:
+                List<JsonParsedField> items = (List<JsonParsedField>)field.getValue();
+                if (owner != null && items instanceof JsonFieldList) ((JsonFieldList)items).setOwner(owner);
+                Long known = (memo != null) ? memo.get(items) : null;
+                if (known != null) return known;
+
+                long hash = items.size();
+                for (int i = 0; i < items.size(); i++) {
+                    hash = _mix(hash * 31 + hashValue(items.get(i), owner, memo));
+                }
+                if (memo != null) memo.put(items, hash);
+                return hash;
+            case STRING:
+                return _hashString((String)field.getValue());
+            case INTEGER:
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+                return _mix(field.bits() + kind.ordinal() * NULL_HASH);
+            case NULL:
+                return NULL_HASH;
+            default:
+                // The big numbers are hashed through their text, equal only for equal values of the same scale
+                return _mix(_hashString(field.getValue().toString()) + kind.ordinal() * NULL_HASH);
+        }
+    }
+
+    private long _hashValue(JsonParsedField field) {
+        return hashValue(field, null, _listHashes);
+    }
+
+    private boolean _sameValue(JsonParsedField source, JsonParsedField target) {
+        // Different hashes tell different values at once, equal hashes are confirmed by comparing the values
+        return _hashValue(source) == _hashValue(target) && equalValues(source, target);
+    }
+
+    // Diffing
+
+    /**
+     * Escape a field name as a JSON Pointer token
+     */
+    static String escape(String name) {
+        if (name.indexOf('~') < 0 && name.indexOf('/') < 0) return name;
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    private void _diffObject(JsonParsedObject source, JsonParsedObject target, String path) {
+        for (JsonParsedField field : source.getFieldsRef()) {
+            if (target.getField(field.getName()) == null) {
+                _operations.add(JsonPatchOperation.remove(path + '/' + escape(field.getName())));
+            }
+        }
+        for (JsonParsedField field : target.getFieldsRef()) {
+            String fieldPath = path + '/' + escape(field.getName());
+            JsonParsedField sourceField = source.getField(field.getName());
+            if (sourceField == null) {
+                _operations.add(JsonPatchOperation.add(fieldPath, field));
+            }
+            else {
+                _diffValue(sourceField, field, fieldPath);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void _diffValue(JsonParsedField source, JsonParsedField target, String path) {
+        JsonValueKind kind = source.getKind();
+        if (kind == target.getKind()) {
+            if (_sameValue(source, target)) return;
+            if (kind == JsonValueKind.OBJECT) {
+                _diffObject((JsonParsedObject)source.getValue(), (JsonParsedObject)target.getValue(), path);
+                return;
+            }
+            if (kind == JsonValueKind.LIST) {
+                _diffList((List<JsonParsedField>)source.getValue(), (List<JsonParsedField>)target.getValue(), path);
+                return;
+            }
+        }
+        _operations.add(JsonPatchOperation.replace(path, target));
+    }
+
+    private void _diffList(List<JsonParsedField> source, List<JsonParsedField> target, String path) {
+        int sourceSize = source.size();
+        int targetSize = target.size();
+
+        // The items equal at the start and at the end of both lists are left as they are
+        int start = 0;
+        while (start < sourceSize && start < targetSize && _sameValue(source.get(start), target.get(start))) {
+            start++;
+        }
+        int sourceEnd = sourceSize;
+        int targetEnd = targetSize;
+        while (sourceEnd > start && targetEnd > start && _sameValue(source.get(sourceEnd - 1), target.get(targetEnd - 1))) {
+            sourceEnd--;
+            targetEnd--;
+        }
+
+        // The items in between are diffed by pairs, then the extra ones are removed or added
+        int paired = Math.min(sourceEnd, targetEnd) - start;
+        for (int i = start; i < start + paired; i++) {
+            _diffValue(source.get(i), target.get(i), path + '/' + i);
+        }
+        for (int i = sourceEnd - 1; i >= start + paired; i--) {
+            _operations.add(JsonPatchOperation.remove(path + '/' + i));
+        }
+        for (int i = start + paired; i < targetEnd; i++) {
+            _operations.add(JsonPatchOperation.add(path + '/' + i, target.get(i)));
+        }
+    }
+}
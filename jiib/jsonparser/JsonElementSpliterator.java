@@ -0,0 +1,85 @@
+package jiib.jsonparser;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Split the root list of a Json expression into its items, read one at a time from a JsonReader.
+ * Only the item being read is held in memory, so a list of any size can be gone through.
+ * The items are named after their index in the list, starting at "1", like the items of any other list.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parseElements(java.io.InputStream)
+ */
+final class JsonElementSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    /**
+     * Read an item, whose first event has just been read
+     */
+    interface ElementReader<T> {
+        T read(JsonReader reader, JsonToken token, String name);
+    }
+
+    private final JsonReader _reader;
+    private final ElementReader<T> _elementReader;
+    private int _index = 0;
+    private boolean _started = false;
+    private boolean _ended = false;
+
+    /**
+     * Start splitting the root list of a Json expression
+     *
+     * @param reader        The reader, positioned before the root list
+     * @param elementReader The function reading each item
+     */
+    JsonElementSpliterator(JsonReader reader, ElementReader<T> elementReader) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        _reader = reader;
+        _elementReader = elementReader;
+    }
+
+    /**
+     * Read the items as fields holding their value
+     *
+     * @param   reader  The reader, positioned before the root list
+     * @return  The spliterator
+     */
+    static JsonElementSpliterator<JsonParsedField> ofFields(JsonReader reader) {
+        JsonTreeBuilder builder = new JsonTreeBuilder();
+        return new JsonElementSpliterator<>(reader, builder::buildField);
+    }
+
+    /**
+     * Read the items straight into java objects
+     *
+     * @param   <T>     The java Class to bind the items into
+     * @param   reader  The reader, positioned before the root list
+     * @param   type    The java Class to bind the items into
+     * @return  The spliterator
+     */
+    static <T> JsonElementSpliterator<T> ofType(JsonReader reader, Class<T> type) {
+        return new JsonElementSpliterator<>(reader, (jsonReader, token, name) -> JsonBinder.bindCurrent(jsonReader, type, name));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (_ended) return false;
+        if (!_started) {
+            _started = true;
+            if (_reader.next() != JsonToken.START_ARRAY) {
+                throw _reader.error("Invalid Json expression : expecting a list at the root");
+            }
+        }
+
+        JsonToken token = _reader.next();
+        if (token == JsonToken.END_ARRAY) {
+            _ended = true;
+            // Check that nothing follows the root list
+            _reader.next();
+            return false;
+        }
+        action.accept(_elementReader.read(_reader, token, JsonListBuilder.indexName(++_index)));
+        return true;
+    }
+}
@@ -0,0 +1,589 @@
+package jiib.jsonparser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A non-blocking parser, fed with chunks of an UTF-8 encoded Json expression as they arrive.
+ * The events are read one at a time like with a JsonReader, but when the chunks fed so far end before the next event,
+ * NOT_AVAILABLE is returned instead of waiting for more input. A token cut between two chunks is kept aside
+ * until its end is fed, so the memory used only depends on the depth of the expression and on its biggest token.
+ * For example, in a callback called for each chunk received :
+ * <pre>
+ *  feeder.feed(chunk);
+ *  JsonParsedObject body = feeder.poll();
+ *  if (body != null) {
+ *      // ... the whole body has been received
+ *  }
+ * </pre>
+ * A chunk is not copied : all the events it holds have to be read before the next one is fed.
+ * A feeder is not thread-safe, but it can be fed from one thread and then another, the chunks being fed in order.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonReader
+ */
+public final class JsonFeeder {
+
+    // Scopes of the stack, like those of JsonReader, with the states following a ',' or a ':'
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+    private static final int NEXT_NAME = 7;
+    private static final int NEXT_FIELD_VALUE = 8;
+    private static final int NEXT_ITEM = 9;
+
+    // Lexical tokens, besides the structural chars themselves
+    private static final int NEED_INPUT = -1;
+    private static final int END_OF_INPUT = -2;
+    private static final int STRING = '"';
+    private static final int UNQUOTED = 'a';
+
+    // The chunk being read
+    private byte[] _input = new byte[0];
+    private int _inputPosition = 0;
+    private int _inputLimit = 0;
+    // Count of bytes of the chunks before the current one, to locate errors in the whole expression
+    private long _consumed = 0;
+    private int _chunkStart = 0;
+    private boolean _endOfInput = false;
+
+    // The token being read : its kind, the position of its first byte, and its bytes already read when cut between chunks
+    private int _partialToken = 0;
+    private long _tokenStart = 0;
+    private boolean _escaped = false;
+    private byte[] _tokenBytes = new byte[64];
+    private int _tokenLength = 0;
+    // The chars of the last token read, decoded by the cursor
+    private char[] _chars = new char[64];
+    private final JsonCursor _cursor = new JsonCursor(_chars, 0);
+
+    private int[] _scopes = new int[32];
+    private int _scopesSize = 1;
+
+    private JsonToken _token = null;
+    private String _string = null;
+    private JsonValueKind _numberKind = null;
+    private String _fieldName = "{none}";
+
+    // The tree built by poll
+    private JsonTreeBuilder _builder = null;
+
+    /**
+     * Create a feeder, waiting for the first chunk
+     */
+    public JsonFeeder() {
+        _scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Use a table of canonical strings for the field names and short string values read
+     *
+     * @param symbols   The table of canonical strings, or null to create a new String for each string read
+     * @see   jiib.jsonparser.JsonSymbolTable
+     */
+    public void setSymbolTable(JsonSymbolTable symbols) {
+        _cursor.setSymbolTable(symbols);
+    }
+
+    /**
+     * Feed the next chunk of the Json expression
+     *
+     * @param   chunk   The next bytes of the UTF-8 encoded Json expression, which are not copied
+     * @throws  IllegalStateException   If the previous chunk has not been read whole, or if the end of input has been fed
+     */
+    public void feed(byte[] chunk) {
+        feed(chunk, 0, chunk.length);
+    }
+
+    /**
+     * Feed the next chunk of the Json expression, held in a range of an array
+     *
+     * @param   chunk   The array holding the next bytes of the UTF-8 encoded Json expression, which are not copied
+     * @param   offset  The position of the first byte of the chunk
+     * @param   length  The number of bytes of the chunk
+     * @throws  IllegalStateException   If the previous chunk has not been read whole, or if the end of input has been fed
+     */
+    public void feed(byte[] chunk, int offset, int length) {
+        if (_endOfInput) {
+            throw new IllegalStateException("The end of input has already been fed");
+        }
+        // The whitespace left after the last event, as after the root object, needs not to be read
+        while (_inputPosition < _inputLimit && _isWhitespace(_input[_inputPosition])) {
+            _inputPosition++;
+        }
+        if (_inputPosition < _inputLimit) {
+            throw new IllegalStateException("The previous chunk has not been read whole, read the events until NOT_AVAILABLE first");
+        }
+        if (offset < 0 || length < 0 || offset + length > chunk.length) {
+            throw new IndexOutOfBoundsException("Invalid range : " + offset + " + " + length + " for " + chunk.length + " bytes");
+        }
+        _consumed += _inputLimit - _chunkStart;
+        _input = chunk;
+        _chunkStart = offset;
+        _inputPosition = offset;
+        _inputLimit = offset + length;
+    }
+
+    /**
+     * Signal that the whole Json expression has been fed
+     */
+    public void endOfInput() {
+        _endOfInput = true;
+    }
+
+    /**
+     * Return the input state of the feeder
+     *
+     * @return  true if the chunks fed have been read whole, and more are expected
+     */
+    public boolean needsInput() {
+        return _inputPosition == _inputLimit && !_endOfInput;
+    }
+
+    private long _position() {
+        return _consumed + (_inputPosition - _chunkStart);
+    }
+
+    private IllegalArgumentException _error(String message) {
+        return new IllegalArgumentException(message + " at position " + _tokenStart);
+    }
+
+    private static boolean _isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean _isDelimiter(byte b) {
+        return b == ',' || b == ':' || b == ']' || b == '}' || _isWhitespace(b);
+    }
+
+    /**
+     * Read the next lexical token : a structural char, a whole string, or a whole number or literal
+     *
+     * @return  The structural char, STRING or UNQUOTED with its chars decoded in the cursor, NEED_INPUT or END_OF_INPUT
+     */
+    private int _lex() {
+        byte[] input = _input;
+        int start;
+        if (_partialToken == 0) {
+            while (_inputPosition < _inputLimit && _isWhitespace(input[_inputPosition])) {
+                _inputPosition++;
+            }
+            _tokenStart = _position();
+            if (_inputPosition == _inputLimit) {
+                return _endOfInput ? END_OF_INPUT : NEED_INPUT;
+            }
+
+            byte b = input[_inputPosition];
+            if (b == '{' || b == '}' || b == '[' || b == ']' || b == ':' || b == ',') {
+                _inputPosition++;
+                return b;
+            }
+            start = _inputPosition;
+            if (b == '"') {
+                _partialToken = STRING;
+                _escaped = false;
+                _inputPosition++;
+            }
+            else _partialToken = UNQUOTED;
+        }
+        else start = _inputPosition;
+
+        // Look for the end of the token in the chunk
+        int position = _inputPosition;
+        boolean complete = false;
+        if (_partialToken == STRING) {
+            boolean escaped = _escaped;
+            while (position < _inputLimit) {
+                byte b = input[position++];
+                if (escaped) escaped = false;
+                else if (b == '\\') escaped = true;
+                else if (b == '"') {
+                    complete = true;
+                    break;
+                }
+            }
+            _escaped = escaped;
+            if (!complete && _endOfInput) {
+                throw _error("Invalid string value for field : \"" + _fieldName + "\", unexpected end of input");
+            }
+        }
+        else {
+            while (position < _inputLimit && !_isDelimiter(input[position])) position++;
+            complete = position < _inputLimit || _endOfInput;
+        }
+        _inputPosition = position;
+
+        if (!complete) {
+            _appendToken(input, start, position);
+            return NEED_INPUT;
+        }
+        int kind = _partialToken;
+        _partialToken = 0;
+        if (_tokenLength == 0) {
+            // The whole token is in the chunk, it is decoded without being copied
+            _decode(input, start, position);
+        }
+        else {
+            _appendToken(input, start, position);
+            _decode(_tokenBytes, 0, _tokenLength);
+            _tokenLength = 0;
+        }
+        return kind;
+    }
+
+    private void _appendToken(byte[] input, int start, int end) {
+        int length = end - start;
+        if (_tokenLength + length > _tokenBytes.length) {
+            _tokenBytes = Arrays.copyOf(_tokenBytes, Math.max(_tokenBytes.length * 2, _tokenLength + length));
+        }
+        System.arraycopy(input, start, _tokenBytes, _tokenLength, length);
+        _tokenLength += length;
+    }
+
+    /**
+     * Decode the bytes of a token into the chars read by the cursor
+     */
+    private void _decode(byte[] bytes, int start, int end) {
+        int length = end - start;
+        if (_chars.length < length) {
+            _chars = new char[Math.max(_chars.length * 2, length)];
+        }
+        char[] chars = _chars;
+        int i = 0;
+        while (i < length && bytes[start + i] >= 0) {
+            chars[i] = (char)bytes[start + i];
+            i++;
+        }
+        if (i < length) {
+            // Only the tokens holding non-ASCII chars go through a String
+            String rest = new String(bytes, start + i, length - i, StandardCharsets.UTF_8);
+            length = i + rest.length();
+            rest.getChars(0, rest.length(), chars, i);
+        }
+        _cursor.reset(chars, length, _tokenStart);
+    }
+
+    /**
+     * Read the next event of the Json expression
+     *
+     * @return  The event read, or NOT_AVAILABLE if more input has to be fed first
+     */
+    public JsonToken next() {
+        _token = _next();
+        return _token;
+    }
+
+    private JsonToken _next() {
+        while (true) {
+            int scope = _scopes[_scopesSize - 1];
+            int lexical = _lex();
+            if (lexical == NEED_INPUT) return JsonToken.NOT_AVAILABLE;
+            if (scope == NONEMPTY_DOCUMENT) {
+                if (lexical == END_OF_INPUT) return JsonToken.END_DOCUMENT;
+                throw _error("Invalid Json expression : unexpected char '" + _firstChar(lexical) + "' after the root value");
+            }
+            if (lexical == END_OF_INPUT) {
+                throw _error("Invalid Json expression : unexpected end of input, expecting " + _expected(scope));
+            }
+
+            switch (scope) {
+                case EMPTY_DOCUMENT:
+                    _scopes[_scopesSize - 1] = NONEMPTY_DOCUMENT;
+                    return _readValue(lexical);
+
+                case EMPTY_OBJECT:
+                case NEXT_NAME:
+                    if (lexical == '}' && scope == EMPTY_OBJECT) {
+                        _scopesSize--;
+                        return JsonToken.END_OBJECT;
+                    }
+                    if (lexical != STRING) {
+                        throw _error("Invalid Json expression : expecting a field name but found '" + _firstChar(lexical) + "'");
+                    }
+                    _string = _cursor.readName(_fieldName);
+                    _fieldName = _string;
+                    _scopes[_scopesSize - 1] = DANGLING_NAME;
+                    return JsonToken.FIELD_NAME;
+
+                case NONEMPTY_OBJECT:
+                    if (lexical == '}') {
+                        _scopesSize--;
+                        return JsonToken.END_OBJECT;
+                    }
+                    if (lexical != ',') {
+                        throw _error("Invalid Json expression : expecting ',' or '}' but found '" + _firstChar(lexical) + "'");
+                    }
+                    _scopes[_scopesSize - 1] = NEXT_NAME;
+                    break;
+
+                case DANGLING_NAME:
+                    if (lexical != ':') {
+                        throw _error("Invalid Json expression : expecting ':' but found '" + _firstChar(lexical) + "'");
+                    }
+                    _scopes[_scopesSize - 1] = NEXT_FIELD_VALUE;
+                    break;
+
+                case NEXT_FIELD_VALUE:
+                    _scopes[_scopesSize - 1] = NONEMPTY_OBJECT;
+                    return _readValue(lexical);
+
+                case EMPTY_ARRAY:
+                case NEXT_ITEM:
+                    if (lexical == ']' && scope == EMPTY_ARRAY) {
+                        _scopesSize--;
+                        return JsonToken.END_ARRAY;
+                    }
+                    _scopes[_scopesSize - 1] = NONEMPTY_ARRAY;
+                    return _readValue(lexical);
+
+                case NONEMPTY_ARRAY:
+                    if (lexical == ']') {
+                        _scopesSize--;
+                        return JsonToken.END_ARRAY;
+                    }
+                    if (lexical != ',') {
+                        throw _error("Invalid Json expression : expecting ',' or ']' but found '" + _firstChar(lexical) + "'");
+                    }
+                    _scopes[_scopesSize - 1] = NEXT_ITEM;
+                    break;
+
+                default:
+                    throw new IllegalStateException("Unknown scope : " + scope);
+            }
+        }
+    }
+
+    private static String _expected(int scope) {
+        switch (scope) {
+            case EMPTY_OBJECT:      return "a field or '}'";
+            case NONEMPTY_OBJECT:   return "',' or '}'";
+            case NEXT_NAME:         return "a field";
+            case DANGLING_NAME:     return "':'";
+            case EMPTY_ARRAY:       return "a value or ']'";
+            case NONEMPTY_ARRAY:    return "',' or ']'";
+            default:                return "a value";
+        }
+    }
+
+    private char _firstChar(int lexical) {
+        return (lexical == STRING || lexical == UNQUOTED) ? _chars[0] : (char)lexical;
+    }
+
+    private void _push(int scope) {
+        if (_scopesSize == _scopes.length) {
+            int[] scopes = new int[_scopesSize * 2];
+            System.arraycopy(_scopes, 0, scopes, 0, _scopesSize);
+            _scopes = scopes;
+        }
+        _scopes[_scopesSize++] = scope;
+    }
+
+    private JsonToken _readValue(int lexical) {
+        _string = null;
+        _numberKind = null;
+
+        switch (lexical) {
+            case '{':
+                _push(EMPTY_OBJECT);
+                return JsonToken.START_OBJECT;
+            case '[':
+                _push(EMPTY_ARRAY);
+                return JsonToken.START_ARRAY;
+            case STRING:
+                _string = _cursor.readString(_fieldName);
+                return JsonToken.VALUE_STRING;
+            case UNQUOTED:
+                char c = _chars[0];
+                if (c == 't') {
+                    _cursor.readLiteral("true", _fieldName);
+                    return JsonToken.VALUE_TRUE;
+                }
+                if (c == 'f') {
+                    _cursor.readLiteral("false", _fieldName);
+                    return JsonToken.VALUE_FALSE;
+                }
+                if (c == 'n') {
+                    _cursor.readLiteral("null", _fieldName);
+                    return JsonToken.VALUE_NULL;
+                }
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    _numberKind = _cursor.readNumber(_fieldName);
+                    return JsonToken.VALUE_NUMBER;
+                }
+                throw _error("Invalid value for field : \"" + _fieldName + "\", unexpected char '" + c + "'");
+            default:
+                throw _error("Invalid value for field : \"" + _fieldName + "\", unexpected char '" + _firstChar(lexical) + "'");
+        }
+    }
+
+    /**
+     * Read the events available into a tree, and return its root object once it has been closed.
+     * The root object is returned once, the end of the Json expression can then be checked by next.
+     * Any event read by next before the first call is lost for the tree, so a feeder is either read by events or by poll.
+     *
+     * @return  The root object, or null if more input has to be fed first
+     * @throws  IllegalArgumentException If the Json expression is invalid
+     */
+    public JsonParsedObject poll() {
+        if (_builder == null) _builder = new JsonTreeBuilder();
+        while (!_builder.isComplete()) {
+            JsonToken token = next();
+            if (token == JsonToken.NOT_AVAILABLE || token == JsonToken.END_DOCUMENT) return null;
+            if (_builder.getRoot() == null && token != JsonToken.START_OBJECT) {
+                throw _error("Invalid Json expression : Whole expression should be wrapped between opening and closing balises");
+            }
+
+            switch (token) {
+                case START_OBJECT:
+                    _builder.startObject();
+                    break;
+                case START_ARRAY:
+                    _builder.startList();
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    _builder.end();
+                    break;
+                case FIELD_NAME:
+                    _builder.name(_string);
+                    break;
+                case VALUE_STRING:
+                    _builder.value(JsonValueKind.STRING, _string);
+                    break;
+                case VALUE_NUMBER:
+                    if (_numberKind == JsonValueKind.BIG_INTEGER || _numberKind == JsonValueKind.BIG_DECIMAL) {
+                        _builder.value(_numberKind, _cursor.numberValue());
+                    }
+                    else _builder.primitive(_numberKind, _cursor.numberBits());
+                    break;
+                case VALUE_TRUE:
+                    _builder.primitive(JsonValueKind.BOOLEAN, 1);
+                    break;
+                case VALUE_FALSE:
+                    _builder.primitive(JsonValueKind.BOOLEAN, 0);
+                    break;
+                case VALUE_NULL:
+                    _builder.value(JsonValueKind.NULL, null);
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected event : " + token);
+            }
+        }
+        JsonParsedObject root = _builder.getRoot();
+        _builder.reset();
+        return root;
+    }
+
+    /**
+     * Return the last event read
+     *
+     * @return  The last event read, or null if next has never been called
+     */
+    public JsonToken getToken() {
+        return _token;
+    }
+
+    /**
+     * Return the text of the last event read, for a FIELD_NAME or a VALUE_STRING.
+     *
+     * @return  The name of the field, or the string value
+     */
+    public String getString() {
+        if (_token != JsonToken.FIELD_NAME && _token != JsonToken.VALUE_STRING) {
+            throw new IllegalStateException("The current event is not a string but " + _token);
+        }
+        return _string;
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_NUMBER.
+     * The number is an Integer, a Long, a BigInteger, a Double or a BigDecimal, depending on its size and its format.
+     *
+     * @return  The number value
+     */
+    public Number getNumber() {
+        return _checkNumber(null).numberValue();
+    }
+
+    /**
+     * Return the kind of the last event read, for a VALUE_NUMBER.
+     *
+     * @return  INTEGER, LONG, BIG_INTEGER, DOUBLE or BIG_DECIMAL
+     */
+    public JsonValueKind getNumberKind() {
+        _checkNumber(null);
+        return _numberKind;
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_NUMBER of kind INTEGER, without boxing.
+     *
+     * @return  The number value
+     */
+    public int getInt() {
+        return (int)_checkNumber(JsonValueKind.INTEGER).numberBits();
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_NUMBER of kind INTEGER or LONG, without boxing.
+     *
+     * @return  The number value
+     */
+    public long getLong() {
+        if (_numberKind == JsonValueKind.INTEGER) return _checkNumber(null).numberBits();
+        return _checkNumber(JsonValueKind.LONG).numberBits();
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_NUMBER, as a double without boxing.
+     *
+     * @return  The number value, converted to a double if needed
+     */
+    public double getDouble() {
+        JsonCursor cursor = _checkNumber(null);
+        switch (_numberKind) {
+            case DOUBLE:
+                return Double.longBitsToDouble(cursor.numberBits());
+            case INTEGER:
+            case LONG:
+                return cursor.numberBits();
+            default:
+                return cursor.numberValue().doubleValue();
+        }
+    }
+
+    private JsonCursor _checkNumber(JsonValueKind expected) {
+        if (_token != JsonToken.VALUE_NUMBER) {
+            throw new IllegalStateException("The current event is not a number but " + _token);
+        }
+        if (expected != null && _numberKind != expected) {
+            throw new IllegalStateException("The current number is " + _numberKind.getValueType() + ", not " + expected.getValueType());
+        }
+        return _cursor;
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_TRUE or a VALUE_FALSE.
+     *
+     * @return  The boolean value
+     */
+    public boolean getBoolean() {
+        if (_token != JsonToken.VALUE_TRUE && _token != JsonToken.VALUE_FALSE) {
+            throw new IllegalStateException("The current event is not a boolean but " + _token);
+        }
+        return _token == JsonToken.VALUE_TRUE;
+    }
+
+    /**
+     * Return the count of objects and lists currently opened
+     *
+     * @return  The current depth in the Json expression
+     */
+    public int getDepth() {
+        return _scopesSize - 1;
+    }
+}
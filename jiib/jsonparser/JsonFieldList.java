@@ -0,0 +1,122 @@
+package jiib.jsonparser;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The mutable list of the items of a parsed list, backed by an array of JsonParsedField.
+ * The items are not indexed by name, their names being their index in the list starting at 1.
+ * Once a tree has been hashed, the list is linked to the object holding it, and any change of the list
+ * clears the cached hashes of this object and of the objects holding it.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedField#getValue()
+ */
+final class JsonFieldList extends AbstractList<JsonParsedField> implements RandomAccess {
+
+    private static final JsonParsedField[] NO_ITEMS = new JsonParsedField[0];
+
+    private JsonParsedField[] _items;
+    private int _size;
+    // The object whose hash covers this list, or null while the tree has not been hashed
+    private JsonParsedObject _owner = null;
+
+    /**
+     * Create an empty list
+     */
+    JsonFieldList() {
+        _items = NO_ITEMS;
+        _size = 0;
+    }
+
+    /**
+     * Create a list holding the items of an array, which is not copied
+     *
+     * @param items The items, which are kept by the list
+     * @param size  The count of items of the array to keep
+     */
+    JsonFieldList(JsonParsedField[] items, int size) {
+        _items = items;
+        _size = size;
+    }
+
+    /**
+     * Link this list to the object whose hash covers it
+     *
+     * @param owner The object holding this list, directly or through other lists
+     */
+    void setOwner(JsonParsedObject owner) {
+        _owner = owner;
+    }
+
+    private void _changed() {
+        modCount++;
+        if (_owner != null) _owner.clearHash();
+    }
+
+    private static JsonParsedField _check(JsonParsedField field) {
+        if (field == null) {
+            throw new IllegalArgumentException("A list item can not be null, a Null field should be used");
+        }
+        return field;
+    }
+
+    private void _grow() {
+        _items = Arrays.copyOf(_items, Math.max(8, _size + (_size >> 1)));
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public JsonParsedField get(int index) {
+        if (index < 0 || index >= _size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + _size);
+        return _items[index];
+    }
+
+    @Override
+    public JsonParsedField set(int index, JsonParsedField field) {
+        JsonParsedField previous = get(index);
+        _items[index] = _check(field);
+        _changed();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, JsonParsedField field) {
+        if (index < 0 || index > _size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + _size);
+        _check(field);
+        if (_size == _items.length) _grow();
+        System.arraycopy(_items, index, _items, index + 1, _size - index);
+        _items[index] = field;
+        _size++;
+        _changed();
+    }
+
+    @Override
+    public JsonParsedField remove(int index) {
+        JsonParsedField previous = get(index);
+        System.arraycopy(_items, index + 1, _items, index, _size - index - 1);
+        _items[--_size] = null;
+        _changed();
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, _size);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) return;
+        System.arraycopy(_items, toIndex, _items, fromIndex, _size - toIndex);
+        int size = _size - (toIndex - fromIndex);
+        Arrays.fill(_items, size, _size, null);
+        _size = size;
+        _changed();
+    }
+}
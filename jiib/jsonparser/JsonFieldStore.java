@@ -0,0 +1,230 @@
+package jiib.jsonparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The fields of a JsonParsedObject, kept in their insertion order.
+ * Small collections are searched by a linear scan, bigger ones are indexed by name in a hash map,
+ * which is only built once the collection grows past INDEX_THRESHOLD fields.
+ * A frozen collection is a read-only array, whose bigger instances are indexed by an open addressing table of positions.
+ * A collection parsed with a JsonShape finds its fields through the positions kept by the shape, until it is modified.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedObject
+ */
+final class JsonFieldStore {
+
+    static final int INDEX_THRESHOLD = 8;
+
+    private final ArrayList<JsonParsedField> _fields;
+    private HashMap<String, JsonParsedField> _index = null;
+    // The shape giving the positions of the fields, while they are those of the shape, or null
+    private JsonShape _shape = null;
+
+    // The fields of a frozen collection, and the positions + 1 of the fields in the slot of their name hash, or null
+    private final JsonParsedField[] _frozen;
+    private final int[] _slots;
+    private final List<JsonParsedField> _frozenList;
+
+    /**
+     * Create an empty collection
+     */
+    JsonFieldStore() {
+        _fields = new ArrayList<>();
+        _frozen = null;
+        _slots = null;
+        _frozenList = null;
+    }
+
+    /**
+     * Create a collection holding the fields of a shape, in their order
+     *
+     * @param shape     The shape of the fields
+     * @param fields    The fields, named and ordered as in the shape, kept as they are
+     */
+    JsonFieldStore(JsonShape shape, ArrayList<JsonParsedField> fields) {
+        _fields = fields;
+        _shape = shape;
+        _frozen = null;
+        _slots = null;
+        _frozenList = null;
+    }
+
+    /**
+     * Create a frozen collection, which can not be modified
+     *
+     * @param fields    The fields, whose names are unique, kept as they are
+     */
+    JsonFieldStore(JsonParsedField[] fields) {
+        _fields = null;
+        _frozen = fields;
+        _frozenList = Collections.unmodifiableList(Arrays.asList(fields));
+        if (fields.length > INDEX_THRESHOLD) {
+            _slots = new int[Integer.highestOneBit(fields.length) << 2];
+            int mask = _slots.length - 1;
+            for (int i = 0; i < fields.length; i++) {
+                int slot = _slot(fields[i].getName(), mask);
+                while (_slots[slot] != 0) slot = (slot + 1) & mask;
+                _slots[slot] = i + 1;
+            }
+        }
+        else _slots = null;
+    }
+
+    private static int _slot(String name, int mask) {
+        int hash = name.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Return the frozen state of the collection
+     *
+     * @return  true if the collection can not be modified, or false
+     */
+    boolean isFrozen() {
+        return _frozen != null;
+    }
+
+    private JsonParsedField _getFrozen(String name) {
+        if (_slots == null) {
+            for (JsonParsedField field : _frozen) {
+                if (field.getName().equals(name)) return field;
+            }
+            return null;
+        }
+        int mask = _slots.length - 1;
+        for (int slot = _slot(name, mask); _slots[slot] != 0; slot = (slot + 1) & mask) {
+            JsonParsedField field = _frozen[_slots[slot] - 1];
+            if (field.getName().equals(name)) return field;
+        }
+        return null;
+    }
+
+    private void _checkNotFrozen() {
+        if (_frozen != null) {
+            throw new UnsupportedOperationException("The object is frozen, and can not be modified");
+        }
+    }
+
+    /**
+     * Stop finding the fields through the shape, before the fields are not those of the shape anymore
+     */
+    private void _detach() {
+        _shape = null;
+        if (_fields.size() > INDEX_THRESHOLD) {
+            _index = new HashMap<>(_fields.size() * 2);
+            for (JsonParsedField it : _fields) {
+                _index.put(it.getName(), it);
+            }
+        }
+    }
+
+    /**
+     * Return a field to find by name
+     *
+     * @param   name    The name of the field to be returned
+     * @return  The searched field, or null
+     */
+    JsonParsedField get(String name) {
+        if (_frozen != null) {
+            return _getFrozen(name);
+        }
+        if (_shape != null) {
+            int position = _shape.indexOf(name);
+            return (position < 0) ? null : _fields.get(position);
+        }
+        if (_index != null) {
+            return _index.get(name);
+        }
+        for (int i = 0; i < _fields.size(); i++) {
+            JsonParsedField field = _fields.get(i);
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a field at the end of the collection, if its name is not already used
+     *
+     * @param   field   The field to add
+     * @return  true if the field has been added, or false if a field with the same name is already contained
+     * @throws  UnsupportedOperationException   If the collection is frozen
+     */
+    boolean add(JsonParsedField field) {
+        _checkNotFrozen();
+        if (_shape != null) _detach();
+        if (_index != null) {
+            if (_index.putIfAbsent(field.getName(), field) != null) return false;
+        }
+        else if (get(field.getName()) != null) {
+            return false;
+        }
+        _fields.add(field);
+
+        if (_index == null && _fields.size() > INDEX_THRESHOLD) {
+            _index = new HashMap<>(_fields.size() * 2);
+            for (JsonParsedField it : _fields) {
+                _index.put(it.getName(), it);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove a field from the collection
+     *
+     * @param   field   The field to remove
+     * @return  true if the field was contained, or false
+     * @throws  UnsupportedOperationException   If the collection is frozen
+     */
+    boolean remove(JsonParsedField field) {
+        _checkNotFrozen();
+        if (_shape != null) _detach();
+        if (!_fields.remove(field)) return false;
+        if (_index != null) {
+            _index.remove(field.getName(), field);
+        }
+        return true;
+    }
+
+    /**
+     * Replace a field of the collection by another one, at the same position
+     *
+     * @param   oldField    The field to replace, which has to be contained
+     * @param   newField    The new field
+     * @return  true if the field has been replaced, or false if another field with the name of the new one is already contained
+     * @throws  UnsupportedOperationException   If the collection is frozen
+     */
+    boolean replace(JsonParsedField oldField, JsonParsedField newField) {
+        _checkNotFrozen();
+        int index = _fields.indexOf(oldField);
+        if (index < 0) {
+            throw new IllegalArgumentException("The field to replace is not contained");
+        }
+        if (!newField.getName().equals(oldField.getName())) {
+            if (get(newField.getName()) != null) return false;
+            if (_shape != null) _detach();
+        }
+        _fields.set(index, newField);
+        if (_index != null) {
+            _index.remove(oldField.getName(), oldField);
+            _index.put(newField.getName(), newField);
+        }
+        return true;
+    }
+
+    /**
+     * Return the fields, in their insertion order
+     *
+     * @return  The list of the fields, backing this collection, which is read-only once frozen
+     */
+    List<JsonParsedField> list() {
+        return (_frozen != null) ? _frozenList : _fields;
+    }
+}
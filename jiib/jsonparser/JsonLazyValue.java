@@ -0,0 +1,154 @@
+package jiib.jsonparser;
+
+/**
+ * The position of a value not decoded yet in a Json expression, used by the lazy parsing.
+ * Objects and lists are scanned one level at a time : the names of their fields are read,
+ * but the values are only located and skipped, to be decoded when they are first used.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parseLazy(String)
+ */
+final class JsonLazyValue {
+
+    private final char[] _source;
+    private final int _position;
+
+    /**
+     * Locate a value in a Json expression
+     *
+     * @param source    The chars of the whole Json expression
+     * @param position  The position of the first char of the value
+     */
+    JsonLazyValue(char[] source, int position) {
+        _source = source;
+        _position = position;
+    }
+
+    /**
+     * Scan the root object of a Json expression
+     *
+     * @param   json    The Json expression to scan
+     * @return  The root object, whose fields are not decoded yet
+     */
+    static JsonParsedObject scanRoot(String json) {
+        char[] source = json.toCharArray();
+        JsonCursor cursor = new JsonCursor(source, 0);
+        if (!cursor.skipWhitespace() || cursor.peek() != '{') {
+            throw new IllegalArgumentException("Invalid Json expression : Whole expression should be wrapped between opening and closing balises");
+        }
+
+        JsonParsedObject root = new JsonParsedObject();
+        _scan(source, cursor, root, null, "{none}");
+        if (cursor.skipWhitespace()) {
+            throw cursor.error("Invalid Json expression : unexpected char '" + cursor.peek() + "' after the root value");
+        }
+        return root;
+    }
+
+    private static char _next(JsonCursor cursor, String expected) {
+        if (!cursor.skipWhitespace()) {
+            throw cursor.error("Invalid Json expression : unexpected end of input, expecting " + expected);
+        }
+        return cursor.peek();
+    }
+
+    /**
+     * Scan an object or a list, the cursor being on its opening char, and move the cursor after its closing char
+     *
+     * @param   source      The chars of the whole Json expression
+     * @param   cursor      The cursor on the Json expression
+     * @param   object      The object to add the fields to, or null for a list
+     * @param   items       The list to add the items to, or null for an object
+     * @param   fieldName   The name of the field being scanned, used in error messages
+     */
+    private static void _scan(char[] source, JsonCursor cursor, JsonParsedObject object, JsonFieldList items, String fieldName) {
+        boolean isList = items != null;
+        char closing = isList ? ']' : '}';
+        cursor.skip();
+
+        char c = _next(cursor, "'" + closing + "' or a value");
+        if (c == closing) {
+            cursor.skip();
+            return;
+        }
+
+        while (true) {
+            String name;
+            if (isList) {
+                name = JsonListBuilder.indexName(items.size() + 1);
+            }
+            else {
+                if (c != '"') {
+                    throw cursor.error("Invalid Json expression : expecting a field name but found '" + c + "'");
+                }
+                name = cursor.readName(fieldName);
+                if (_next(cursor, "':'") != ':') {
+                    throw cursor.error("Invalid Json expression : expecting ':' but found '" + cursor.peek() + "'");
+                }
+                cursor.skip();
+                _next(cursor, "a value");
+            }
+
+            c = cursor.peek();
+            if (c != '{' && c != '[' && c != '"' && c != 't' && c != 'f' && c != 'n' && c != '-' && (c < '0' || c > '9')) {
+                throw cursor.error("Invalid value for field : \"" + name + "\", unexpected char '" + c + "'");
+            }
+            JsonParsedField field = new JsonParsedField(name, new JsonLazyValue(source, cursor.position()));
+            // The items of a list are named after their index, so they need no check for duplicated names
+            if (isList) items.add(field);
+            else object.addField(field);
+            cursor.skipValue(name);
+
+            c = _next(cursor, "',' or '" + closing + "'");
+            cursor.skip();
+            if (c == closing) return;
+            if (c != ',') {
+                throw cursor.error("Invalid Json expression : expecting ',' or '" + closing + "' but found '" + c + "'");
+            }
+            c = _next(cursor, "a value");
+        }
+    }
+
+    /**
+     * Decode the value.
+     * Objects and lists are only scanned, their own values being decoded later.
+     *
+     * @param   fieldName   The name of the field holding the value, used in error messages
+     * @return  A field holding the decoded value
+     */
+    JsonParsedField decode(String fieldName) {
+        JsonCursor cursor = new JsonCursor(_source, _position);
+        char c = cursor.peek();
+
+        switch (c) {
+            case '{':
+                JsonParsedObject object = new JsonParsedObject();
+                _scan(_source, cursor, object, null, fieldName);
+                return new JsonParsedField(fieldName, JsonValueKind.OBJECT, object);
+            case '[':
+                JsonFieldList items = new JsonFieldList();
+                _scan(_source, cursor, null, items, fieldName);
+                return new JsonParsedField(fieldName, JsonValueKind.LIST, items);
+            case '"':
+                return new JsonParsedField(fieldName, JsonValueKind.STRING, cursor.readString(fieldName));
+            case 't':
+                cursor.readLiteral("true", fieldName);
+                return new JsonParsedField(fieldName, JsonValueKind.BOOLEAN, 1);
+            case 'f':
+                cursor.readLiteral("false", fieldName);
+                return new JsonParsedField(fieldName, JsonValueKind.BOOLEAN, 0);
+            case 'n':
+                cursor.readLiteral("null", fieldName);
+                return new JsonParsedField(fieldName, JsonValueKind.NULL, (Object)null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    JsonValueKind kind = cursor.readNumber(fieldName);
+                    if (kind == JsonValueKind.BIG_INTEGER || kind == JsonValueKind.BIG_DECIMAL) {
+                        return new JsonParsedField(fieldName, kind, cursor.numberValue());
+                    }
+                    return new JsonParsedField(fieldName, kind, cursor.numberBits());
+                }
+                throw cursor.error("Invalid value for field : \"" + fieldName + "\", unexpected char '" + c + "'");
+        }
+    }
+}
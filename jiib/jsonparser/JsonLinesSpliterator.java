@@ -0,0 +1,162 @@
+package jiib.jsonparser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Split a Json Lines input into records, and parse them by batches on an Executor.
+ * The lines are read on the consuming thread, while a bounded number of batches are being parsed ahead,
+ * so a whole file is never held in memory.
+ * The parsed records are given in the order of the lines, or in the order the batches are parsed.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parseLines(java.io.InputStream, boolean, Executor)
+ */
+final class JsonLinesSpliterator extends Spliterators.AbstractSpliterator<JsonParsedObject> {
+
+    // A batch is ended by whichever of these limits is reached first
+    static final int BATCH_LINES = 256;
+    static final int BATCH_CHARS = 1 << 16;
+
+    private final BufferedReader _reader;
+    private final boolean _ordered;
+    private final Executor _executor;
+    private final int _maxBatchesInFlight;
+    // Shared by all the records, which usually have the same field names
+    private final JsonSymbolTable _symbols = new JsonSymbolTable();
+
+    private long _lineNumber = 0;
+    private boolean _endOfInput = false;
+    private int _batchesInFlight = 0;
+    // The batches being parsed, in the order of the lines when ordered, or in the order they are parsed
+    private final ArrayDeque<CompletableFuture<JsonParsedObject[]>> _pending = new ArrayDeque<>();
+    private final LinkedBlockingQueue<CompletableFuture<JsonParsedObject[]>> _parsed = new LinkedBlockingQueue<>();
+
+    private JsonParsedObject[] _current = new JsonParsedObject[0];
+    private int _currentIndex = 0;
+
+    /**
+     * Start splitting a Json Lines input
+     *
+     * @param reader    The reader of the input, read line by line
+     * @param ordered   true to give the records in the order of the lines, or false to give them as soon as they are parsed
+     * @param executor  The Executor parsing the batches
+     */
+    JsonLinesSpliterator(BufferedReader reader, boolean ordered, Executor executor) {
+        super(Long.MAX_VALUE, ordered ? (Spliterator.ORDERED | Spliterator.NONNULL) : Spliterator.NONNULL);
+        _reader = reader;
+        _ordered = ordered;
+        _executor = executor;
+        _maxBatchesInFlight = 2 * Runtime.getRuntime().availableProcessors() + 1;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super JsonParsedObject> action) {
+        while (_currentIndex == _current.length) {
+            _submitBatches();
+            if (_batchesInFlight == 0) return false;
+            _current = _awaitBatch();
+            _currentIndex = 0;
+        }
+
+        JsonParsedObject record = _current[_currentIndex];
+        // Release the record, so only the records not consumed yet are kept
+        _current[_currentIndex++] = null;
+        action.accept(record);
+        return true;
+    }
+
+    /**
+     * Read and submit batches, until enough are being parsed or the input is over
+     */
+    private void _submitBatches() {
+        while (!_endOfInput && _batchesInFlight < _maxBatchesInFlight) {
+            long firstLineNumber = _lineNumber + 1;
+            List<String> lines = _readBatch();
+            if (lines.isEmpty()) break;
+
+            CompletableFuture<JsonParsedObject[]> batch = CompletableFuture.supplyAsync(() -> _parseBatch(lines, firstLineNumber), _executor);
+            if (_ordered) {
+                _pending.add(batch);
+            }
+            else {
+                batch.whenComplete((records, error) -> _parsed.add(batch));
+            }
+            _batchesInFlight++;
+        }
+    }
+
+    private List<String> _readBatch() {
+        List<String> lines = new ArrayList<>();
+        int chars = 0;
+        try {
+            while (lines.size() < BATCH_LINES && chars < BATCH_CHARS) {
+                String line = _reader.readLine();
+                if (line == null) {
+                    _endOfInput = true;
+                    break;
+                }
+                _lineNumber++;
+                // Blank lines are kept, to know the line number of each record
+                lines.add(line);
+                chars += line.length();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+
+    private JsonParsedObject[] _parseBatch(List<String> lines, long firstLineNumber) {
+        List<JsonParsedObject> records = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) continue;
+            try {
+                // The parser of the thread keeps its buffers from a line to the next
+                records.add(JsonParser.local().read(line, _symbols));
+            }
+            catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(e.getMessage() + " on line " + (firstLineNumber + i), e);
+            }
+        }
+        return records.toArray(new JsonParsedObject[0]);
+    }
+
+    private JsonParsedObject[] _awaitBatch() {
+        CompletableFuture<JsonParsedObject[]> batch;
+        if (_ordered) {
+            batch = _pending.poll();
+        }
+        else {
+            try {
+                batch = _parsed.take();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the records to be parsed", e);
+            }
+        }
+        _batchesInFlight--;
+
+        try {
+            return batch.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException)e.getCause();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package jiib.jsonparser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Build the items of a list while it is parsed.
+ * As long as all the items are Integer or Long, or all are Double, they are kept as primitives
+ * and the list is built as a JsonNumberList. The first other item turns the list into a list of JsonParsedField.
+ * The items are kept in arrays reused from one list to the other, and copied once into a list of the exact size.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonNumberList
+ */
+final class JsonListBuilder {
+
+    // The names of the first list items, so they are not built again for each list
+    private static final String[] INDEX_NAMES = new String[1024];
+    static {
+        for (int i = 0; i < INDEX_NAMES.length; i++) {
+            INDEX_NAMES[i] = String.valueOf(i + 1).intern();
+        }
+    }
+
+    private String _name;
+    private int _size = 0;
+
+    // The kind of the numbers kept as primitives : INTEGER, LONG (for a mix of Integer and Long) or DOUBLE
+    private JsonValueKind _numbersKind = null;
+    private long[] _numbers = new long[8];
+
+    // The items, once the list is not only made of numbers
+    private JsonParsedField[] _items = new JsonParsedField[8];
+    private boolean _inflated = false;
+
+    /**
+     * Create a builder, to be reset before building a list
+     */
+    JsonListBuilder() {}
+
+    /**
+     * Start a new list
+     *
+     * @param name  The name of the field holding the list
+     */
+    JsonListBuilder(String name) {
+        _name = name;
+    }
+
+    /**
+     * Start a new list, dropping the list previously built
+     *
+     * @param name  The name of the field holding the list
+     */
+    void reset(String name) {
+        // The items of a list left unfinished by an error should not be kept
+        if (_inflated) Arrays.fill(_items, 0, _size, null);
+        _name = name;
+        _size = 0;
+        _numbersKind = null;
+        _inflated = false;
+    }
+
+    /**
+     * Return the name of a list item
+     *
+     * @param   index   The index of the item in the list, starting at 1
+     * @return  The name of the item
+     */
+    static String indexName(int index) {
+        return (index >= 1 && index <= INDEX_NAMES.length) ? INDEX_NAMES[index - 1] : String.valueOf(index);
+    }
+
+    /**
+     * Return the name of the field holding the list
+     *
+     * @return  The name of the field holding the list
+     */
+    String getName() {
+        return _name;
+    }
+
+    /**
+     * Return the name of the next item, which is its index in the list starting at 1
+     *
+     * @return  The name of the next item
+     */
+    String nextName() {
+        return indexName(_size + 1);
+    }
+
+    /**
+     * Add an item
+     *
+     * @param field The item to add, named after nextName
+     */
+    void add(JsonParsedField field) {
+        if (!_inflated) _inflate();
+        if (_size == _items.length) _items = Arrays.copyOf(_items, _size * 2);
+        _items[_size++] = field;
+    }
+
+    /**
+     * Add an Integer, Long, Double or Boolean item
+     *
+     * @param kind  The kind of the item
+     * @param bits  The value of the item, as stored by JsonParsedField
+     */
+    void addPrimitive(JsonValueKind kind, long bits) {
+        if (!_inflated) {
+            boolean isIntegral = (kind == JsonValueKind.INTEGER || kind == JsonValueKind.LONG);
+            if (_size == 0 && (isIntegral || kind == JsonValueKind.DOUBLE)) {
+                _numbersKind = kind;
+            }
+            else if (isIntegral && (_numbersKind == JsonValueKind.INTEGER || _numbersKind == JsonValueKind.LONG)) {
+                if (kind == JsonValueKind.LONG) _numbersKind = JsonValueKind.LONG;
+            }
+            else if (kind != JsonValueKind.DOUBLE || _numbersKind != JsonValueKind.DOUBLE) {
+                add(new JsonParsedField(nextName(), kind, bits));
+                return;
+            }
+
+            if (_size == _numbers.length) {
+                long[] numbers = new long[_size * 2];
+                System.arraycopy(_numbers, 0, numbers, 0, _size);
+                _numbers = numbers;
+            }
+            _numbers[_size++] = bits;
+        }
+        else add(new JsonParsedField(nextName(), kind, bits));
+    }
+
+    /**
+     * Turn the numbers kept as primitives into a list of JsonParsedField
+     */
+    private void _inflate() {
+        if (_items.length < _size) _items = new JsonParsedField[_numbers.length];
+        for (int i = 0; i < _size; i++) {
+            JsonValueKind kind = _numbersKind;
+            if (kind == JsonValueKind.LONG && _numbers[i] >= Integer.MIN_VALUE && _numbers[i] <= Integer.MAX_VALUE) {
+                kind = JsonValueKind.INTEGER;
+            }
+            _items[i] = new JsonParsedField(indexName(i + 1), kind, _numbers[i]);
+        }
+        _inflated = true;
+    }
+
+    /**
+     * Build the list
+     *
+     * @return  The items of the list
+     */
+    List<JsonParsedField> build() {
+        if (_size == 0) return new JsonFieldList();
+        if (_inflated) {
+            JsonFieldList items = new JsonFieldList(Arrays.copyOf(_items, _size), _size);
+            // The reused array should not keep the items of the trees built
+            Arrays.fill(_items, 0, _size, null);
+            _inflated = false;
+            return items;
+        }
+
+        switch (_numbersKind) {
+            case INTEGER:
+                int[] ints = new int[_size];
+                for (int i = 0; i < _size; i++) {
+                    ints[i] = (int)_numbers[i];
+                }
+                return new JsonNumberList(ints);
+            case LONG:
+                long[] longs = new long[_size];
+                System.arraycopy(_numbers, 0, longs, 0, _size);
+                return new JsonNumberList(longs);
+            default:
+                double[] doubles = new double[_size];
+                for (int i = 0; i < _size; i++) {
+                    doubles[i] = Double.longBitsToDouble(_numbers[i]);
+                }
+                return new JsonNumberList(doubles);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package jiib.jsonparser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A Reader decoding an UTF-8 encoded file straight from its memory mapping.
+ * The file is mapped by windows, so files bigger than 2 GB can be read, and the bytes are decoded
+ * into the chars buffer of the reader without being copied into a byte[] or a String first.
+ * Only the pages being read are loaded in memory, and they are released by the system when needed.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parse(Path)
+ */
+final class JsonMappedFileReader extends Reader {
+
+    static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    private final FileChannel _channel;
+    private final long _size;
+    private final int _windowSize;
+    private final CharsetDecoder _decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private MappedByteBuffer _window = null;
+    // The position in the file of the first byte of the window
+    private long _windowStart = 0;
+    private boolean _flushed = false;
+    // The low surrogate of a pair when only its high surrogate fitted in the last read, or -1
+    private int _pendingChar = -1;
+
+    /**
+     * Open a file to read
+     *
+     * @param   path    The UTF-8 encoded file to read
+     * @throws  IOException If the file can not be opened
+     */
+    JsonMappedFileReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Open a file to read, mapping it by windows of a given size
+     *
+     * @param   path        The UTF-8 encoded file to read
+     * @param   windowSize  The most bytes mapped at once, at least 4 so a window always holds a whole char
+     * @throws  IOException If the file can not be opened
+     */
+    JsonMappedFileReader(Path path, int windowSize) throws IOException {
+        _channel = FileChannel.open(path, StandardOpenOption.READ);
+        _size = _channel.size();
+        _windowSize = Math.max(windowSize, 4);
+    }
+
+    /**
+     * Map the next window, starting at the first byte not decoded yet.
+     * The bytes of a char split between two windows are mapped again at the start of the next window.
+     *
+     * @return  true if a window has been mapped, or false at the end of the file
+     */
+    private boolean _nextWindow() throws IOException {
+        long start = (_window == null) ? 0 : _windowStart + _window.position();
+        if (start >= _size && _window != null) return false;
+
+        _windowStart = start;
+        _window = _channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(_windowSize, _size - start));
+        return true;
+    }
+
+    private boolean _isLastWindow() {
+        return _windowStart + _window.limit() >= _size;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (!_channel.isOpen()) throw new IOException("The file is closed");
+        if (length == 0) return 0;
+        if (_window == null) _nextWindow();
+
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+        if (_pendingChar >= 0) {
+            out.put((char)_pendingChar);
+            _pendingChar = -1;
+        }
+        while (out.position() == offset) {
+            if (_flushed) return -1;
+
+            CoderResult result = _decoder.decode(_window, out, _isLastWindow());
+            if (result.isError()) result.throwException();
+            if (result.isOverflow()) {
+                if (out.position() == offset) {
+                    // A surrogate pair does not fit in a single char, decode it apart
+                    CharBuffer pair = CharBuffer.allocate(2);
+                    _decoder.decode(_window, pair, _isLastWindow());
+                    out.put(pair.get(0));
+                    _pendingChar = pair.get(1);
+                }
+                break;
+            }
+
+            // The window has been decoded, but for the bytes of a char continued in the next window
+            if (_isLastWindow()) {
+                _decoder.flush(out);
+                _flushed = true;
+            }
+            else _nextWindow();
+        }
+        return (out.position() == offset) ? -1 : out.position() - offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _window = null;
+        _channel.close();
+    }
+}
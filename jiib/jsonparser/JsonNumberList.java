@@ -0,0 +1,107 @@
+package jiib.jsonparser;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list of numbers, backed by an array of primitives instead of a list of JsonParsedField.
+ * Used for the lists whose items are all Integer (int[]), all Integer or Long (long[]), or all Double (double[]).
+ * The items are returned as new JsonParsedField on each access, named after their index like any other list item.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedField#getIntArray()
+ */
+final class JsonNumberList extends AbstractList<JsonParsedField> implements RandomAccess {
+
+    private final int[] _ints;
+    private final long[] _longs;
+    private final double[] _doubles;
+
+    JsonNumberList(int[] ints) {
+        _ints = ints;
+        _longs = null;
+        _doubles = null;
+    }
+
+    JsonNumberList(long[] longs) {
+        _ints = null;
+        _longs = longs;
+        _doubles = null;
+    }
+
+    JsonNumberList(double[] doubles) {
+        _ints = null;
+        _longs = null;
+        _doubles = doubles;
+    }
+
+    @Override
+    public int size() {
+        if (_ints != null) return _ints.length;
+        if (_longs != null) return _longs.length;
+        return _doubles.length;
+    }
+
+    @Override
+    public JsonParsedField get(int index) {
+        return new JsonParsedField(JsonListBuilder.indexName(index + 1), kind(index), bits(index));
+    }
+
+    /**
+     * Return the kind of an item, as it would have been parsed
+     *
+     * @param   index   The index of the item, starting at 0
+     * @return  INTEGER, LONG or DOUBLE
+     */
+    JsonValueKind kind(int index) {
+        if (_ints != null) return JsonValueKind.INTEGER;
+        if (_longs != null) {
+            long value = _longs[index];
+            return (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) ? JsonValueKind.INTEGER : JsonValueKind.LONG;
+        }
+        return JsonValueKind.DOUBLE;
+    }
+
+    /**
+     * Return the raw primitive value of an item
+     *
+     * @param   index   The index of the item, starting at 0
+     * @return  The value as a long, or the raw bits of a double
+     */
+    long bits(int index) {
+        if (_ints != null) return _ints[index];
+        if (_longs != null) return _longs[index];
+        return Double.doubleToRawLongBits(_doubles[index]);
+    }
+
+    int[] toIntArray(String fieldName) {
+        if (_ints == null) {
+            throw new ClassCastException("The list '" + fieldName + "' does not contain only Integer");
+        }
+        return _ints.clone();
+    }
+
+    long[] toLongArray(String fieldName) {
+        if (_ints != null) {
+            long[] res = new long[_ints.length];
+            for (int i = 0; i < res.length; i++) {
+                res[i] = _ints[i];
+            }
+            return res;
+        }
+        if (_longs == null) {
+            throw new ClassCastException("The list '" + fieldName + "' does not contain only Integer or Long");
+        }
+        return _longs.clone();
+    }
+
+    double[] toDoubleArray() {
+        if (_doubles != null) return _doubles.clone();
+
+        double[] res = new double[size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = (_ints != null) ? _ints[i] : _longs[i];
+        }
+        return res;
+    }
+}
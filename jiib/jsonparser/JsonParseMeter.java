@@ -0,0 +1,154 @@
+package jiib.jsonparser;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measure an operation, while at least one JsonParserListener is registered, and give its measures to the listeners.
+ * A reader being measured reports each token read, with the time spent reading it.
+ * While no listener is registered, start returns null and nothing is measured.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParserListener
+ */
+final class JsonParseMeter {
+
+    private static final JsonParserListener[] NO_LISTENERS = new JsonParserListener[0];
+
+    // Replaced as a whole when a listener is added or removed, so it is read without locking
+    private static volatile JsonParserListener[] _listeners = NO_LISTENERS;
+
+    /**
+     * The counter of the bytes allocated by each thread, loaded with the management classes on the first measure only
+     */
+    private static final class Allocations {
+        static final com.sun.management.ThreadMXBean THREADS = _threads();
+
+        private static com.sun.management.ThreadMXBean _threads() {
+            try {
+                java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                if (threads instanceof com.sun.management.ThreadMXBean) {
+                    com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean)threads;
+                    if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                        return sunThreads;
+                    }
+                }
+            }
+            catch (LinkageError | RuntimeException e) {
+                // The JVM does not count the allocations
+            }
+            return null;
+        }
+
+        static long current() {
+            return (THREADS != null) ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+        }
+    }
+
+    private final JsonParserListener[] _targets;
+    private final JsonParseMetrics.Operation _operation;
+    private final JsonReader _reader;
+    private final long _start;
+    private final long _allocatedStart;
+    private long _tokens = 0;
+    private long _stringNanos = 0;
+    private long _numberNanos = 0;
+    private long _structureNanos = 0;
+    private int _maxDepth = 0;
+
+    private JsonParseMeter(JsonParserListener[] targets, JsonParseMetrics.Operation operation, JsonReader reader) {
+        _targets = targets;
+        _operation = operation;
+        _reader = reader;
+        _allocatedStart = Allocations.current();
+        _start = System.nanoTime();
+    }
+
+    static synchronized void addListener(JsonParserListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("The listener can not be null");
+        }
+        JsonParserListener[] listeners = new JsonParserListener[_listeners.length + 1];
+        System.arraycopy(_listeners, 0, listeners, 0, _listeners.length);
+        listeners[_listeners.length] = listener;
+        _listeners = listeners;
+    }
+
+    static synchronized boolean removeListener(JsonParserListener listener) {
+        for (int i = 0; i < _listeners.length; i++) {
+            if (_listeners[i] == listener) {
+                JsonParserListener[] listeners = new JsonParserListener[_listeners.length - 1];
+                System.arraycopy(_listeners, 0, listeners, 0, i);
+                System.arraycopy(_listeners, i + 1, listeners, i, listeners.length - i);
+                _listeners = listeners;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Start measuring an operation, if any listener is registered
+     *
+     * @param   operation   The operation
+     * @param   reader      The reader of a parsing, which reports its tokens until the end of the measure, or null
+     * @return  The meter, or null if no listener is registered
+     */
+    static JsonParseMeter start(JsonParseMetrics.Operation operation, JsonReader reader) {
+        JsonParserListener[] listeners = _listeners;
+        if (listeners.length == 0) return null;
+
+        JsonParseMeter meter = new JsonParseMeter(listeners, operation, reader);
+        if (reader != null) reader.setMeter(meter);
+        return meter;
+    }
+
+    /**
+     * Count a token read
+     *
+     * @param token The token read
+     * @param nanos The time spent reading it
+     * @param depth The depth after the token
+     */
+    void token(JsonToken token, long nanos, int depth) {
+        _tokens++;
+        switch (token) {
+            case FIELD_NAME:
+            case VALUE_STRING:
+                _stringNanos += nanos;
+                break;
+            case VALUE_NUMBER:
+                _numberNanos += nanos;
+                break;
+            default:
+                _structureNanos += nanos;
+        }
+        if (depth > _maxDepth) _maxDepth = depth;
+    }
+
+    /**
+     * End the measure of a parsing, and give its measures to the listeners
+     *
+     * @param error The error which stopped the operation, or null
+     */
+    void finish(RuntimeException error) {
+        finish((_reader != null) ? _reader.charsRead() : 0, error);
+    }
+
+    /**
+     * End the measure, and give its measures to the listeners
+     *
+     * @param chars The count of chars read or written
+     * @param error The error which stopped the operation, or null
+     */
+    void finish(long chars, RuntimeException error) {
+        long totalNanos = System.nanoTime() - _start;
+        long allocatedBytes = (_allocatedStart < 0) ? -1 : Allocations.current() - _allocatedStart;
+        if (_reader != null) _reader.setMeter(null);
+
+        JsonParseMetrics metrics = new JsonParseMetrics(_operation, chars, _tokens, _stringNanos, _numberNanos, _structureNanos,
+            totalNanos, _maxDepth, allocatedBytes, error);
+        for (JsonParserListener listener : _targets) {
+            listener.operationDone(metrics);
+        }
+    }
+}
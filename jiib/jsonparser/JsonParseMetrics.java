@@ -0,0 +1,156 @@
+package jiib.jsonparser;
+
+/**
+ * The measures of a single operation, given to the JsonParserListener once the operation is done.
+ * The time spent reading the Json expression is split by kind of token : the strings (field names included) scanned and decoded,
+ * the numbers matched, and the brackets, commas and literals. The rest of the parsing time is spent building the tree.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParserListener
+ */
+public final class JsonParseMetrics {
+
+    /**
+     * The measured operations
+     */
+    public enum Operation {
+        /** The parsing of a Json expression into a tree, or straight into a java object */
+        PARSE,
+        /** The writing of a tree as a Json expression, by JsonParsedObject.toJson */
+        TO_JSON,
+        /** The building of a java object from a tree, by JsonParsedObject.tryDeserializing */
+        DESERIALIZE
+    }
+
+    private final Operation _operation;
+    private final long _chars;
+    private final long _tokens;
+    private final long _stringNanos;
+    private final long _numberNanos;
+    private final long _structureNanos;
+    private final long _totalNanos;
+    private final int _maxDepth;
+    private final long _allocatedBytes;
+    private final RuntimeException _error;
+
+    JsonParseMetrics(Operation operation, long chars, long tokens, long stringNanos, long numberNanos, long structureNanos,
+                     long totalNanos, int maxDepth, long allocatedBytes, RuntimeException error) {
+        _operation = operation;
+        _chars = chars;
+        _tokens = tokens;
+        _stringNanos = stringNanos;
+        _numberNanos = numberNanos;
+        _structureNanos = structureNanos;
+        _totalNanos = totalNanos;
+        _maxDepth = maxDepth;
+        _allocatedBytes = allocatedBytes;
+        _error = error;
+    }
+
+    /**
+     * Return the measured operation
+     *
+     * @return  The measured operation
+     */
+    public Operation getOperation() {
+        return _operation;
+    }
+
+    /**
+     * Return the count of chars read by a parsing, or written by toJson.
+     * For an UTF-8 encoded input, this is the count of bytes as long as the expression is made of ASCII chars.
+     *
+     * @return  The count of chars
+     */
+    public long getCharCount() {
+        return _chars;
+    }
+
+    /**
+     * Return the count of tokens read by a parsing
+     *
+     * @return  The count of tokens, or 0 for the other operations
+     */
+    public long getTokenCount() {
+        return _tokens;
+    }
+
+    /**
+     * Return the time spent reading the strings and the field names
+     *
+     * @return  The time in nanoseconds
+     */
+    public long getStringNanos() {
+        return _stringNanos;
+    }
+
+    /**
+     * Return the time spent reading the numbers
+     *
+     * @return  The time in nanoseconds
+     */
+    public long getNumberNanos() {
+        return _numberNanos;
+    }
+
+    /**
+     * Return the time spent reading the brackets, the commas and the true, false and null literals
+     *
+     * @return  The time in nanoseconds
+     */
+    public long getStructureNanos() {
+        return _structureNanos;
+    }
+
+    /**
+     * Return the time spent building the tree or the java object, out of the reading of the tokens
+     *
+     * @return  The time in nanoseconds
+     */
+    public long getBuildNanos() {
+        return Math.max(0, _totalNanos - _stringNanos - _numberNanos - _structureNanos);
+    }
+
+    /**
+     * Return the whole time of the operation
+     *
+     * @return  The time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return _totalNanos;
+    }
+
+    /**
+     * Return the deepest count of objects and lists opened at once by a parsing
+     *
+     * @return  The maximum depth, or 0 for the other operations
+     */
+    public int getMaxDepth() {
+        return _maxDepth;
+    }
+
+    /**
+     * Return the bytes allocated by the current thread during the operation, as counted by the JVM
+     *
+     * @return  The count of bytes, or -1 if the JVM does not count them
+     */
+    public long getAllocatedBytes() {
+        return _allocatedBytes;
+    }
+
+    /**
+     * Return the error which stopped the operation
+     *
+     * @return  The error, or null if the operation succeeded
+     */
+    public RuntimeException getError() {
+        return _error;
+    }
+
+    @Override
+    public String toString() {
+        return _operation + " : " + _chars + " chars, " + _tokens + " tokens, depth " + _maxDepth + ", " + _totalNanos + " ns (strings "
+            + _stringNanos + ", numbers " + _numberNanos + ", structure " + _structureNanos + ", build " + getBuildNanos() + "), "
+            + _allocatedBytes + " bytes allocated" + ((_error != null) ? ", failed : " + _error.getMessage() : "");
+    }
+}
@@ -1,40 +1,95 @@
 package jiib.jsonparser;
 
+import java.util.List;
+
 /**
  * The representation of a Json field.
- * Is contained in a JsonParsedObject, and contains its own name, its value, and its value type. 
- * 
+ * Is contained in a JsonParsedObject, and contains its own name, its value, and its value type.
+ * Integer, long, double and boolean values are stored as primitives, and can be read without boxing
+ * through the typed accessors.
+ *
  * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
  * @see     jiib.jsonparser.JsonParsedObject
  */
 public class JsonParsedField {
 
     private String _name;
+    private JsonValueKind _kind;
+    // The value of an integer, long, double (as raw bits) or boolean field
+    private long _bits;
+    // The value of any other field
     private Object _value;
-    private String _valueType;
+    // The value not decoded yet, when lazily parsed
+    private JsonLazyValue _lazyValue = null;
+
+    JsonParsedField(String field, JsonValueKind kind, Object value) {
+        _name = field;
+        _kind = kind;
+        switch (kind) {
+            case INTEGER:
+            case LONG:
+                _bits = ((Number)value).longValue();
+                break;
+            case DOUBLE:
+                _bits = Double.doubleToRawLongBits(((Number)value).doubleValue());
+                break;
+            case BOOLEAN:
+                _bits = ((Boolean)value) ? 1 : 0;
+                break;
+            default:
+                _value = value;
+        }
+    }
 
-    JsonParsedField(String field, Object value, String valueType) {
+    JsonParsedField(String field, JsonValueKind kind, long bits) {
         _name = field;
-        _value = value;
-        _valueType = valueType;
+        _kind = kind;
+        _bits = bits;
+    }
+
+    JsonParsedField(String field, JsonLazyValue lazyValue) {
+        _name = field;
+        _lazyValue = lazyValue;
+    }
+
+    private void _decode() {
+        JsonParsedField decoded = _lazyValue.decode(_name);
+        _kind = decoded._kind;
+        _bits = decoded._bits;
+        _value = decoded._value;
+        _lazyValue = null;
+    }
+
+    private ClassCastException _wrongKind(String expected) {
+        return new ClassCastException("The field '" + _name + "' is " + getValueType() + ", not " + expected);
     }
 
     /**
      * Return the name of this field.
-     * 
+     *
      * @return  The name of this field
      */
     public String getName() {
         return _name;
     }
 
+    /**
+     * Return the kind of value of this field.
+     *
+     * @return  The kind of value of this field
+     */
+    public JsonValueKind getKind() {
+        if (_lazyValue != null) _decode();
+        return _kind;
+    }
+
     /**
      * Return the value type of this field.
-     * 
+     *
      * @return  The value type of this field
      */
     public String getValueType() {
-        return _valueType;
+        return getKind().getValueType();
     }
 
     /**
@@ -45,10 +100,192 @@ public class JsonParsedField {
      *      var field = (String)a_json_parsed_field.getValue();
      *  }
      * </pre>
-     * 
+     * When the field has been lazily parsed, the value is decoded on the first call.
+     * Integer, long, double and boolean values are boxed on each call, the typed accessors should be preferred.
+     * The list of a List field can be changed in place, which clears the cached hashes of the objects holding it,
+     * except for a list made only of numbers and for the lists of a frozen tree, which are read-only.
+     *
      * @return  The value of this field as a java Object
      */
     public Object getValue() {
-        return _value;
+        switch (getKind()) {
+            case INTEGER:
+                return (int)_bits;
+            case LONG:
+                return _bits;
+            case DOUBLE:
+                return Double.longBitsToDouble(_bits);
+            case BOOLEAN:
+                return _bits != 0;
+            default:
+                return _value;
+        }
+    }
+
+    /**
+     * Return the value of an Integer field, without boxing.
+     *
+     * @return  The value of this field
+     * @throws  ClassCastException If the field is not an Integer
+     */
+    public int getInt() {
+        if (getKind() != JsonValueKind.INTEGER) throw _wrongKind("Integer");
+        return (int)_bits;
+    }
+
+    /**
+     * Return the value of an Integer or Long field, without boxing.
+     *
+     * @return  The value of this field
+     * @throws  ClassCastException If the field is neither an Integer or a Long
+     */
+    public long getLong() {
+        JsonValueKind kind = getKind();
+        if (kind != JsonValueKind.INTEGER && kind != JsonValueKind.LONG) throw _wrongKind("Long");
+        return _bits;
+    }
+
+    /**
+     * Return the value of a number field as a double, without boxing.
+     *
+     * @return  The value of this field, converted to a double if needed
+     * @throws  ClassCastException If the field is not a number
+     */
+    public double getDouble() {
+        switch (getKind()) {
+            case DOUBLE:
+                return Double.longBitsToDouble(_bits);
+            case INTEGER:
+            case LONG:
+                return _bits;
+            case BIG_INTEGER:
+            case BIG_DECIMAL:
+                return ((Number)_value).doubleValue();
+            default:
+                throw _wrongKind("a number");
+        }
+    }
+
+    /**
+     * Return the value of a Boolean field, without boxing.
+     *
+     * @return  The value of this field
+     * @throws  ClassCastException If the field is not a Boolean
+     */
+    public boolean getBoolean() {
+        if (getKind() != JsonValueKind.BOOLEAN) throw _wrongKind("Boolean");
+        return _bits != 0;
+    }
+
+    /**
+     * Return the items of a list of Integer as an array, without boxing.
+     *
+     * @return  A new array holding the values of the list items
+     * @throws  ClassCastException If the field is not a list, or if an item is not an Integer
+     */
+    public int[] getIntArray() {
+        List<JsonParsedField> items = _items();
+        if (items instanceof JsonNumberList) return ((JsonNumberList)items).toIntArray(_name);
+
+        int[] res = new int[items.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = items.get(i).getInt();
+        }
+        return res;
+    }
+
+    /**
+     * Return the items of a list of Integer or Long as an array, without boxing.
+     *
+     * @return  A new array holding the values of the list items
+     * @throws  ClassCastException If the field is not a list, or if an item is neither an Integer or a Long
+     */
+    public long[] getLongArray() {
+        List<JsonParsedField> items = _items();
+        if (items instanceof JsonNumberList) return ((JsonNumberList)items).toLongArray(_name);
+
+        long[] res = new long[items.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = items.get(i).getLong();
+        }
+        return res;
+    }
+
+    /**
+     * Return the items of a list of numbers as an array of double, without boxing.
+     *
+     * @return  A new array holding the values of the list items, converted to double if needed
+     * @throws  ClassCastException If the field is not a list, or if an item is not a number
+     */
+    public double[] getDoubleArray() {
+        List<JsonParsedField> items = _items();
+        if (items instanceof JsonNumberList) return ((JsonNumberList)items).toDoubleArray();
+
+        double[] res = new double[items.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = items.get(i).getDouble();
+        }
+        return res;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JsonParsedField> _items() {
+        if (getKind() != JsonValueKind.LIST) throw _wrongKind("a List");
+        return (List<JsonParsedField>)_value;
+    }
+
+    /**
+     * Return true if the given field has the same name and holds an equal value.
+     * The objects are compared whatever the order of their fields, and the numbers are equal when they have the same kind and value.
+     *
+     * @param   obj The field to compare to
+     * @return  true if both fields are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof JsonParsedField)) return false;
+        JsonParsedField other = (JsonParsedField)obj;
+        return _name.equals(other._name) && JsonDiff.equalValues(this, other);
+    }
+
+    /**
+     * Return the hash code of this field, computed from its name and its value.
+     * The hashes of the objects are cached, so this costs no more than a walk through the lists held by the field.
+     *
+     * @return  The hash code of this field
+     */
+    @Override
+    public int hashCode() {
+        long hash = JsonDiff.hashValue(this, null, null);
+        return 31 * _name.hashCode() + (int)(hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Return a field holding the same value, under another name
+     *
+     * @param   name    The name of the new field
+     * @return  The new field, sharing the value of this field
+     */
+    JsonParsedField rename(String name) {
+        JsonValueKind kind = getKind();
+        switch (kind) {
+            case INTEGER:
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+                return new JsonParsedField(name, kind, _bits);
+            default:
+                return new JsonParsedField(name, kind, _value);
+        }
+    }
+
+    /**
+     * Return the raw primitive value of an integer, long, double or boolean field
+     *
+     * @return  The value as a long, the raw bits of a double, or 1 for true and 0 for false
+     */
+    long bits() {
+        return _bits;
     }
 }
@@ -1,40 +1,105 @@
 package jiib.jsonparser;
 
-import java.lang.reflect.Constructor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+import jiib.jsonparser.query.JsonQuery;
 import jiib.jsonparser.util.DottedPath;
 
 /**
- * The representation of a Json object, containing a collection of named fields
+ * The representation of a Json object, containing a collection of named fields.
+ * An object can be frozen into an immutable copy of its whole tree, which can be shared between threads without locking.
  * 
  * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
  */
 public class JsonParsedObject {
-    private List<JsonParsedField> _fields = new ArrayList<>();
+    private final JsonFieldStore _store;
+    private final List<JsonParsedField> _fields;
+
+    // The cached hash of the tree structure, and of the fields names and kinds, computed when first needed
+    private long _hash;
+    private volatile boolean _hashed = false;
+    private long _shape;
+    private volatile boolean _shaped = false;
+    // The object holding this one, whose cached hash is cleared along with this one
+    private JsonParsedObject _parent = null;
+
+    /**
+     * Create an empty object
+     */
+    public JsonParsedObject() {
+        this(new JsonFieldStore());
+    }
+
+    /**
+     * Create an object on its collection of fields
+     *
+     * @param store The fields of the object
+     */
+    JsonParsedObject(JsonFieldStore store) {
+        _store = store;
+        _fields = store.list();
+    }
 
     /**
      * Add a new field
      * 
      * @param field The new field to add, his name has to be unique
+     * @throws UnsupportedOperationException If the object is frozen
      */
     public void addField(JsonParsedField field) {
-        if (getField(field.getName()) != null) {
+        if (!_store.add(field)) {
             throw new IllegalArgumentException("A field with this name is already contained");
         }
-        _fields.add(field);
+        _changed();
     }
 
     /**
      * Remove an existing field
      * 
      * @param field The field to remove
+     * @throws UnsupportedOperationException If the object is frozen
      */
     public void removeField(JsonParsedField field) {
-        if (_fields.contains(field))  {
-            _fields.remove(field);
+        _store.remove(field);
+        _changed();
+    }
+
+    /**
+     * Replace an existing field by another one, at the same position
+     * 
+     * @param oldField  The field to replace
+     * @param newField  The new field, whose name has to be unique
+     * @throws UnsupportedOperationException If the object is frozen
+     */
+    void replaceField(JsonParsedField oldField, JsonParsedField newField) {
+        if (!_store.replace(oldField, newField)) {
+            throw new IllegalArgumentException("A field with this name is already contained");
+        }
+        _changed();
+    }
+
+    /**
+     * Clear the cached hashes of this object and of the objects holding it
+     */
+    private void _changed() {
+        // The flags are only written when set, as fields are added to every object while parsing
+        if (_shaped) _shaped = false;
+        clearHash();
+    }
+
+    /**
+     * Clear the cached hashes of this object and of the objects holding it, when a list it holds has changed
+     */
+    void clearHash() {
+        for (JsonParsedObject object = this; object != null; object = object._parent) {
+            if (object._hashed) object._hashed = false;
         }
     }
 
@@ -45,119 +110,188 @@ public class JsonParsedObject {
      * @return  The searched field, or null
      */
     public JsonParsedField getField(String fieldName) {
-        for (JsonParsedField field : _fields) {
-            if (field.getName().equals(fieldName)) {
-                return field;
-            }
-        }
-        return null;
+        return _store.get(fieldName);
     }
 
     /**
      * Return a field to find from a specific path.
-     * The field will be searched in the whole tree structure following the given path.
+     * The field will be searched in the whole tree structure following the given path, the path itself is left unchanged.
      * <pre>
-     *  JsonParsedField field = a_json_parsed_object.getField(new DottedPath('.', "tlotr.gondor.minas_tirith"));
+     *  JsonParsedField field = a_json_parsed_object.getField(new DottedPath("tlotr.gondor.minas_tirith"));
      * </pre>
      * 
      * @param   path    The path (in the tree structure) of the field to be returned
-     * @return  The searched field, or null
+     * @return  The searched field
+     * @throws  IllegalArgumentException If the path does not lead to a field
      * @see     jiib.jsonparser.util.DottedPath
      */
     public JsonParsedField getField(DottedPath path) {
-        if (path.isEmpty()) throw new IllegalArgumentException("Empty path");
-
-        String node = path.firstNode();
-        path.removeFirstNode();
-        JsonParsedField field = getField(node);
+        return _find(JsonQuery.compile(path), true);
+    }
 
-        if (field == null) {
-            throw new IllegalArgumentException("Invalid path : unknow field '" + node + "'");
-        }
+    /**
+     * Return a field to find with a compiled query.
+     * The field will be searched in the whole tree structure following the steps of the query.
+     * <pre>
+     *  JsonQuery query = JsonQuery.compile("tlotr.gondor.minas_tirith");
+     *  JsonParsedField field = a_json_parsed_object.getField(query);
+     * </pre>
+     * 
+     * @param   query   The query leading to the field to be returned
+     * @return  The searched field, or null if a field or a list item of the query does not exist
+     * @throws  IllegalArgumentException If the query goes through a value which is neither a list or an object
+     * @see     jiib.jsonparser.query.JsonQuery
+     */
+    public JsonParsedField getField(JsonQuery query) {
+        return _find(query, false);
+    }
 
-        if (field.getValueType().equals("List")) {
-            List<JsonParsedField> castedField = (List<JsonParsedField>)field.getValue();
-            node = path.firstNode();
-            path.removeFirstNode();
-            int nodeIndex = Integer.parseInt(node);
-            if (nodeIndex > castedField.size()) {
-                throw new IllegalArgumentException("Invalid path : wrong index --> list '" + field.getName() + "' has " + castedField.size() + " items but given index is " + nodeIndex);
+    @SuppressWarnings("unchecked")
+    private JsonParsedField _find(JsonQuery query, boolean strict) {
+        JsonParsedObject object = this;
+        List<JsonParsedField> list = null;
+        JsonParsedField field = null;
+
+        for (int step = 0; step < query.size(); step++) {
+            // Go down into the value of the field found at the previous step
+            if (field != null) {
+                if (field.getKind() == JsonValueKind.OBJECT) {
+                    object = (JsonParsedObject)field.getValue();
+                    list = null;
+                }
+                else if (field.getKind() == JsonValueKind.LIST) {
+                    list = (List<JsonParsedField>)field.getValue();
+                }
+                else throw new IllegalArgumentException("Invalid path : not a list or object --> the field '" + field.getName() + "' is neither a list or a nested object");
             }
-            
-            JsonParsedField listItem = (castedField).get(nodeIndex - 1);
-            if (!path.isEmpty()) {
-            	if (listItem.getValueType().equals("{object}")) {
-            		return ((JsonParsedObject)listItem.getValue()).getField(path);
-            	}
-            	else throw new IllegalArgumentException("Invalid path : not a list or object --> the list '" + node + "' n°"+ nodeIndex +"item, is neither a list or a nested object");
+
+            if (list != null) {
+                int index = query.getIndex(step);
+                if (index < 1 || index > list.size()) {
+                    if (!strict) return null;
+                    throw new IllegalArgumentException("Invalid path : wrong index --> list '" + field.getName() + "' has " + list.size() + " items but given index is " + query.getName(step));
+                }
+                field = list.get(index - 1);
             }
             else {
-            	return listItem;
+                field = object.getField(query.getName(step));
+                if (field == null) {
+                    if (!strict) return null;
+                    throw new IllegalArgumentException("Invalid path : unknow field '" + query.getName(step) + "'");
+                }
             }
         }
-        else if (field.getValueType().equals("{object}")) {
-            return ((JsonParsedObject)field.getValue()).getField(path);
-        }
-        else if (path.isEmpty()) {
-            return field;
-        }
-        else throw new IllegalArgumentException("Invalid path : not a list or object --> the field '" + node + "' is neither a list or a nested object");
+        return field;
     }
 
     /**
-     * Get a list copy of the fields collection
+     * Get a list copy of the fields collection.
+     * The fields of a frozen object are returned as they are, in a read-only list, without any copy.
      * 
-     * @return  A list copy of the fields collection
+     * @return  A list copy of the fields collection, or the read-only list of the fields of a frozen object
      */
     public List<JsonParsedField> getFields() {
+        if (_store.isFrozen()) return _fields;
         return new ArrayList<JsonParsedField>(_fields);
     }
 
+    /**
+     * Return the count of fields
+     * 
+     * @return  The count of fields
+     */
+    public int getFieldCount() {
+        return _fields.size();
+    }
+
+    /**
+     * Return a field to find by position
+     * 
+     * @param   index   The position of the field, starting at 0, in the order the fields have been added
+     * @return  The field
+     * @throws  IndexOutOfBoundsException If there is no field at this position
+     */
+    public JsonParsedField getField(int index) {
+        return _fields.get(index);
+    }
+
+    /**
+     * Give each field to an action, in the order the fields have been added, without copying the fields collection.
+     * For example :
+     * <pre>
+     *  a_json_parsed_object.forEachField(field -> System.out.println(field.getName()));
+     * </pre>
+     * 
+     * @param   action  The action to perform on each field
+     */
+    public void forEachField(Consumer<? super JsonParsedField> action) {
+        for (int i = 0; i < _fields.size(); i++) {
+            action.accept(_fields.get(i));
+        }
+    }
+
     List<JsonParsedField> getFieldsRef() {
         return _fields;
     }
 
-    // As Json
+    // Freezing
 
-    private String _fieldsAsJson(List<JsonParsedField> fields, Boolean parentIsList) {
-        String res = "";
-        String currentType = "";
+    /**
+     * Return an immutable copy of the current object and its whole tree structure.
+     * The copy can be published to other threads, and read concurrently, without locking nor defensive copies.
+     * Its fields are kept in compact arrays, and any attempt to modify it throws an UnsupportedOperationException.
+     * The lazily parsed values are decoded while freezing.
+     * For example :
+     * <pre>
+     *  JsonParsedObject config = JsonParser.parse(jsonBody).freeze();
+     * </pre>
+     * 
+     * @return  The frozen copy of this object, or this object if it is already frozen
+     */
+    public JsonParsedObject freeze() {
+        if (_store.isFrozen()) return this;
+        return new JsonParsedObject(new JsonFieldStore(_freezeAll(_fields)));
+    }
 
-        for (JsonParsedField field : fields) {
-            
-            if (!parentIsList) res = res + "\"" + field.getName() + "\":";
-            currentType = field.getValueType();
+    /**
+     * Return the frozen state of the current object
+     * 
+     * @return  true if the object is immutable, or false
+     */
+    public boolean isFrozen() {
+        return _store.isFrozen();
+    }
 
-            if (field.getValueType().equals("{object}")) {
-                res = res + ((JsonParsedObject)field.getValue()).toJson();
-            }
-            else if (field.getValueType().equals("List")) {
-                res = res + "[" + _fieldsAsJson((List<JsonParsedField>)field.getValue(), true) + "]";
-            }
-            else if (field.getValueType().equals("String")) {
-                res = res + "\"" + (String)field.getValue() + "\"";
-            }
-            else if (field.getValueType().equals("Integer")) {
-                res = res + (Integer)field.getValue();
-            }
-            else if (field.getValueType().equals("Double")) {
-                res = res + (Double)field.getValue();
-            }
-            else if (field.getValueType().equals("Boolean")) {
-                res = res + (Boolean)field.getValue();
-            }
-            else if (field.getValueType().equals("Null")) {
-                res = res + "null";
-            }
-            else {
-                throw new ClassCastException("Unknow value type : " + currentType);
-            }
+    private static JsonParsedField[] _freezeAll(List<JsonParsedField> fields) {
+        JsonParsedField[] frozen = new JsonParsedField[fields.size()];
+        for (int i = 0; i < frozen.length; i++) {
+            frozen[i] = _freeze(fields.get(i));
+        }
+        return frozen;
+    }
 
-            if (fields.indexOf(field) != fields.size() - 1) res = res + ",";
+    @SuppressWarnings("unchecked")
+    private static JsonParsedField _freeze(JsonParsedField field) {
+        JsonValueKind kind = field.getKind();
+        switch (kind) {
+            case OBJECT:
+                return new JsonParsedField(field.getName(), kind, ((JsonParsedObject)field.getValue()).freeze());
+            case LIST:
+                List<JsonParsedField> items = (List<JsonParsedField>)field.getValue();
+                // A list of numbers is already backed by read-only arrays
+                if (items instanceof JsonNumberList) return new JsonParsedField(field.getName(), kind, items);
+                return new JsonParsedField(field.getName(), kind, Collections.unmodifiableList(Arrays.asList(_freezeAll(items))));
+            case INTEGER:
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+                return new JsonParsedField(field.getName(), kind, field.bits());
+            default:
+                return new JsonParsedField(field.getName(), kind, field.getValue());
         }
+    }
 
-        return res;
-    } 
+    // As Json
 
     /**
      * Return the current object and its tree structure as a Json expression
@@ -165,15 +299,154 @@ public class JsonParsedObject {
      * @return  A string containing the current object and its tree structure as a Json expression
      */
     public String toJson() {
-        return "{" + _fieldsAsJson(_fields, false) + "}";
+        JsonParseMeter meter = JsonParseMeter.start(JsonParseMetrics.Operation.TO_JSON, null);
+        StringBuilder res = new StringBuilder();
+        try {
+            JsonSerializer.writeObject(this, res);
+        }
+        catch (IOException e) {
+            // A StringBuilder never fails
+            throw new UncheckedIOException(e);
+        }
+        String json = res.toString();
+        if (meter != null) meter.finish(json.length(), null);
+        return json;
+    }
+
+    /**
+     * Write the current object and its tree structure as a Json expression, straight into an Appendable.
+     * The expression is never built as a whole in memory, so the Appendable can be a Writer on a file or a socket.
+     * <pre>
+     *  try (Writer writer = Files.newBufferedWriter(path)) {
+     *      a_json_parsed_object.writeJson(writer);
+     *  }
+     * </pre>
+     * 
+     * @param   out The destination of the Json expression, like a StringBuilder or a Writer
+     * @throws  IOException If the destination fails
+     */
+    public void writeJson(Appendable out) throws IOException {
+        JsonSerializer.writeObject(this, out);
+    }
+
+    /**
+     * Write the current object and its tree structure as an UTF-8 encoded Json expression, into an OutputStream.
+     * The OutputStream is flushed but not closed.
+     * 
+     * @param   out The destination of the Json expression
+     * @throws  IOException If the destination fails
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        JsonUtf8Output output = new JsonUtf8Output(out);
+        JsonSerializer.writeObject(this, output);
+        output.flush();
+    }
+
+    /**
+     * Return the current object and its tree structure as an UTF-8 encoded Json expression.
+     * The chars are encoded as they are written, without building the expression as a String first.
+     * 
+     * @return  A new array holding the Json expression encoded in UTF-8
+     */
+    public byte[] toJsonBytes() {
+        JsonUtf8Output output = new JsonUtf8Output();
+        try {
+            JsonSerializer.writeObject(this, output);
+            return output.toByteArray();
+        }
+        catch (IOException e) {
+            // The bytes are kept in memory, which never fails
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Comparing
+
+    /**
+     * Return the 64-bit hash of this object and its tree structure, whatever the order of the fields.
+     * The hash is computed once and cached, until a field is added, removed or replaced in this object or in one of its children,
+     * or until one of their lists is changed.
+     *
+     * @return  The 64-bit hash of this object
+     */
+    long hash64() {
+        if (_hashed) return _hash;
+        long hash = JsonDiff.hashFields(this);
+        _hash = hash;
+        // Written after the hash, so a thread reading the flag reads the hash too
+        _hashed = true;
+        return hash;
+    }
+
+    /**
+     * Link this object to the object holding it, so a change of this object clears the cached hash of its parent
+     *
+     * @param parent    The object holding this one
+     */
+    void setParent(JsonParsedObject parent) {
+        // A frozen object never changes, and can be shared by several threads
+        if (!_store.isFrozen()) _parent = parent;
+    }
+
+    /**
+     * Return true if the given object holds the same fields, with equal values, whatever the order of the fields.
+     * The cached hashes of both objects are compared first, so most different objects are told apart without going through their fields.
+     * 
+     * @param   obj The object to compare to
+     * @return  true if both objects are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof JsonParsedObject)) return false;
+        return JsonDiff.equalObjects(this, (JsonParsedObject)obj);
+    }
+
+    /**
+     * Return the hash code of this object and its tree structure, cached until the object changes.
+     * An object changed after having been used as a key of a HashMap can not be found anymore.
+     * 
+     * @return  The hash code of this object
+     */
+    @Override
+    public int hashCode() {
+        long hash = hash64();
+        return (int)(hash ^ (hash >>> 32));
     }
 
-    // Divers
+    /**
+     * Return a fingerprint of the structure of this object : the names and the kinds of its fields, in their order.
+     * Two objects with the same structure have the same fingerprint, and objects with different fingerprints have different structures,
+     * so the objects can be grouped by structure with a HashMap. The fingerprint is cached until a field is added, removed or replaced.
+     * For example :
+     * <pre>
+     *  Map&lt;Long, List&lt;JsonParsedObject&gt;&gt; bySchema = messages.stream()
+     *      .collect(Collectors.groupingBy(JsonParsedObject::getShapeFingerprint));
+     * </pre>
+     * 
+     * @return  The 64-bit fingerprint of the structure of this object
+     * @see     #hasSameStructure(JsonParsedObject)
+     */
+    public long getShapeFingerprint() {
+        if (_shaped) return _shape;
+        long shape = JsonDiff.hashShape(this);
+        _shape = shape;
+        _shaped = true;
+        return shape;
+    }
 
+    /**
+     * Return true if the given object has the same structure : the same fields names, in the same order, holding the same kinds of value.
+     * The fingerprints of both objects are compared first, so objects of different structures are told apart at once.
+     * 
+     * @param   obj The object to compare to
+     * @return  true if both objects have the same structure
+     * @see     #getShapeFingerprint()
+     */
     public Boolean hasSameStructure(JsonParsedObject obj) {
-    	List<JsonParsedField> objFields = obj.getFields();
+    	List<JsonParsedField> objFields = obj._fields;
 
-        if (objFields.size() != _fields.size()) {
+        if (objFields.size() != _fields.size() || obj.getShapeFingerprint() != getShapeFingerprint()) {
             return false;
         }
 
@@ -185,8 +458,8 @@ public class JsonParsedObject {
             if (! field.getName().equals(objField.getName())) {
                 return false;
             }
-            // If fields have different class
-            else if (field.getValue().getClass() != objField.getValue().getClass()) {
+            // If fields have different kind of value, null values included
+            else if (field.getKind() != objField.getKind()) {
                 return false;
             }
         }
@@ -204,14 +477,14 @@ public class JsonParsedObject {
             JsonParsedField field = fields.get(i);
 
             //  If the field is a list, check if all his items are of the same type
-            if (field.getValueType().equals("List")) {
+            if (field.getKind() == JsonValueKind.LIST) {
                 List<JsonParsedField> items = (List<JsonParsedField>)fields.get(i).getValue();
-                String itemType = items.get(0).getValueType();
+                JsonValueKind itemKind = items.get(0).getKind();
                 
                 for (JsonParsedField item : items) {
                     // If an item is from a different type
-                    if (!item.getValueType().equals(itemType)) {
-                        throw new RuntimeException("A list contains items of differents types : item with index 0 is " + itemType + " and item with index " + items.indexOf(item) + " is " + item.getValueType());
+                    if (item.getKind() != itemKind) {
+                        throw new RuntimeException("A list contains items of differents types : item with index 0 is " + itemKind.getValueType() + " and item with index " + items.indexOf(item) + " is " + item.getValueType());
                     }
                 }
                 
@@ -220,11 +493,11 @@ public class JsonParsedObject {
             }
 
             // If the field is an object
-            else if (field.getValueType().equals("{object}")) {
+            else if (field.getKind() == JsonValueKind.OBJECT) {
                 throw new ClassCastException("Trying to deserialize an object containing a field wich value is a non-serializable object");
             }
 
-            else if (field.getValueType().equals("Null")) {
+            else if (field.getKind() == JsonValueKind.NULL) {
                 args[i] = null;
             }
 
@@ -254,48 +527,37 @@ public class JsonParsedObject {
      * @return  A new instance of the given java Class, containing the data contained in the fields
      */
     public <T> T tryDeserializing(Class<T> _class) {
+        JsonParseMeter meter = JsonParseMeter.start(JsonParseMetrics.Operation.DESERIALIZE, null);
+        T res;
+        try {
+            res = _deserialize(_class);
+        }
+        catch (RuntimeException e) {
+            if (meter != null) meter.finish(0, e);
+            throw e;
+        }
+        if (meter != null) meter.finish(0, null);
+        return res;
+    }
+
+    private <T> T _deserialize(Class<T> _class) {
         Object[] args = _getFieldsArgsAndTypes(_fields);
         Class<?>[] paramTypes = new Class[args.length];
 
-        try {
-            Boolean containNullValue = false;
-            // Get the classes of all constructor arguments
-            for (int i = 0; i < args.length; i++) {
-                if (args[i] == null) {
-                    paramTypes[i] = null;
-                    containNullValue = true;
-                }
-                else if (args[i].getClass().getName().equals("java.jsonparser.util.Arrays$ArrayList")) {
-                    paramTypes[i] = List.class;
-                }
-                else paramTypes[i] = args[i].getClass();
+        // Get the classes of all constructor arguments (the null args can match any other classes)
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] == null) {
+                paramTypes[i] = null;
             }
-
-            // Find the matching constructor and instantiate the object
-            if (containNullValue) {
-                // If there is a null value in the object, find a possible constructor
-                for (Constructor<?> ctor : _class.getConstructors()) {
-                    Class<?>[] ctorParams = ctor.getParameterTypes();
-                    if (ctorParams.length == paramTypes.length) {
-                        Boolean found = true;
-                        // Check if the constructor args are all the same (the null args can be any other classes)
-                        for (int i = 0; i < paramTypes.length; i++) {
-                            if (paramTypes[i] != null && paramTypes[i] != ctorParams[i]) {
-                                found = false;
-                            }
-                        }
-                        // If all args are the same instantiate the new Object
-                        if (found) {
-                            return _class.getConstructor(ctorParams).newInstance(args);
-                        }
-                    }
-                }
-                throw new NoSuchMethodException();
-            }
-            else {
-                // If no null value, find a valid constructor
-                return _class.getConstructor(paramTypes).newInstance(args);
+            else if (args[i] instanceof List) {
+                paramTypes[i] = List.class;
             }
+            else paramTypes[i] = args[i].getClass();
+        }
+
+        try {
+            // Find the matching constructor, resolved once for each class and arguments classes, and instantiate the object
+            return _class.cast(JsonDeserializationPlan.of(_class).newInstance(paramTypes, args));
         }
         catch (NoSuchMethodException e) {
             String argsTypeStr = "";
@@ -1,17 +1,100 @@
 package jiib.jsonparser;
 
-import java.util.Stack;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import jiib.jsonparser.util.Pair;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * A class used to parse Json expressions
+ * A class used to parse Json expressions.
+ * The parsing is built on a JsonReader, which can also be used directly to read a Json expression event by event.
+ * The static methods parse each expression with new buffers, while an instance keeps its buffers from a parsing to the next,
+ * so parsing many small expressions in a loop only allocates the parsed trees.
  *
  * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
  */
 public class JsonParser {
+
+    // The buffers grown beyond this size in chars are dropped after the parsing, so a big expression does not hold them
+    static final int MAX_RETAINED_SIZE = 1 << 16;
+
+    private static final ThreadLocal<JsonParser> LOCAL_PARSER = ThreadLocal.withInitial(JsonParser::new);
+
+    private final JsonReader _reader = new JsonReader();
+    private final JsonUtf8Reader _utf8 = new JsonUtf8Reader();
+    private final JsonTreeBuilder _builder = new JsonTreeBuilder();
+    // The table of canonical strings given to the constructor, or null
+    private final JsonSymbolTable _symbols;
+    private boolean _busy = false;
+
+    /**
+     * Create a parser, whose buffers are reused from a parsing to the next.
+     * A parser is not thread-safe : use one per thread, or the one returned by local().
+     */
+    public JsonParser() {
+        _symbols = null;
+    }
+
+    /**
+     * Create a parser taking the field names and short string values from a table of canonical strings
+     *
+     * @param symbols   The table of canonical strings, which can be shared with parsers of other threads
+     * @see   #parse(String, JsonSymbolTable)
+     */
+    public JsonParser(JsonSymbolTable symbols) {
+        _symbols = symbols;
+        _reader.setSymbolTable(symbols);
+    }
+
+    /**
+     * Register a listener, receiving the measures of each parsing, toJson and tryDeserializing from now on, on any thread.
+     * While no listener is registered, nothing is measured. Once one is, each token read is timed, which slows the parsing down.
+     * The streams of parseElements and the lazy parsings are not measured.
+     *
+     * @param listener  The listener
+     * @see   jiib.jsonparser.JsonParserStats
+     */
+    public static void addListener(JsonParserListener listener) {
+        JsonParseMeter.addListener(listener);
+    }
+
+    /**
+     * Unregister a listener
+     *
+     * @param   listener    The listener
+     * @return  true if the listener was registered, or false
+     */
+    public static boolean removeListener(JsonParserListener listener) {
+        return JsonParseMeter.removeListener(listener);
+    }
+
+    /**
+     * Return the parser of the current thread, created on its first use.
+     * If it is already parsing, as when called back from the parsing, a new parser is returned instead.
+     * For example :
+     * <pre>
+     *  for (String jsonBody : jsonBodies) {
+     *      JsonParsedObject parsedResult = JsonParser.local().read(jsonBody);
+     *  }
+     * </pre>
+     *
+     * @return  The parser of the current thread
+     */
+    public static JsonParser local() {
+        JsonParser parser = LOCAL_PARSER.get();
+        return parser._busy ? new JsonParser() : parser;
+    }
     
     /**
      * Parse a Json expression into a tree structure. 
@@ -24,204 +107,821 @@ public class JsonParser {
      * @param   json    The Json expression to parse
      * @return  The root Json object of the tree
      * @see     jiib.jsonparser.JsonParsedObject
+     * @see     jiib.jsonparser.JsonReader
      */
     public static JsonParsedObject parse(String json) {
-        String expression = json.trim();
-        if (! expression.matches("^\\{.*\\}$")) {
-            throw new IllegalArgumentException("Invalid Json expression : Whole expression should be wrapped between opening and closing balises");
-        }
-        
-        JsonParsedObject rootObject = null;
-        // Pair ->  first : <data>,  second : <0 if is not a list, 1+ is list index>
-        Stack<Pair<JsonParsedObject, Integer>> objectsStack = new Stack<Pair<JsonParsedObject, Integer>>();
-        String currentFieldName = "{none}";
-
-        Boolean nextIsAValue = false;
-
-        while (! expression.isEmpty()) {
-            expression = expression.trim();
-
-            // VALUES
-
-            // Opening an object
-            if (expression.startsWith("{")) {
-                expression = expression.substring(1);
-                JsonParsedObject value = new JsonParsedObject();
-                // Add the new object
-                if (nextIsAValue || (!objectsStack.isEmpty() && objectsStack.peek().getSecond() > 0)) {
-                    objectsStack.peek().getFirst().addField(new JsonParsedField(currentFieldName, value, "{object}"));
-                    nextIsAValue = false;
-                }
-                // Initialize the root object
-                else if (rootObject == null) {
-                    rootObject = value;
-                }
-                objectsStack.push(new Pair<>(value, 0));
-            }
+        return _parse(new JsonReader(json));
+    }
+
+    /**
+     * Parse a Json expression read from a Reader into a tree structure.
+     * The Reader is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   reader  The Reader to read the Json expression from
+     * @return  The root Json object of the tree
+     * @see     jiib.jsonparser.JsonParsedObject
+     */
+    public static JsonParsedObject parse(Reader reader) {
+        return _parse(new JsonReader(reader));
+    }
+
+    /**
+     * Parse a Json expression read from an UTF-8 encoded InputStream into a tree structure.
+     * The InputStream is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   in  The InputStream to read the Json expression from
+     * @return  The root Json object of the tree
+     * @see     jiib.jsonparser.JsonParsedObject
+     */
+    public static JsonParsedObject parse(InputStream in) {
+        return _parse(new JsonReader(in));
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json expression held in a byte array into a tree structure.
+     * The bytes are decoded as they are parsed, without being copied into a String first,
+     * and the ASCII runs, like most field names and numbers, are decoded by a plain copy.
+     * 
+     * @param   json    The UTF-8 encoded Json expression to parse
+     * @return  The root Json object of the tree
+     * @see     jiib.jsonparser.JsonParsedObject#toJsonBytes()
+     */
+    public static JsonParsedObject parse(byte[] json) {
+        return _parse(new JsonReader(json));
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json expression held in a range of a byte array into a tree structure.
+     * 
+     * @param   json    The array holding the UTF-8 encoded Json expression to parse
+     * @param   offset  The position of the first byte of the expression
+     * @param   length  The number of bytes of the expression
+     * @return  The root Json object of the tree
+     * @see     #parse(byte[])
+     */
+    public static JsonParsedObject parse(byte[] json, int offset, int length) {
+        return _parse(new JsonReader(new JsonUtf8Reader(json, offset, length)));
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json expression held in a ByteBuffer into a tree structure.
+     * The bytes between the position and the limit of the buffer are parsed, and the position of the buffer is left unchanged.
+     * A direct buffer is read by chunks, without being copied whole on the heap.
+     * 
+     * @param   json    The buffer holding the UTF-8 encoded Json expression to parse
+     * @return  The root Json object of the tree
+     * @see     #parse(byte[])
+     */
+    public static JsonParsedObject parse(ByteBuffer json) {
+        return _parse(new JsonReader(json));
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json file into a tree structure.
+     * The file is decoded straight from its memory mapping, without being copied into a byte[] or a String first,
+     * so it can be bigger than the biggest String. It is closed once parsed.
+     * To go through a file bigger than the heap, read it event by event with a JsonReader on the file instead.
+     * 
+     * @param   path    The file to parse
+     * @return  The root Json object of the tree
+     * @throws  IOException If the file can not be read
+     * @see     jiib.jsonparser.JsonReader#JsonReader(Path)
+     */
+    public static JsonParsedObject parse(Path path) throws IOException {
+        try (JsonReader reader = new JsonReader(path)) {
+            return _parse(reader);
+        }
+    }
+
+    /**
+     * Parse a Json expression into a tree structure, the field names and short string values being taken from a table of canonical strings.
+     * When many Json expressions of the same schema are parsed with the same table, their repeated strings are shared
+     * instead of being created again for each expression, which cuts the memory held by the parsed trees.
+     * For example :
+     * <pre>
+     *  JsonSymbolTable symbols = new JsonSymbolTable();
+     *  JsonParsedObject parsedResult = JsonParser.parse(jsonBody, symbols);
+     * </pre>
+     * 
+     * @param   json    The Json expression to parse
+     * @param   symbols The table of canonical strings, which can be shared between threads
+     * @return  The root Json object of the tree
+     * @see     jiib.jsonparser.JsonSymbolTable
+     */
+    public static JsonParsedObject parse(String json, JsonSymbolTable symbols) {
+        JsonReader reader = new JsonReader(json);
+        reader.setSymbolTable(symbols);
+        return _parse(reader);
+    }
+
+    /**
+     * Parse a Json expression read from a Reader into a tree structure, the field names and short string values being taken from a table of canonical strings.
+     * The Reader is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   reader  The Reader to read the Json expression from
+     * @param   symbols The table of canonical strings, which can be shared between threads
+     * @return  The root Json object of the tree
+     * @see     #parse(String, JsonSymbolTable)
+     */
+    public static JsonParsedObject parse(Reader reader, JsonSymbolTable symbols) {
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setSymbolTable(symbols);
+        return _parse(jsonReader);
+    }
+
+    /**
+     * Parse a Json expression read from an UTF-8 encoded InputStream into a tree structure, the field names and short string values being taken from a table of canonical strings.
+     * The InputStream is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   in      The InputStream to read the Json expression from
+     * @param   symbols The table of canonical strings, which can be shared between threads
+     * @return  The root Json object of the tree
+     * @see     #parse(String, JsonSymbolTable)
+     */
+    public static JsonParsedObject parse(InputStream in, JsonSymbolTable symbols) {
+        JsonReader reader = new JsonReader(in);
+        reader.setSymbolTable(symbols);
+        return _parse(reader);
+    }
+
+    /**
+     * Parse a Json expression into a tree structure, keeping only the fields selected by a projection.
+     * The other fields are skipped at scan speed : only their brackets are matched, their strings are not decoded,
+     * and no JsonParsedObject or JsonParsedField is created for them.
+     * For example :
+     * <pre>
+     *  JsonProjection projection = JsonProjection.of("id", "user.name", "items.*.price");
+     *  JsonParsedObject parsedResult = JsonParser.parse(jsonBody, projection);
+     * </pre>
+     * 
+     * @param   json        The Json expression to parse
+     * @param   projection  The fields to keep
+     * @return  The root Json object of the tree
+     * @see     jiib.jsonparser.JsonProjection
+     */
+    public static JsonParsedObject parse(String json, JsonProjection projection) {
+        return _parse(new JsonReader(json), projection);
+    }
+
+    /**
+     * Parse a Json expression read from a Reader into a tree structure, keeping only the fields selected by a projection.
+     * The Reader is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   reader      The Reader to read the Json expression from
+     * @param   projection  The fields to keep
+     * @return  The root Json object of the tree
+     * @see     #parse(String, JsonProjection)
+     */
+    public static JsonParsedObject parse(Reader reader, JsonProjection projection) {
+        return _parse(new JsonReader(reader), projection);
+    }
+
+    /**
+     * Parse a Json expression read from an UTF-8 encoded InputStream into a tree structure, keeping only the fields selected by a projection.
+     * The InputStream is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   in          The InputStream to read the Json expression from
+     * @param   projection  The fields to keep
+     * @return  The root Json object of the tree
+     * @see     #parse(String, JsonProjection)
+     */
+    public static JsonParsedObject parse(InputStream in, JsonProjection projection) {
+        return _parse(new JsonReader(in), projection);
+    }
+
+    /**
+     * Parse a Json expression into a tree structure, expecting the fields of a shape learned from sample objects.
+     * The field names are matched in place against those of the shape, without building a String nor checking for duplicates,
+     * and the parsed objects find their fields through the shape. An object which does not match its shape is still
+     * parsed, as usual, from its first field which does not match.
+     * For example :
+     * <pre>
+     *  JsonShape shape = JsonShape.of(JsonParser.parse(firstMessage));
+     *  JsonParsedObject parsedResult = JsonParser.parse(jsonBody, shape);
+     * </pre>
+     * 
+     * @param   json    The Json expression to parse
+     * @param   shape   The expected shape of the root object
+     * @return  The root Json object of the tree
+     * @see     jiib.jsonparser.JsonShape
+     */
+    public static JsonParsedObject parse(String json, JsonShape shape) {
+        return _parse(new JsonReader(json), shape);
+    }
+
+    /**
+     * Parse a Json expression read from a Reader into a tree structure, expecting the fields of a shape.
+     * The Reader is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   reader  The Reader to read the Json expression from
+     * @param   shape   The expected shape of the root object
+     * @return  The root Json object of the tree
+     * @see     #parse(String, JsonShape)
+     */
+    public static JsonParsedObject parse(Reader reader, JsonShape shape) {
+        return _parse(new JsonReader(reader), shape);
+    }
+
+    /**
+     * Parse a Json expression read from an UTF-8 encoded InputStream into a tree structure, expecting the fields of a shape.
+     * The InputStream is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   in      The InputStream to read the Json expression from
+     * @param   shape   The expected shape of the root object
+     * @return  The root Json object of the tree
+     * @see     #parse(String, JsonShape)
+     */
+    public static JsonParsedObject parse(InputStream in, JsonShape shape) {
+        return _parse(new JsonReader(in), shape);
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json expression held in a byte array into a tree structure, expecting the fields of a shape
+     * 
+     * @param   json    The UTF-8 encoded Json expression to parse
+     * @param   shape   The expected shape of the root object
+     * @return  The root Json object of the tree
+     * @see     #parse(String, JsonShape)
+     */
+    public static JsonParsedObject parse(byte[] json, JsonShape shape) {
+        return _parse(new JsonReader(json), shape);
+    }
+
+    /**
+     * Parse a Json expression straight into a java object, without building a tree of JsonParsedObject.
+     * For example :
+     * <pre>
+     *  record Address(String street, int number) {}
+     *  record Person(String name, List&lt;String&gt; tags, Address address) {}
+     *
+     *  Person person = JsonParser.parse(jsonBody, Person.class);
+     * </pre>
+     * Records are built through their canonical constructor, classes with a public no-arg constructor through their
+     * public setters and fields, and other classes through their widest public constructor. Nested objects and
+     * typed lists, sets, maps and arrays are bound the same way, following the generic types of the fields.
+     * Unknown fields are skipped, and missing ones are left to null, 0 or false.
+     * A value of the wrong type throws a ClassCastException naming the field.
+     * 
+     * @param   <T>     The java Class to bind the Json expression into (use the parameter 'type')
+     * @param   json    The Json expression to parse
+     * @param   type    The java Class to bind the Json expression into
+     * @return  The new instance, or null if the Json expression is null
+     */
+    public static <T> T parse(String json, Class<T> type) {
+        return _bind(new JsonReader(json), type);
+    }
+
+    /**
+     * Parse a Json expression read from a Reader straight into a java object, without building a tree of JsonParsedObject.
+     * The Reader is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   <T>     The java Class to bind the Json expression into (use the parameter 'type')
+     * @param   reader  The Reader to read the Json expression from
+     * @param   type    The java Class to bind the Json expression into
+     * @return  The new instance, or null if the Json expression is null
+     * @see     #parse(String, Class)
+     */
+    public static <T> T parse(Reader reader, Class<T> type) {
+        return _bind(new JsonReader(reader), type);
+    }
+
+    /**
+     * Parse a Json expression read from an UTF-8 encoded InputStream straight into a java object, without building a tree of JsonParsedObject.
+     * The InputStream is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   <T>     The java Class to bind the Json expression into (use the parameter 'type')
+     * @param   in      The InputStream to read the Json expression from
+     * @param   type    The java Class to bind the Json expression into
+     * @return  The new instance, or null if the Json expression is null
+     * @see     #parse(String, Class)
+     */
+    public static <T> T parse(InputStream in, Class<T> type) {
+        return _bind(new JsonReader(in), type);
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json expression held in a byte array straight into a java object, without building a tree of JsonParsedObject.
+     * 
+     * @param   <T>     The java Class to bind the Json expression into (use the parameter 'type')
+     * @param   json    The UTF-8 encoded Json expression to parse
+     * @param   type    The java Class to bind the Json expression into
+     * @return  The new instance, or null if the Json expression is null
+     * @see     #parse(String, Class)
+     */
+    public static <T> T parse(byte[] json, Class<T> type) {
+        return _bind(new JsonReader(json), type);
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json expression held in a ByteBuffer straight into a java object, without building a tree of JsonParsedObject.
+     * The position of the buffer is left unchanged.
+     * 
+     * @param   <T>     The java Class to bind the Json expression into (use the parameter 'type')
+     * @param   json    The buffer holding the UTF-8 encoded Json expression to parse
+     * @param   type    The java Class to bind the Json expression into
+     * @return  The new instance, or null if the Json expression is null
+     * @see     #parse(String, Class)
+     */
+    public static <T> T parse(ByteBuffer json, Class<T> type) {
+        return _bind(new JsonReader(json), type);
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json file straight into a java object, without building a tree of JsonParsedObject.
+     * The file is decoded straight from its memory mapping, and is closed once parsed.
+     * 
+     * @param   <T>     The java Class to bind the Json expression into (use the parameter 'type')
+     * @param   path    The file to parse
+     * @param   type    The java Class to bind the Json expression into
+     * @return  The new instance, or null if the Json expression is null
+     * @throws  IOException If the file can not be read
+     * @see     #parse(String, Class)
+     */
+    public static <T> T parse(Path path, Class<T> type) throws IOException {
+        try (JsonReader reader = new JsonReader(path)) {
+            return _bind(reader, type);
+        }
+    }
 
-            // CLOSING / SEPARATING
-
-            // Is a separator to the next value or field
-            else if (expression.startsWith(",")) {
-                if (objectsStack.isEmpty()) {
-                    throw new IllegalArgumentException("Invalid Json expression : Whole expression should be wrapped between opening and closing balises");
-                }
-
-                expression = expression.substring(1);
-                // If in a list, increment its index and update the current field
-                if (objectsStack.peek().getSecond() > 0) {
-                    Pair<JsonParsedObject, Integer> tmp = objectsStack.pop();
-                    objectsStack.push(new Pair<>(tmp.getFirst(), tmp.getSecond() + 1));
-                    currentFieldName = (objectsStack.peek().getSecond()).toString();
-                }
+    /**
+     * Parse a Json expression whose root value can be of any kind, like a list or a single string, into a field holding it.
+     * For example :
+     * <pre>
+     *  JsonParsedField root = JsonParser.parseValue("[{\"id\":1},{\"id\":2}]");
+     *  List&lt;JsonParsedField&gt; items = (List&lt;JsonParsedField&gt;)root.getValue();
+     * </pre>
+     * 
+     * @param   json    The Json expression to parse
+     * @return  The field holding the root value, named "{none}"
+     * @see     jiib.jsonparser.JsonParsedField
+     */
+    public static JsonParsedField parseValue(String json) {
+        return _parseValue(new JsonReader(json));
+    }
+
+    /**
+     * Parse a Json expression read from a Reader, whose root value can be of any kind, into a field holding it.
+     * The Reader is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   reader  The Reader to read the Json expression from
+     * @return  The field holding the root value, named "{none}"
+     * @see     #parseValue(String)
+     */
+    public static JsonParsedField parseValue(Reader reader) {
+        return _parseValue(new JsonReader(reader));
+    }
+
+    /**
+     * Parse a Json expression read from an UTF-8 encoded InputStream, whose root value can be of any kind, into a field holding it.
+     * The InputStream is read through a fixed-size buffer and is not closed.
+     * 
+     * @param   in  The InputStream to read the Json expression from
+     * @return  The field holding the root value, named "{none}"
+     * @see     #parseValue(String)
+     */
+    public static JsonParsedField parseValue(InputStream in) {
+        return _parseValue(new JsonReader(in));
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json expression held in a byte array, whose root value can be of any kind, into a field holding it.
+     * 
+     * @param   json    The UTF-8 encoded Json expression to parse
+     * @return  The field holding the root value, named "{none}"
+     * @see     #parseValue(String)
+     */
+    public static JsonParsedField parseValue(byte[] json) {
+        return _parseValue(new JsonReader(json));
+    }
+
+    /**
+     * Parse the items of a Json expression whose root value is a list, one at a time.
+     * Only the item being read is held in memory, so a list of millions of items can be gone through with a constant memory.
+     * Each item is parsed when the stream reaches it, and is named after its index in the list, starting at "1".
+     * The Reader is not closed.
+     * For example :
+     * <pre>
+     *  try (Stream&lt;JsonParsedField&gt; items = JsonParser.parseElements(reader)) {
+     *      items.forEach(item -&gt; ...);
+     *  }
+     * </pre>
+     * 
+     * @param   reader  The Reader to read the Json expression from
+     * @return  The stream of the items of the root list
+     * @see     #parseValue(String)
+     */
+    public static Stream<JsonParsedField> parseElements(Reader reader) {
+        return StreamSupport.stream(JsonElementSpliterator.ofFields(new JsonReader(reader)), false);
+    }
+
+    /**
+     * Parse the items of an UTF-8 encoded Json expression whose root value is a list, one at a time.
+     * The InputStream is not closed.
+     * 
+     * @param   in  The InputStream to read the Json expression from
+     * @return  The stream of the items of the root list
+     * @see     #parseElements(Reader)
+     */
+    public static Stream<JsonParsedField> parseElements(InputStream in) {
+        return StreamSupport.stream(JsonElementSpliterator.ofFields(new JsonReader(in)), false);
+    }
+
+    /**
+     * Parse the items of an UTF-8 encoded Json file whose root value is a list, one at a time.
+     * The file is decoded straight from its memory mapping, and is closed when the stream is closed.
+     * 
+     * @param   path    The file to parse
+     * @return  The stream of the items of the root list
+     * @throws  IOException If the file can not be opened
+     * @see     #parseElements(Reader)
+     */
+    public static Stream<JsonParsedField> parseElements(Path path) throws IOException {
+        JsonReader reader = new JsonReader(path);
+        return StreamSupport.stream(JsonElementSpliterator.ofFields(reader), false).onClose(reader::close);
+    }
+
+    /**
+     * Parse the items of a Json expression whose root value is a list straight into java objects, one at a time,
+     * without building a tree of JsonParsedObject. The Reader is not closed.
+     * 
+     * @param   <T>     The java Class to bind the items into (use the parameter 'type')
+     * @param   reader  The Reader to read the Json expression from
+     * @param   type    The java Class to bind the items into
+     * @return  The stream of the new instances, with null for the null items
+     * @see     #parseElements(Reader)
+     * @see     #parse(String, Class)
+     */
+    public static <T> Stream<T> parseElements(Reader reader, Class<T> type) {
+        return StreamSupport.stream(JsonElementSpliterator.ofType(new JsonReader(reader), type), false);
+    }
+
+    /**
+     * Parse the items of an UTF-8 encoded Json expression whose root value is a list straight into java objects, one at a time,
+     * without building a tree of JsonParsedObject. The InputStream is not closed.
+     * 
+     * @param   <T>     The java Class to bind the items into (use the parameter 'type')
+     * @param   in      The InputStream to read the Json expression from
+     * @param   type    The java Class to bind the items into
+     * @return  The stream of the new instances, with null for the null items
+     * @see     #parseElements(Reader, Class)
+     */
+    public static <T> Stream<T> parseElements(InputStream in, Class<T> type) {
+        return StreamSupport.stream(JsonElementSpliterator.ofType(new JsonReader(in), type), false);
+    }
+
+    /**
+     * Parse the items of an UTF-8 encoded Json file whose root value is a list straight into java objects, one at a time,
+     * without building a tree of JsonParsedObject. The file is closed when the stream is closed.
+     * 
+     * @param   <T>     The java Class to bind the items into (use the parameter 'type')
+     * @param   path    The file to parse
+     * @param   type    The java Class to bind the items into
+     * @return  The stream of the new instances, with null for the null items
+     * @throws  IOException If the file can not be opened
+     * @see     #parseElements(Reader, Class)
+     */
+    public static <T> Stream<T> parseElements(Path path, Class<T> type) throws IOException {
+        JsonReader reader = new JsonReader(path);
+        return StreamSupport.stream(JsonElementSpliterator.ofType(reader, type), false).onClose(reader::close);
+    }
+
+    /**
+     * Parse a Json expression lazily.
+     * Only the names of the root object fields are read, the values being located and skipped at scan speed.
+     * A value is decoded when it is first used through JsonParsedField.getValue or getValueType,
+     * and a nested object or list is scanned the same way when it is first used.
+     * This is much cheaper when only a few fields of a big expression are used.
+     * <pre>
+     *  JsonParsedObject parsedResult = JsonParser.parseLazy(jsonBody);
+     *  String name = (String)parsedResult.getField("name").getValue();
+     * </pre>
+     * The lazy values keep a reference on the whole expression, and the content of a value is only checked when it is decoded.
+     * 
+     * @param   json    The Json expression to parse
+     * @return  The root Json object of the tree
+     * @see     jiib.jsonparser.JsonParsedObject
+     */
+    public static JsonParsedObject parseLazy(String json) {
+        return JsonLazyValue.scanRoot(json);
+    }
+
+    /**
+     * Parse a Json Lines file (one Json expression per line, also known as NDJSON), in parallel on the common ForkJoinPool.
+     * The records are given in the order of the lines. The file is closed when the stream is closed :
+     * <pre>
+     *  try (Stream&lt;JsonParsedObject&gt; records = JsonParser.parseLines(Path.of("records.jsonl"))) {
+     *      records.forEach(record -&gt; ...);
+     *  }
+     * </pre>
+     * 
+     * @param   path    The UTF-8 encoded file to parse
+     * @return  The stream of the parsed records
+     * @throws  IOException If the file can not be opened
+     * @see     #parseLines(Path, boolean, Executor)
+     */
+    public static Stream<JsonParsedObject> parseLines(Path path) throws IOException {
+        return parseLines(path, true, null);
+    }
+
+    /**
+     * Parse a Json Lines file (one Json expression per line, also known as NDJSON), in parallel on an Executor.
+     * The file is closed when the stream is closed.
+     * 
+     * @param   path        The UTF-8 encoded file to parse
+     * @param   ordered     true to give the records in the order of the lines, or false to give them as soon as they are parsed
+     * @param   executor    The Executor parsing the records, or null to use the common ForkJoinPool
+     * @return  The stream of the parsed records
+     * @throws  IOException If the file can not be opened
+     * @see     #parseLines(InputStream, boolean, Executor)
+     */
+    public static Stream<JsonParsedObject> parseLines(Path path, boolean ordered, Executor executor) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        return _parseLines(reader, ordered, executor).onClose(() -> {
+            try {
+                reader.close();
             }
-            // Closing a list
-            else if (expression.startsWith("]")) {
-                expression = expression.substring(1);
-                objectsStack.pop();
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        });
+    }
 
-            // VALUES
-
-            // If is a value or if the parent is a list
-            else if (nextIsAValue || objectsStack.peek().getSecond() > 0) {
-                nextIsAValue = false;
-                Object value = null;
-                String valueType = "{none}";
-
-                Matcher valueIsDouble = Pattern.compile("^(-?[0-9]+\\.[0-9]+)[ ,\\]}].*$").matcher(expression);
-                Matcher valueIsNumber = Pattern.compile("^(-?[0-9]+)[ ,\\]}].*$").matcher(expression);
-                Matcher valueIsBool = Pattern.compile("^(true|false)[ ,\\]}].*$").matcher(expression);
-                Matcher valueIsNull = Pattern.compile("^(null)[ ,\\]}].*$").matcher(expression);
-
-                // Is a new list
-                if (expression.startsWith("[")) {
-                    expression = expression.substring(1);
-                    
-                    JsonParsedObject objectList = new JsonParsedObject();
-                    objectsStack.peek().getFirst().addField(new JsonParsedField(currentFieldName, objectList.getFieldsRef(), "List"));
-                    objectsStack.push(new Pair<>(objectList, 1));
-                    currentFieldName = "1";
-                }
-                else {
-                    int nextSeparatorCharIndex = 0;
-                    String[] separators = {":", ",", "]", "}"};
-                    // Is empty string
-                    if (expression.startsWith("\"\"")) {
-                    	value = "";
-                        valueType = "String";
-                    }
-                    // Is a string
-                    else if (expression.startsWith("\"")) {
-                        int nextCharIsEscaped = 0;
-                        Boolean separatorFound = false;
-                        Boolean closedString = false;
-                        // Loop on each char before finding a valid separator
-                        while (!separatorFound) {
-                            nextSeparatorCharIndex++;
-                            
-                            if (expression.charAt(nextSeparatorCharIndex) == '\\') {
-                                nextCharIsEscaped = nextSeparatorCharIndex;
-                            }
-                            else if (expression.charAt(nextSeparatorCharIndex) == '"') {
-                                // If the char is not an escaped quote
-                                if (nextCharIsEscaped != nextSeparatorCharIndex - 1) {
-                                    if (closedString) {
-                                        throw new IllegalArgumentException("Invalid string value for field : \"" + currentFieldName + "\", an unexpected '\"' has been found");
-                                    }
-                                    else {
-                                        closedString = true;
-                                    }
-                                }
-                                else if(closedString) {
-                                    throw new IllegalArgumentException("Invalid string value for field : \"" + currentFieldName + "\", an unexpected '\"' has been found");
-                                }
-                            }
-                            else if (closedString) {
-                                // If the char is a separator
-                                for (String c : separators) {
-                                    if (c.charAt(0) == expression.charAt(nextSeparatorCharIndex)) {
-                                        separatorFound = true;
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-
-                        value = expression.substring(1, nextSeparatorCharIndex- 1); // replace("\\", "") ?
-                        valueType = "String";
-                    }
-                    // Is a double
-                    else {
-                        if (valueIsDouble.matches()) {
-                            value = Double.parseDouble(valueIsDouble.group(1));
-                            valueType = "Double";
-                        }
-                        // Is an integer
-                        else if (valueIsNumber.matches()) {
-                            value = Integer.parseInt(valueIsNumber.group(1));
-                            valueType = "Integer";
-                        }
-                        // Is a boolean
-                        else if (valueIsBool.matches()) {
-                            value = Boolean.parseBoolean(valueIsBool.group(1));
-                            valueType = "Boolean";
-                        }
-                        // Is null
-                        else if (valueIsNull.matches()) {
-                            value = null;
-                            valueType = "Null";
-                        }
-
-                        nextSeparatorCharIndex = Integer.MAX_VALUE;
-                        for (String it : separators) {
-                            int tmp = expression.indexOf(it);
-                            if (tmp != -1 && tmp < nextSeparatorCharIndex) {
-                                nextSeparatorCharIndex = tmp;
-                            }
-                        }
-                    }
-
-                    expression = expression.substring(nextSeparatorCharIndex);
-                    
-                    if (value == null && !valueType.equals("Null")) throw new IllegalArgumentException("Invalid value for field : \"" + currentFieldName + "\"");
-
-                    // Adding the new field value into the parent object
-                    objectsStack.peek().getFirst().addField(new JsonParsedField(currentFieldName, value, valueType));
-                }
-            }
+    /**
+     * Parse a Json Lines input (one Json expression per line, also known as NDJSON), in parallel on the common ForkJoinPool.
+     * The records are given in the order of the lines. The InputStream is not closed.
+     * 
+     * @param   in  The UTF-8 encoded InputStream to parse
+     * @return  The stream of the parsed records
+     * @see     #parseLines(InputStream, boolean, Executor)
+     */
+    public static Stream<JsonParsedObject> parseLines(InputStream in) {
+        return parseLines(in, true, null);
+    }
 
-            // FIELD NAME
+    /**
+     * Parse a Json Lines input (one Json expression per line, also known as NDJSON), in parallel on an Executor.
+     * The lines are split by batches as the stream is consumed, and a few batches are parsed ahead on the Executor,
+     * so the input is never held in memory as a whole. Blank lines are ignored.
+     * The records share a JsonSymbolTable, so their field names and short string values are not duplicated.
+     * <pre>
+     *  ExecutorService executor = Executors.newFixedThreadPool(8);
+     *  long count = JsonParser.parseLines(in, false, executor)
+     *      .filter(record -&gt; record.getField("error") != null)
+     *      .count();
+     * </pre>
+     * A line which is not a valid Json expression stops the stream with an IllegalArgumentException giving its line number.
+     * An IOException while reading is thrown as an UncheckedIOException. The InputStream is not closed.
+     * 
+     * @param   in          The UTF-8 encoded InputStream to parse
+     * @param   ordered     true to give the records in the order of the lines, or false to give them as soon as they are parsed
+     * @param   executor    The Executor parsing the records, or null to use the common ForkJoinPool
+     * @return  The stream of the parsed records
+     */
+    public static Stream<JsonParsedObject> parseLines(InputStream in, boolean ordered, Executor executor) {
+        return _parseLines(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), ordered, executor);
+    }
 
-            else if (expression.startsWith("\"")) {
-                int nameClosingQuote = expression.indexOf("\"", expression.indexOf("\"") + 1);
-                String fieldName = expression.substring(1, nameClosingQuote);
-                // Update the current field / path
-                currentFieldName = fieldName;
-                
-                expression = expression.substring(nameClosingQuote + 1);
-            }
+    /**
+     * Parse a Json expression into a tree structure, reusing the buffers of this parser
+     *
+     * @param   json    The Json expression to parse
+     * @return  The root Json object of the tree
+     * @throws  IllegalStateException   If the parser is already parsing, from a callback of the same thread
+     * @see     #parse(String)
+     */
+    public JsonParsedObject read(String json) {
+        _acquire();
+        try {
+            _reader.reset(json);
+            return _read();
+        }
+        finally {
+            _release();
+        }
+    }
 
-            // NEXT IS A VALUE
+    /**
+     * Parse a Json expression read from a Reader into a tree structure, reusing the buffers of this parser.
+     * The Reader is read through a fixed-size buffer and is not closed.
+     *
+     * @param   reader  The Reader to read the Json expression from
+     * @return  The root Json object of the tree
+     * @throws  IllegalStateException   If the parser is already parsing, from a callback of the same thread
+     * @see     #parse(Reader)
+     */
+    public JsonParsedObject read(Reader reader) {
+        _acquire();
+        try {
+            _reader.reset(reader);
+            return _read();
+        }
+        finally {
+            _release();
+        }
+    }
 
-            else if (expression.startsWith(":")) {
-                expression = expression.substring(1);
-                nextIsAValue = true;
-            }
+    /**
+     * Parse a Json expression read from an UTF-8 encoded InputStream into a tree structure, reusing the buffers of this parser.
+     * The InputStream is read through a fixed-size buffer and is not closed.
+     *
+     * @param   in  The InputStream to read the Json expression from
+     * @return  The root Json object of the tree
+     * @throws  IllegalStateException   If the parser is already parsing, from a callback of the same thread
+     * @see     #parse(InputStream)
+     */
+    public JsonParsedObject read(InputStream in) {
+        _acquire();
+        try {
+            _utf8.reset(in);
+            _reader.reset(_utf8);
+            return _read();
+        }
+        finally {
+            _release();
+        }
+    }
 
-            // CLOSING
+    /**
+     * Parse an UTF-8 encoded Json expression held in a byte array into a tree structure, reusing the buffers of this parser
+     *
+     * @param   json    The UTF-8 encoded Json expression to parse
+     * @return  The root Json object of the tree
+     * @throws  IllegalStateException   If the parser is already parsing, from a callback of the same thread
+     * @see     #parse(byte[])
+     */
+    public JsonParsedObject read(byte[] json) {
+        _acquire();
+        try {
+            _utf8.reset(json, 0, json.length);
+            _reader.reset(_utf8);
+            return _read();
+        }
+        finally {
+            _release();
+        }
+    }
 
-            // Closing an object or a list
-            else if (expression.startsWith("}")) {
-                expression = expression.substring(1);
-                objectsStack.pop();
-            }
+    /**
+     * Parse an UTF-8 encoded Json expression held in a ByteBuffer into a tree structure, reusing the buffers of this parser.
+     * The position of the buffer is left unchanged.
+     *
+     * @param   json    The buffer holding the UTF-8 encoded Json expression to parse
+     * @return  The root Json object of the tree
+     * @throws  IllegalStateException   If the parser is already parsing, from a callback of the same thread
+     * @see     #parse(ByteBuffer)
+     */
+    public JsonParsedObject read(ByteBuffer json) {
+        _acquire();
+        try {
+            _utf8.reset(json);
+            _reader.reset(_utf8);
+            return _read();
+        }
+        finally {
+            _release();
+        }
+    }
+
+    /**
+     * Parse a Json expression into a tree structure, reusing the buffers of this parser,
+     * and taking the field names and short string values from a table of canonical strings for this parsing only
+     *
+     * @param   json    The Json expression to parse
+     * @param   symbols The table of canonical strings
+     * @return  The root Json object of the tree
+     * @throws  IllegalStateException   If the parser is already parsing, from a callback of the same thread
+     * @see     #parse(String, JsonSymbolTable)
+     */
+    JsonParsedObject read(String json, JsonSymbolTable symbols) {
+        _acquire();
+        try {
+            _reader.setSymbolTable(symbols);
+            _reader.reset(json);
+            return _read();
+        }
+        finally {
+            _reader.setSymbolTable(_symbols);
+            _release();
+        }
+    }
+
+    /**
+     * Parse a Json expression into a tree structure, expecting the fields of a shape, reusing the buffers of this parser
+     *
+     * @param   json    The Json expression to parse
+     * @param   shape   The expected shape of the root object
+     * @return  The root Json object of the tree
+     * @throws  IllegalStateException   If the parser is already parsing, from a callback of the same thread
+     * @see     #parse(String, JsonShape)
+     */
+    public JsonParsedObject read(String json, JsonShape shape) {
+        _acquire();
+        try {
+            _reader.reset(json);
+            return _read(shape);
+        }
+        finally {
+            _release();
+        }
+    }
+
+    /**
+     * Parse an UTF-8 encoded Json expression held in a byte array into a tree structure, expecting the fields of a shape,
+     * reusing the buffers of this parser
+     *
+     * @param   json    The UTF-8 encoded Json expression to parse
+     * @param   shape   The expected shape of the root object
+     * @return  The root Json object of the tree
+     * @throws  IllegalStateException   If the parser is already parsing, from a callback of the same thread
+     * @see     #parse(String, JsonShape)
+     */
+    public JsonParsedObject read(byte[] json, JsonShape shape) {
+        _acquire();
+        try {
+            _utf8.reset(json, 0, json.length);
+            _reader.reset(_utf8);
+            return _read(shape);
+        }
+        finally {
+            _release();
+        }
+    }
 
-            // INVALID FIRST CHAR
+    /**
+     * Drop all the buffers of this parser, which are created again by the next parsing
+     */
+    public void reset() {
+        if (_busy) {
+            throw new IllegalStateException("The parser can not be reset while parsing");
+        }
+        _reader.release(0);
+        _utf8.release(0);
+        _builder.reset();
+    }
 
-            else throw new IllegalArgumentException("Invalid char : '" + expression.charAt(0) + "' at position 0");
+    private void _acquire() {
+        if (_busy) {
+            throw new IllegalStateException("The parser is already parsing, use another instance");
         }
+        _busy = true;
+    }
 
-        return rootObject;
+    private void _release() {
+        _reader.release(MAX_RETAINED_SIZE);
+        _utf8.release(MAX_RETAINED_SIZE);
+        _builder.reset();
+        _busy = false;
+    }
+
+    private JsonParsedObject _read() {
+        return _measure(_reader, reader -> _builder.buildRoot(reader, (JsonProjection)null));
+    }
+
+    private JsonParsedObject _read(JsonShape shape) {
+        return _measure(_reader, reader -> _builder.buildRoot(reader, shape));
+    }
+
+    private static Stream<JsonParsedObject> _parseLines(BufferedReader reader, boolean ordered, Executor executor) {
+        if (executor == null) executor = ForkJoinPool.commonPool();
+        return StreamSupport.stream(new JsonLinesSpliterator(reader, ordered, executor), false);
+    }
+
+    private static <T> T _bind(JsonReader reader, Class<T> type) {
+        return _measure(reader, jsonReader -> JsonBinder.bind(jsonReader, type));
+    }
+
+    private static JsonParsedField _parseValue(JsonReader reader) {
+        return _measure(reader, jsonReader -> new JsonTreeBuilder().buildField(jsonReader, jsonReader.next(), "{none}"));
+    }
+
+    private static JsonParsedObject _parse(JsonReader reader, JsonProjection projection) {
+        return _measure(reader, jsonReader -> JsonTreeBuilder.build(jsonReader, projection));
+    }
+
+    private static JsonParsedObject _parse(JsonReader reader, JsonShape shape) {
+        return _measure(reader, jsonReader -> new JsonTreeBuilder().buildRoot(jsonReader, shape));
+    }
+
+    private static JsonParsedObject _parse(JsonReader reader) {
+        return _measure(reader, JsonTreeBuilder::build);
+    }
+
+    /**
+     * Parse the root value, check that nothing follows it, and give the measures of the parsing to the listeners if any
+     */
+    private static <T> T _measure(JsonReader reader, Function<JsonReader, T> parsing) {
+        JsonParseMeter meter = JsonParseMeter.start(JsonParseMetrics.Operation.PARSE, reader);
+        T root;
+        try {
+            root = parsing.apply(reader);
+            // Check that nothing follows the root value
+            reader.next();
+        }
+        catch (RuntimeException e) {
+            if (meter != null) meter.finish(e);
+            throw e;
+        }
+        if (meter != null) meter.finish(null);
+        return root;
     }
 }
@@ -0,0 +1,26 @@
+package jiib.jsonparser;
+
+/**
+ * A listener receiving the measures of each parsing, toJson and tryDeserializing, once registered by JsonParser.addListener.
+ * While no listener is registered, the operations are not measured at all.
+ * The listener is called on the thread of the operation, right after it, so it should be quick and never throw.
+ * For example :
+ * <pre>
+ *  JsonParser.addListener(metrics -&gt; {
+ *      if (metrics.getTotalNanos() &gt; 10_000_000) logger.warn("Slow Json operation : " + metrics);
+ *  });
+ * </pre>
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParserStats
+ */
+@FunctionalInterface
+public interface JsonParserListener {
+
+    /**
+     * Receive the measures of an operation, which succeeded or failed
+     *
+     * @param metrics   The measures of the operation
+     */
+    void operationDone(JsonParseMetrics metrics);
+}
@@ -0,0 +1,229 @@
+package jiib.jsonparser;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A listener adding up the measures of all the operations, on all threads, to be read by a dashboard or through JMX.
+ * The counters are updated without locking, so they can be read at any time while the operations go on.
+ * For example :
+ * <pre>
+ *  JsonParserStats stats = JsonParserStats.register();
+ *  ...
+ *  long meanParseNanos = stats.getParseNanos() / stats.getParseCount();
+ * </pre>
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParserListener
+ */
+public final class JsonParserStats implements JsonParserListener, JsonParserStatsMBean {
+
+    /** The name of the MBean registered by register() */
+    public static final String OBJECT_NAME = "jiib.jsonparser:type=JsonParserStats";
+
+    private final LongAdder _parseCount = new LongAdder();
+    private final LongAdder _parseErrorCount = new LongAdder();
+    private final LongAdder _charCount = new LongAdder();
+    private final LongAdder _tokenCount = new LongAdder();
+    private final LongAdder _stringNanos = new LongAdder();
+    private final LongAdder _numberNanos = new LongAdder();
+    private final LongAdder _structureNanos = new LongAdder();
+    private final LongAdder _parseNanos = new LongAdder();
+    private final AtomicLong _slowestParseNanos = new AtomicLong();
+    private final AtomicInteger _maxDepth = new AtomicInteger();
+    private final LongAdder _toJsonCount = new LongAdder();
+    private final LongAdder _toJsonNanos = new LongAdder();
+    private final LongAdder _deserializeCount = new LongAdder();
+    private final LongAdder _deserializeErrorCount = new LongAdder();
+    private final LongAdder _deserializeNanos = new LongAdder();
+    private final LongAdder _allocatedBytes = new LongAdder();
+    private volatile boolean _allocationsCounted = true;
+
+    /**
+     * Create the statistics, to be registered as a listener by JsonParser.addListener
+     */
+    public JsonParserStats() {}
+
+    /**
+     * Create the statistics, register them as a listener, and as an MBean of the platform MBeanServer named OBJECT_NAME
+     *
+     * @return  The statistics
+     * @throws  IllegalStateException If an MBean is already registered with this name
+     */
+    public static JsonParserStats register() {
+        JsonParserStats stats = new JsonParserStats();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats, new ObjectName(OBJECT_NAME));
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("The statistics can not be registered as the MBean " + OBJECT_NAME, e);
+        }
+        JsonParser.addListener(stats);
+        return stats;
+    }
+
+    /**
+     * Unregister the statistics, as a listener and as an MBean
+     *
+     * @throws  IllegalStateException If the MBean can not be unregistered
+     */
+    public void unregister() {
+        JsonParser.removeListener(this);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("The MBean " + OBJECT_NAME + " can not be unregistered", e);
+        }
+    }
+
+    @Override
+    public void operationDone(JsonParseMetrics metrics) {
+        switch (metrics.getOperation()) {
+            case PARSE:
+                _parseCount.increment();
+                if (metrics.getError() != null) _parseErrorCount.increment();
+                _charCount.add(metrics.getCharCount());
+                _tokenCount.add(metrics.getTokenCount());
+                _stringNanos.add(metrics.getStringNanos());
+                _numberNanos.add(metrics.getNumberNanos());
+                _structureNanos.add(metrics.getStructureNanos());
+                _parseNanos.add(metrics.getTotalNanos());
+                _slowestParseNanos.accumulateAndGet(metrics.getTotalNanos(), Math::max);
+                _maxDepth.accumulateAndGet(metrics.getMaxDepth(), Math::max);
+                break;
+            case TO_JSON:
+                _toJsonCount.increment();
+                _toJsonNanos.add(metrics.getTotalNanos());
+                break;
+            case DESERIALIZE:
+                _deserializeCount.increment();
+                if (metrics.getError() != null) _deserializeErrorCount.increment();
+                _deserializeNanos.add(metrics.getTotalNanos());
+                break;
+        }
+        if (metrics.getAllocatedBytes() < 0) _allocationsCounted = false;
+        else _allocatedBytes.add(metrics.getAllocatedBytes());
+    }
+
+    @Override
+    public long getParseCount() {
+        return _parseCount.sum();
+    }
+
+    @Override
+    public long getParseErrorCount() {
+        return _parseErrorCount.sum();
+    }
+
+    @Override
+    public long getCharCount() {
+        return _charCount.sum();
+    }
+
+    @Override
+    public long getTokenCount() {
+        return _tokenCount.sum();
+    }
+
+    @Override
+    public long getStringNanos() {
+        return _stringNanos.sum();
+    }
+
+    @Override
+    public long getNumberNanos() {
+        return _numberNanos.sum();
+    }
+
+    @Override
+    public long getStructureNanos() {
+        return _structureNanos.sum();
+    }
+
+    @Override
+    public long getBuildNanos() {
+        return Math.max(0, getParseNanos() - getStringNanos() - getNumberNanos() - getStructureNanos());
+    }
+
+    @Override
+    public long getParseNanos() {
+        return _parseNanos.sum();
+    }
+
+    @Override
+    public long getSlowestParseNanos() {
+        return _slowestParseNanos.get();
+    }
+
+    @Override
+    public int getMaxDepth() {
+        return _maxDepth.get();
+    }
+
+    @Override
+    public long getToJsonCount() {
+        return _toJsonCount.sum();
+    }
+
+    @Override
+    public long getToJsonNanos() {
+        return _toJsonNanos.sum();
+    }
+
+    @Override
+    public long getDeserializeCount() {
+        return _deserializeCount.sum();
+    }
+
+    @Override
+    public long getDeserializeErrorCount() {
+        return _deserializeErrorCount.sum();
+    }
+
+    @Override
+    public long getDeserializeNanos() {
+        return _deserializeNanos.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return _allocationsCounted ? _allocatedBytes.sum() : -1;
+    }
+
+    @Override
+    public void reset() {
+        _parseCount.reset();
+        _parseErrorCount.reset();
+        _charCount.reset();
+        _tokenCount.reset();
+        _stringNanos.reset();
+        _numberNanos.reset();
+        _structureNanos.reset();
+        _parseNanos.reset();
+        _slowestParseNanos.set(0);
+        _maxDepth.set(0);
+        _toJsonCount.reset();
+        _toJsonNanos.reset();
+        _deserializeCount.reset();
+        _deserializeErrorCount.reset();
+        _deserializeNanos.reset();
+        _allocatedBytes.reset();
+        _allocationsCounted = true;
+    }
+
+    @Override
+    public String toString() {
+        return getParseCount() + " parsings (" + getParseErrorCount() + " failed) : " + getCharCount() + " chars, " + getTokenCount()
+            + " tokens, " + getParseNanos() + " ns (strings " + getStringNanos() + ", numbers " + getNumberNanos() + ", structure "
+            + getStructureNanos() + ", build " + getBuildNanos() + "), slowest " + getSlowestParseNanos() + " ns, max depth " + getMaxDepth();
+    }
+}
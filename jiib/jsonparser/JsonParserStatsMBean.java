@@ -0,0 +1,66 @@
+package jiib.jsonparser;
+
+/**
+ * The management interface of JsonParserStats, as shown by JMX clients like JConsole or VisualVM
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParserStats
+ */
+public interface JsonParserStatsMBean {
+
+    /** @return The count of parsings, failed ones included */
+    long getParseCount();
+
+    /** @return The count of failed parsings */
+    long getParseErrorCount();
+
+    /** @return The count of chars read by the parsings */
+    long getCharCount();
+
+    /** @return The count of tokens read by the parsings */
+    long getTokenCount();
+
+    /** @return The time spent reading strings and field names, in nanoseconds */
+    long getStringNanos();
+
+    /** @return The time spent reading numbers, in nanoseconds */
+    long getNumberNanos();
+
+    /** @return The time spent reading brackets, commas and literals, in nanoseconds */
+    long getStructureNanos();
+
+    /** @return The time spent building the trees and the java objects while parsing, in nanoseconds */
+    long getBuildNanos();
+
+    /** @return The whole time spent parsing, in nanoseconds */
+    long getParseNanos();
+
+    /** @return The time of the slowest parsing, in nanoseconds */
+    long getSlowestParseNanos();
+
+    /** @return The deepest count of objects and lists opened at once by a parsing */
+    int getMaxDepth();
+
+    /** @return The count of calls to toJson */
+    long getToJsonCount();
+
+    /** @return The whole time spent in toJson, in nanoseconds */
+    long getToJsonNanos();
+
+    /** @return The count of calls to tryDeserializing, failed ones included */
+    long getDeserializeCount();
+
+    /** @return The count of failed calls to tryDeserializing */
+    long getDeserializeErrorCount();
+
+    /** @return The whole time spent in tryDeserializing, in nanoseconds */
+    long getDeserializeNanos();
+
+    /** @return The bytes allocated by all the operations, or -1 if the JVM does not count them */
+    long getAllocatedBytes();
+
+    /**
+     * Set all the counters back to 0
+     */
+    void reset();
+}
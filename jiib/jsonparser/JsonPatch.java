@@ -0,0 +1,528 @@
+package jiib.jsonparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON Patch (RFC 6902) : a list of operations changing a tree, applied in place.
+ * A patch can be computed between two trees, parsed from its Json expression, or built from its operations.
+ * For example :
+ * <pre>
+ *  JsonPatch patch = JsonPatch.diff(oldConfig, newConfig);
+ *  String json = patch.toJson();
+ *  ...
+ *  JsonPatch.parse(json).apply(config);
+ * </pre>
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonPatchOperation
+ */
+public final class JsonPatch {
+
+    private static final String ROOT_NAME = "{none}";
+
+    private final List<JsonPatchOperation> _operations;
+
+    /**
+     * Create a patch from its operations
+     *
+     * @param operations    The operations, applied in their order
+     */
+    public JsonPatch(List<JsonPatchOperation> operations) {
+        _operations = Collections.unmodifiableList(new ArrayList<>(operations));
+    }
+
+    /**
+     * Compute the patch turning an object into another one.
+     * Each object and list of both trees is hashed once : the subtrees with different hashes are diffed at once,
+     * and those with the same hash are compared before being skipped, so no change is lost to a collision of the hashes.
+     * The values of the operations are shared with the target, and are copied when the patch is applied.
+     *
+     * @param   source  The object to turn into the target
+     * @param   target  The object to reach
+     * @return  The patch, empty if both objects are equal
+     */
+    public static JsonPatch diff(JsonParsedObject source, JsonParsedObject target) {
+        List<JsonPatchOperation> operations = new ArrayList<>();
+        JsonDiff.diff(source, target, operations);
+        return new JsonPatch(operations);
+    }
+
+    /**
+     * Parse a patch from its Json expression, a list of operations
+     *
+     * @param   json    The Json expression of the patch
+     * @return  The patch
+     * @throws  IllegalArgumentException If the expression is not a valid Json patch
+     */
+    public static JsonPatch parse(String json) {
+        JsonParsedField root = JsonParser.parseValue(json);
+        if (root.getKind() != JsonValueKind.LIST) {
+            throw new IllegalArgumentException("Invalid Json patch : expecting a list of operations");
+        }
+
+        @SuppressWarnings("unchecked")
+        List<JsonParsedField> items = (List<JsonParsedField>)root.getValue();
+        List<JsonPatchOperation> operations = new ArrayList<>(items.size());
+        for (JsonParsedField item : items) {
+            if (item.getKind() != JsonValueKind.OBJECT) {
+                throw new IllegalArgumentException("Invalid Json patch : expecting an object for the operation " + item.getName());
+            }
+            JsonParsedObject operation = (JsonParsedObject)item.getValue();
+            String path = _getString(operation, "path");
+            JsonParsedField value = operation.getField("value");
+            switch (JsonPatchOperation.Op.of(_getString(operation, "op"))) {
+                case ADD:
+                    operations.add(JsonPatchOperation.add(path, value));
+                    break;
+                case REMOVE:
+                    operations.add(JsonPatchOperation.remove(path));
+                    break;
+                case REPLACE:
+                    operations.add(JsonPatchOperation.replace(path, value));
+                    break;
+                case MOVE:
+                    operations.add(JsonPatchOperation.move(_getString(operation, "from"), path));
+                    break;
+                case COPY:
+                    operations.add(JsonPatchOperation.copy(_getString(operation, "from"), path));
+                    break;
+                case TEST:
+                    operations.add(JsonPatchOperation.test(path, value));
+                    break;
+            }
+        }
+        return new JsonPatch(operations);
+    }
+
+    private static String _getString(JsonParsedObject operation, String name) {
+        JsonParsedField field = operation.getField(name);
+        if (field == null) return null;
+        if (field.getKind() != JsonValueKind.STRING) {
+            throw new IllegalArgumentException("Invalid Json patch : the member '" + name + "' of an operation should be a String");
+        }
+        return (String)field.getValue();
+    }
+
+    /**
+     * Return the operations of this patch
+     *
+     * @return  The read-only list of the operations, in their order
+     */
+    public List<JsonPatchOperation> getOperations() {
+        return _operations;
+    }
+
+    /**
+     * Return true if this patch holds no operation
+     *
+     * @return  true if this patch changes nothing
+     */
+    public boolean isEmpty() {
+        return _operations.isEmpty();
+    }
+
+    /**
+     * Return this patch as a Json expression
+     *
+     * @return  The list of the operations, as a Json expression
+     */
+    public String toJson() {
+        StringBuilder out = new StringBuilder();
+        try {
+            out.append('[');
+            for (int i = 0; i < _operations.size(); i++) {
+                JsonPatchOperation operation = _operations.get(i);
+                if (i > 0) out.append(',');
+                out.append("{\"op\":");
+                JsonSerializer.writeString(operation.getOp().getName(), out);
+                if (operation.getFrom() != null) {
+                    out.append(",\"from\":");
+                    JsonSerializer.writeString(operation.getFrom(), out);
+                }
+                out.append(",\"path\":");
+                JsonSerializer.writeString(operation.getPath(), out);
+                if (operation.getValue() != null) {
+                    out.append(',');
+                    JsonSerializer.writeFields(List.of(operation.getValue().rename("value")), false, out);
+                }
+                out.append('}');
+            }
+            out.append(']');
+        }
+        catch (IOException e) {
+            // Can not happen with a StringBuilder
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    // Applying
+
+    /**
+     * Apply this patch to an object, which is changed in place.
+     * The values added are copies of those of the patch, so the patch can be applied again.
+     * The patch is applied as a whole : if one of its operations fails, those applied before it are undone,
+     * and the object is left with its initial fields.
+     *
+     * @param   target  The object to change
+     * @throws  IllegalArgumentException If a location of the patch does not exist in the object, or if a test operation fails
+     * @throws  UnsupportedOperationException If the object is frozen
+     */
+    public void apply(JsonParsedObject target) {
+        // The inverse of each change made, to be undone in the reverse order if an operation fails
+        List<JsonPatchOperation> undo = new ArrayList<>(_operations.size());
+        // The lists changed in place whose items have moved, with the index of the first item to name again
+        Map<List<JsonParsedField>, Integer> shifted = new IdentityHashMap<>();
+        try {
+            for (JsonPatchOperation operation : _operations) {
+                _apply(target, operation, undo, shifted);
+            }
+        }
+        catch (RuntimeException e) {
+            for (int i = undo.size() - 1; i >= 0; i--) {
+                _apply(target, undo.get(i), null, shifted);
+            }
+            throw e;
+        }
+        finally {
+            _renameItems(shifted);
+        }
+    }
+
+    /**
+     * Apply an operation to an object
+     *
+     * @param target    The object to change
+     * @param operation The operation
+     * @param undo      The list to append the inverse of the changes to, the values being then copied,
+     *                  or null to apply an inverse change, with its own values
+     * @param shifted   The lists whose items have moved, with the index of the first item moved
+     */
+    private static void _apply(JsonParsedObject target, JsonPatchOperation operation, List<JsonPatchOperation> undo,
+                               Map<List<JsonParsedField>, Integer> shifted) {
+        String[] path = _parsePointer(operation.getPath());
+        switch (operation.getOp()) {
+            case ADD:
+                _add(target, path, (undo != null) ? _copy(operation.getValue(), ROOT_NAME) : operation.getValue(), undo, shifted);
+                break;
+            case REMOVE:
+                JsonParsedField removed = _change(target, path, JsonPatchOperation.Op.REMOVE, null, shifted);
+                if (undo != null) undo.add(JsonPatchOperation.add(operation.getPath(), removed));
+                break;
+            case REPLACE:
+                JsonParsedField value = (undo != null) ? _copy(operation.getValue(), ROOT_NAME) : operation.getValue();
+                JsonParsedField replaced = _change(target, path, JsonPatchOperation.Op.REPLACE, value, shifted);
+                if (undo != null) undo.add(JsonPatchOperation.replace(operation.getPath(), replaced));
+                break;
+            case MOVE:
+                String[] from = _parsePointer(operation.getFrom());
+                if (from.length < path.length && _startsWith(path, from)) {
+                    throw new IllegalArgumentException("Invalid Json patch : can not move '" + operation.getFrom() + "' into itself");
+                }
+                JsonParsedField moved = _change(target, from, JsonPatchOperation.Op.REMOVE, null, shifted);
+                if (undo != null) undo.add(JsonPatchOperation.add(operation.getFrom(), moved));
+                _add(target, path, moved, undo, shifted);
+                break;
+            case COPY:
+                JsonParsedField copied = _get(target, _parsePointer(operation.getFrom()), operation.getFrom());
+                _add(target, path, _copy(copied, ROOT_NAME), undo, shifted);
+                break;
+            case TEST:
+                JsonParsedField actual = _get(target, path, operation.getPath());
+                if (!JsonDiff.equalValues(actual, operation.getValue())) {
+                    throw new IllegalArgumentException("Invalid Json patch : the test of '" + operation.getPath() + "' failed");
+                }
+                break;
+        }
+    }
+
+    /**
+     * Add a value at a location, and append the inverse change to the undo list if any
+     */
+    private static void _add(JsonParsedObject target, String[] path, JsonParsedField value, List<JsonPatchOperation> undo,
+                             Map<List<JsonParsedField>, Integer> shifted) {
+        if (undo != null && path.length > 0 && "-".equals(path[path.length - 1])) {
+            // The end of a list is given its index, for the added item to be removed from there
+            String[] parent = Arrays.copyOf(path, path.length - 1);
+            JsonParsedField list = _get(target, parent, _pointer(parent, parent.length));
+            if (list.getKind() == JsonValueKind.LIST) {
+                path[path.length - 1] = Integer.toString(((List<?>)list.getValue()).size());
+            }
+        }
+
+        JsonParsedField replaced = _change(target, path, JsonPatchOperation.Op.ADD, value, shifted);
+        if (undo != null) {
+            String pointer = _pointer(path, path.length);
+            // Adding a field already contained by an object replaces it
+            undo.add((replaced != null) ? JsonPatchOperation.replace(pointer, replaced) : JsonPatchOperation.remove(pointer));
+        }
+    }
+
+    private static boolean _startsWith(String[] path, String[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (!path[i].equals(prefix[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Split a JSON Pointer into its unescaped tokens
+     */
+    private static String[] _parsePointer(String pointer) {
+        if (pointer.isEmpty()) return new String[0];
+        if (pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("Invalid path : '" + pointer + "' should start with '/'");
+        }
+
+        String[] tokens = pointer.substring(1).split("/", -1);
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            int tilde = token.indexOf('~');
+            if (tilde < 0) continue;
+
+            StringBuilder unescaped = new StringBuilder(token.length());
+            for (int j = 0; j < token.length(); j++) {
+                char c = token.charAt(j);
+                if (c != '~') {
+                    unescaped.append(c);
+                    continue;
+                }
+                char next = (j + 1 < token.length()) ? token.charAt(++j) : 0;
+                if (next == '0') unescaped.append('~');
+                else if (next == '1') unescaped.append('/');
+                else throw new IllegalArgumentException("Invalid path : '" + pointer + "' holds an invalid escape sequence");
+            }
+            tokens[i] = unescaped.toString();
+        }
+        return tokens;
+    }
+
+    /**
+     * Return the index of a list item given by a token, between 0 and max included
+     */
+    private static int _index(String token, int max) {
+        if ("-".equals(token)) return -1;
+        boolean valid = !token.isEmpty() && token.length() <= 10 && (token.length() == 1 || token.charAt(0) != '0');
+        for (int i = 0; valid && i < token.length(); i++) {
+            char c = token.charAt(i);
+            valid = c >= '0' && c <= '9';
+        }
+        long index = valid ? Long.parseLong(token) : -1;
+        if (index < 0 || index > max) {
+            throw new IllegalArgumentException("Invalid path : no list item at index '" + token + "'");
+        }
+        return (int)index;
+    }
+
+    /**
+     * Return a deep copy of a field, under another name
+     */
+    @SuppressWarnings("unchecked")
+    private static JsonParsedField _copy(JsonParsedField field, String name) {
+        switch (field.getKind()) {
+            case OBJECT:
+                JsonParsedObject object = new JsonParsedObject();
+                for (JsonParsedField it : ((JsonParsedObject)field.getValue()).getFieldsRef()) {
+                    object.addField(_copy(it, it.getName()));
+                }
+                return new JsonParsedField(name, JsonValueKind.OBJECT, object);
+            case LIST:
+                List<JsonParsedField> items = (List<JsonParsedField>)field.getValue();
+                // A list of numbers is read-only, so it can be shared
+                if (items instanceof JsonNumberList) return field.rename(name);
+                JsonParsedField[] copy = new JsonParsedField[items.size()];
+                for (int i = 0; i < copy.length; i++) {
+                    copy[i] = _copy(items.get(i), JsonListBuilder.indexName(i + 1));
+                }
+                return new JsonParsedField(name, JsonValueKind.LIST, new JsonFieldList(copy, copy.length));
+            default:
+                return field.rename(name);
+        }
+    }
+
+    /**
+     * Return the field at a location
+     */
+    @SuppressWarnings("unchecked")
+    private static JsonParsedField _get(JsonParsedObject root, String[] path, String pointer) {
+        JsonParsedField field = new JsonParsedField(ROOT_NAME, JsonValueKind.OBJECT, root);
+        for (String token : path) {
+            switch (field.getKind()) {
+                case OBJECT:
+                    field = ((JsonParsedObject)field.getValue()).getField(token);
+                    break;
+                case LIST:
+                    List<JsonParsedField> items = (List<JsonParsedField>)field.getValue();
+                    int index = _index(token, items.size() - 1);
+                    field = (index < 0) ? null : items.get(index);
+                    break;
+                default:
+                    field = null;
+            }
+            if (field == null) {
+                throw new IllegalArgumentException("Invalid path : '" + pointer + "' does not lead to a value");
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Add, remove or replace the value at a location.
+     * The objects and lists are changed in place, a read-only list of numbers being first turned into a list of fields, once.
+     * The items following an item added or removed keep their names until the end of the patch, when they are named again once.
+     *
+     * @return  The field removed or replaced, a field holding the former fields if the root has been replaced, or null if a field has been added
+     */
+    @SuppressWarnings("unchecked")
+    private static JsonParsedField _change(JsonParsedObject root, String[] path, JsonPatchOperation.Op change, JsonParsedField value,
+                                           Map<List<JsonParsedField>, Integer> shifted) {
+        if (path.length == 0) {
+            if (change == JsonPatchOperation.Op.REMOVE) {
+                throw new IllegalArgumentException("Invalid path : the root can not be removed");
+            }
+            if (value.getKind() != JsonValueKind.OBJECT) {
+                throw new IllegalArgumentException("Invalid Json patch : the root can only be replaced by an object");
+            }
+            // The root object is kept, and its fields are replaced
+            JsonParsedObject former = new JsonParsedObject();
+            for (JsonParsedField field : root.getFields()) {
+                root.removeField(field);
+                former.addField(field);
+            }
+            for (JsonParsedField field : ((JsonParsedObject)value.getValue()).getFieldsRef()) {
+                root.addField(field);
+            }
+            return new JsonParsedField(ROOT_NAME, JsonValueKind.OBJECT, former);
+        }
+
+        // Go down to the object or the list holding the location, keeping the field holding it and its own container
+        Object container = root;
+        Object parent = null;
+        JsonParsedField holder = null;
+        int holderIndex = -1;
+        for (int depth = 0; depth < path.length - 1; depth++) {
+            String token = path[depth];
+            JsonParsedField child;
+            int index = -1;
+            if (container instanceof JsonParsedObject) {
+                child = ((JsonParsedObject)container).getField(token);
+                if (child == null) {
+                    throw new IllegalArgumentException("Invalid path : no field '" + token + "' in '" + _pointer(path, depth) + "'");
+                }
+            }
+            else {
+                List<JsonParsedField> items = (List<JsonParsedField>)container;
+                index = _index(token, items.size() - 1);
+                if (index < 0) {
+                    throw new IllegalArgumentException("Invalid path : no list item at index '-' in '" + _pointer(path, depth) + "'");
+                }
+                child = items.get(index);
+            }
+
+            JsonValueKind kind = child.getKind();
+            if (kind != JsonValueKind.OBJECT && kind != JsonValueKind.LIST) {
+                throw new IllegalArgumentException("Invalid path : '" + _pointer(path, depth + 1) + "' is neither an object nor a list");
+            }
+            parent = container;
+            holder = child;
+            holderIndex = index;
+            container = child.getValue();
+        }
+
+        String token = path[path.length - 1];
+        if (container instanceof JsonParsedObject) {
+            JsonParsedObject object = (JsonParsedObject)container;
+            JsonParsedField field = object.getField(token);
+            if (field == null && change != JsonPatchOperation.Op.ADD) {
+                throw new IllegalArgumentException("Invalid path : no field '" + token + "' in '" + _pointer(path, path.length - 1) + "'");
+            }
+
+            if (change == JsonPatchOperation.Op.REMOVE) object.removeField(field);
+            else if (field == null) object.addField(value.rename(token));
+            else object.replaceField(field, value.rename(token));
+            return field;
+        }
+
+        List<JsonParsedField> items = (List<JsonParsedField>)container;
+        if (items instanceof JsonNumberList) items = _inflate(parent, holder, holderIndex);
+        int size = items.size();
+        int index = _index(token, (change == JsonPatchOperation.Op.ADD) ? size : size - 1);
+        if (index < 0 && change != JsonPatchOperation.Op.ADD) {
+            throw new IllegalArgumentException("Invalid path : no list item at index '-' in '" + _pointer(path, path.length - 1) + "'");
+        }
+
+        switch (change) {
+            case ADD:
+                if (index < 0) index = size;
+                items.add(index, value.rename(JsonListBuilder.indexName(index + 1)));
+                _shift(shifted, items, index + 1);
+                return null;
+            case REMOVE:
+                JsonParsedField removed = items.remove(index);
+                _shift(shifted, items, index);
+                return removed;
+            default:
+                return items.set(index, value.rename(JsonListBuilder.indexName(index + 1)));
+        }
+    }
+
+    /**
+     * Replace a read-only list of numbers by a list of fields, in the object or the list holding it
+     *
+     * @return  The list of fields
+     */
+    @SuppressWarnings("unchecked")
+    private static List<JsonParsedField> _inflate(Object parent, JsonParsedField holder, int holderIndex) {
+        List<JsonParsedField> numbers = (List<JsonParsedField>)holder.getValue();
+        JsonParsedField[] items = new JsonParsedField[numbers.size()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = numbers.get(i);
+        }
+        JsonFieldList list = new JsonFieldList(items, items.length);
+        JsonParsedField inflated = new JsonParsedField(holder.getName(), JsonValueKind.LIST, list);
+        if (parent instanceof JsonParsedObject) ((JsonParsedObject)parent).replaceField(holder, inflated);
+        else ((List<JsonParsedField>)parent).set(holderIndex, inflated);
+        return list;
+    }
+
+    /**
+     * Keep the index of the first item of a list to name again
+     */
+    private static void _shift(Map<List<JsonParsedField>, Integer> shifted, List<JsonParsedField> items, int from) {
+        if (from < items.size()) shifted.merge(items, from, Math::min);
+    }
+
+    /**
+     * Name the items of the lists after their new index, from the first item moved
+     */
+    private static void _renameItems(Map<List<JsonParsedField>, Integer> shifted) {
+        for (Map.Entry<List<JsonParsedField>, Integer> entry : shifted.entrySet()) {
+            List<JsonParsedField> items = entry.getKey();
+            for (int i = entry.getValue(); i < items.size(); i++) {
+                JsonParsedField item = items.get(i);
+                String name = JsonListBuilder.indexName(i + 1);
+                if (!item.getName().equals(name)) items.set(i, item.rename(name));
+            }
+        }
+    }
+
+    private static String _pointer(String[] path, int length) {
+        StringBuilder pointer = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            pointer.append('/').append(JsonDiff.escape(path[i]));
+        }
+        return pointer.toString();
+    }
+}
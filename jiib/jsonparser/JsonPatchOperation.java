@@ -0,0 +1,189 @@
+package jiib.jsonparser;
+
+/**
+ * An operation of a JSON Patch (RFC 6902), changing a tree at the location given by a JSON Pointer (RFC 6901).
+ * In the pointers, the items of a list are given by their index starting at 0, like "/rings/0".
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonPatch
+ */
+public final class JsonPatchOperation {
+
+    /**
+     * The kinds of operation
+     */
+    public enum Op {
+        ADD("add"),
+        REMOVE("remove"),
+        REPLACE("replace"),
+        MOVE("move"),
+        COPY("copy"),
+        TEST("test");
+
+        private final String _name;
+
+        Op(String name) {
+            _name = name;
+        }
+
+        /**
+         * Return the name of the operation, as written in a JSON Patch
+         *
+         * @return  The name of the operation
+         */
+        public String getName() {
+            return _name;
+        }
+
+        /**
+         * Return the operation of a given name
+         *
+         * @param   name    The name of the operation, as written in a JSON Patch
+         * @return  The operation
+         * @throws  IllegalArgumentException If no operation has this name
+         */
+        public static Op of(String name) {
+            for (Op op : values()) {
+                if (op._name.equals(name)) {
+                    return op;
+                }
+            }
+            throw new IllegalArgumentException("Invalid Json patch : unknown operation '" + name + "'");
+        }
+    }
+
+    private final Op _op;
+    private final String _path;
+    private final String _from;
+    private final JsonParsedField _value;
+
+    private JsonPatchOperation(Op op, String path, String from, JsonParsedField value) {
+        if (path == null) {
+            throw new IllegalArgumentException("Invalid Json patch : the path of an operation is missing");
+        }
+        _op = op;
+        _path = path;
+        _from = from;
+        _value = value;
+    }
+
+    /**
+     * Add a value, to an object or inserted in a list
+     *
+     * @param   path    The location of the value to add, the index "-" appending to a list
+     * @param   value   The field holding the value to add, whatever its name
+     * @return  The operation
+     */
+    public static JsonPatchOperation add(String path, JsonParsedField value) {
+        return new JsonPatchOperation(Op.ADD, path, null, _checkValue(value));
+    }
+
+    /**
+     * Remove a value
+     *
+     * @param   path    The location of the value to remove
+     * @return  The operation
+     */
+    public static JsonPatchOperation remove(String path) {
+        return new JsonPatchOperation(Op.REMOVE, path, null, null);
+    }
+
+    /**
+     * Replace an existing value
+     *
+     * @param   path    The location of the value to replace
+     * @param   value   The field holding the new value, whatever its name
+     * @return  The operation
+     */
+    public static JsonPatchOperation replace(String path, JsonParsedField value) {
+        return new JsonPatchOperation(Op.REPLACE, path, null, _checkValue(value));
+    }
+
+    /**
+     * Move a value to another location
+     *
+     * @param   from    The location of the value to move
+     * @param   path    The new location of the value
+     * @return  The operation
+     */
+    public static JsonPatchOperation move(String from, String path) {
+        return new JsonPatchOperation(Op.MOVE, path, _checkFrom(from), null);
+    }
+
+    /**
+     * Copy a value to another location
+     *
+     * @param   from    The location of the value to copy
+     * @param   path    The location of the copy
+     * @return  The operation
+     */
+    public static JsonPatchOperation copy(String from, String path) {
+        return new JsonPatchOperation(Op.COPY, path, _checkFrom(from), null);
+    }
+
+    /**
+     * Check that a location holds a value, the patch failing otherwise
+     *
+     * @param   path    The location of the value to check
+     * @param   value   The field holding the expected value, whatever its name
+     * @return  The operation
+     */
+    public static JsonPatchOperation test(String path, JsonParsedField value) {
+        return new JsonPatchOperation(Op.TEST, path, null, _checkValue(value));
+    }
+
+    private static JsonParsedField _checkValue(JsonParsedField value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid Json patch : the value of an operation is missing");
+        }
+        return value;
+    }
+
+    private static String _checkFrom(String from) {
+        if (from == null) {
+            throw new IllegalArgumentException("Invalid Json patch : the origin of an operation is missing");
+        }
+        return from;
+    }
+
+    /**
+     * Return the kind of this operation
+     *
+     * @return  The kind of this operation
+     */
+    public Op getOp() {
+        return _op;
+    }
+
+    /**
+     * Return the location changed by this operation
+     *
+     * @return  The JSON Pointer of the location
+     */
+    public String getPath() {
+        return _path;
+    }
+
+    /**
+     * Return the origin of a move or copy operation
+     *
+     * @return  The JSON Pointer of the origin, or null for the other operations
+     */
+    public String getFrom() {
+        return _from;
+    }
+
+    /**
+     * Return the value of an add, replace or test operation
+     *
+     * @return  The field holding the value, or null for the other operations
+     */
+    public JsonParsedField getValue() {
+        return _value;
+    }
+
+    @Override
+    public String toString() {
+        return _op.getName() + " " + ((_from != null) ? _from + " -> " : "") + _path;
+    }
+}
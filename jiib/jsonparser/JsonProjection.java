@@ -0,0 +1,122 @@
+package jiib.jsonparser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jiib.jsonparser.util.DottedPath;
+
+/**
+ * A set of paths selecting the fields to keep while parsing, the other ones being skipped without being decoded.
+ * A path selects a field with its whole value, and the objects and lists leading to it.
+ * List items are selected by their index, starting at 1, and the node "*" selects any field or list item.
+ * For example :
+ * <pre>
+ *  JsonProjection projection = JsonProjection.of("user.name", "user.address.city", "orders.*.id");
+ *  JsonParsedObject parsedResult = JsonParser.parse(jsonBody, projection);
+ * </pre>
+ * The kept list items are numbered from 1 again, in their original order.
+ * A projection is immutable once built, and can be shared between threads and parsings.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parse(String, JsonProjection)
+ */
+public final class JsonProjection {
+
+    /** The node selecting any field or list item */
+    public static final String ANY = "*";
+
+    // true if the whole value is kept, whatever the children
+    private boolean _whole = false;
+    private final Map<String, JsonProjection> _children = new HashMap<>();
+
+    private JsonProjection() {}
+
+    /**
+     * Build a projection from paths
+     *
+     * @param   paths   The paths of the fields to keep, nodes being separated by a dot
+     * @return  The projection
+     */
+    public static JsonProjection of(String... paths) {
+        List<DottedPath> dottedPaths = new ArrayList<>();
+        for (String path : paths) {
+            dottedPaths.add(new DottedPath(path));
+        }
+        return of(dottedPaths);
+    }
+
+    /**
+     * Build a projection from paths
+     *
+     * @param   paths   The paths of the fields to keep
+     * @return  The projection
+     */
+    public static JsonProjection of(Collection<DottedPath> paths) {
+        JsonProjection root = new JsonProjection();
+        for (DottedPath path : paths) {
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("Invalid path : a projection path cannot be empty");
+            }
+            JsonProjection node = root;
+            for (String name : path.getNodes()) {
+                if (node._whole) break;
+                node = node._children.computeIfAbsent(name, key -> new JsonProjection());
+            }
+            node._whole = true;
+            node._children.clear();
+        }
+        root._spreadAny();
+        return root;
+    }
+
+    /**
+     * Copy what "*" selects into each named sibling, so looking up a child only needs its own name
+     */
+    private void _spreadAny() {
+        JsonProjection any = _children.get(ANY);
+        if (any != null) {
+            for (Map.Entry<String, JsonProjection> child : _children.entrySet()) {
+                if (child.getValue() != any) child.getValue()._merge(any);
+            }
+        }
+        for (JsonProjection child : _children.values()) {
+            child._spreadAny();
+        }
+    }
+
+    private void _merge(JsonProjection other) {
+        if (_whole) return;
+        if (other._whole) {
+            _whole = true;
+            _children.clear();
+            return;
+        }
+        for (Map.Entry<String, JsonProjection> child : other._children.entrySet()) {
+            _children.computeIfAbsent(child.getKey(), key -> new JsonProjection())._merge(child.getValue());
+        }
+    }
+
+    /**
+     * Return the selection state of the whole value
+     *
+     * @return  true if the whole value is kept, or false if only some of its fields are
+     */
+    boolean isWhole() {
+        return _whole;
+    }
+
+    /**
+     * Return what is selected in a field or a list item
+     *
+     * @param   name    The name of the field, or the index of the list item
+     * @return  The projection of the field, or null if it is not selected
+     */
+    JsonProjection child(String name) {
+        if (_whole) return this;
+        JsonProjection child = _children.get(name);
+        return (child != null) ? child : _children.get(ANY);
+    }
+}
@@ -0,0 +1,546 @@
+package jiib.jsonparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * A pull parser, reading a Json expression one event at a time.
+ * The expression is read through a fixed-size buffer, so the memory used does not depend on the size of the expression,
+ * only on its depth and on the length of its biggest string.
+ * For example :
+ * <pre>
+ *  try (JsonReader reader = new JsonReader(inputStream)) {
+ *      JsonToken token;
+ *      while ((token = reader.next()) != JsonToken.END_DOCUMENT) {
+ *          if (token == JsonToken.FIELD_NAME &amp;&amp; reader.getString().equals("name")) {
+ *              reader.next();
+ *              String name = reader.getString();
+ *          }
+ *      }
+ *  }
+ * </pre>
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonToken
+ */
+public class JsonReader implements Closeable {
+
+    // Scopes of the stack
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final JsonCursor _cursor;
+    private int[] _scopes = new int[32];
+    private int _scopesSize = 1;
+
+    private JsonToken _token = null;
+    private String _string = null;
+    private JsonValueKind _numberKind = null;
+    private String _fieldName = "{none}";
+    // The field name expected by nextName, matched without building a String, or null
+    private String _expectedName = null;
+    // The meter the tokens are reported to, while a listener is registered, or null
+    private JsonParseMeter _meter = null;
+
+    /**
+     * Create a reader on a Json expression held in memory
+     *
+     * @param json  The Json expression to read
+     */
+    public JsonReader(String json) {
+        _cursor = new JsonCursor(json);
+        _scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Create a reader on a Json expression read from a Reader
+     *
+     * @param reader    The Reader to read the Json expression from
+     */
+    public JsonReader(Reader reader) {
+        this(reader, JsonCursor.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a reader on a Json expression read from a Reader, with a specific buffer size.
+     * The buffer size is also the maximal length of a number in the expression.
+     *
+     * @param reader        The Reader to read the Json expression from
+     * @param bufferSize    The size of the chars buffer
+     */
+    public JsonReader(Reader reader, int bufferSize) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("The buffer size should be at least 16 chars");
+        }
+        _cursor = new JsonCursor(reader, bufferSize);
+        _scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Create a reader on a Json expression read from an UTF-8 encoded InputStream
+     *
+     * @param in    The InputStream to read the Json expression from
+     */
+    public JsonReader(InputStream in) {
+        this(new JsonUtf8Reader(in));
+    }
+
+    /**
+     * Create a reader on an UTF-8 encoded Json expression held in a byte array.
+     * The bytes are decoded as they are read, without being copied into a String first.
+     *
+     * @param json  The UTF-8 encoded Json expression to read, which is not copied
+     */
+    public JsonReader(byte[] json) {
+        this(new JsonUtf8Reader(json, 0, json.length));
+    }
+
+    /**
+     * Create a reader on an UTF-8 encoded Json expression held in a ByteBuffer.
+     * The bytes between the position and the limit of the buffer are decoded as they are read,
+     * and the position of the buffer is left unchanged.
+     *
+     * @param json  The UTF-8 encoded Json expression to read, heap or direct
+     */
+    public JsonReader(ByteBuffer json) {
+        this(new JsonUtf8Reader(json));
+    }
+
+    /**
+     * Create a reader on an UTF-8 encoded file, decoded straight from its memory mapping.
+     * The file is never loaded whole, so it can be much bigger than the heap.
+     * It is closed when the reader is closed.
+     *
+     * @param   path    The file to read the Json expression from
+     * @throws  IOException If the file can not be opened
+     */
+    public JsonReader(Path path) throws IOException {
+        this(new JsonMappedFileReader(path));
+    }
+
+    /**
+     * Create a reader with no Json expression yet, to be reset before reading
+     */
+    JsonReader() {
+        _cursor = new JsonCursor(new char[0], 0);
+        _scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Start reading another Json expression held in memory, reusing the buffers of the reader
+     *
+     * @param json  The Json expression to read
+     */
+    void reset(String json) {
+        _cursor.reset(json);
+        _clear();
+    }
+
+    /**
+     * Start reading another Json expression read from a Reader, reusing the buffers of the reader
+     *
+     * @param reader    The Reader to read the Json expression from
+     */
+    void reset(Reader reader) {
+        _cursor.reset(reader);
+        _clear();
+    }
+
+    private void _clear() {
+        _scopesSize = 1;
+        _scopes[0] = EMPTY_DOCUMENT;
+        _token = null;
+        _string = null;
+        _numberKind = null;
+        _fieldName = "{none}";
+    }
+
+    /**
+     * Drop the Json expression being read, and the buffers grown beyond a given size
+     *
+     * @param maxSize   The size in chars above which a buffer is dropped
+     */
+    void release(int maxSize) {
+        _cursor.release(maxSize);
+        _clear();
+        if (_scopes.length > 32) _scopes = new int[32];
+    }
+
+    /**
+     * Use a table of canonical strings for the field names and short string values read,
+     * so those repeated between Json expressions are held by a single String instance.
+     *
+     * @param symbols   The table of canonical strings, or null to create a new String for each string read
+     * @see   jiib.jsonparser.JsonSymbolTable
+     */
+    public void setSymbolTable(JsonSymbolTable symbols) {
+        _cursor.setSymbolTable(symbols);
+    }
+
+    private void _push(int scope) {
+        if (_scopesSize == _scopes.length) {
+            int[] scopes = new int[_scopesSize * 2];
+            System.arraycopy(_scopes, 0, scopes, 0, _scopesSize);
+            _scopes = scopes;
+        }
+        _scopes[_scopesSize++] = scope;
+    }
+
+    private char _nextSignificantChar(String expected) {
+        if (!_cursor.skipWhitespace()) {
+            throw _cursor.error("Invalid Json expression : unexpected end of input, expecting " + expected);
+        }
+        return _cursor.peek();
+    }
+
+    private void _expect(char expected) {
+        char c = _nextSignificantChar("'" + expected + "'");
+        if (c != expected) {
+            throw _cursor.error("Invalid Json expression : expecting '" + expected + "' but found '" + c + "'");
+        }
+        _cursor.skip();
+    }
+
+    private JsonToken _readValue() {
+        char c = _nextSignificantChar("a value");
+        _string = null;
+        _numberKind = null;
+
+        switch (c) {
+            case '{':
+                _cursor.skip();
+                _push(EMPTY_OBJECT);
+                return JsonToken.START_OBJECT;
+            case '[':
+                _cursor.skip();
+                _push(EMPTY_ARRAY);
+                return JsonToken.START_ARRAY;
+            case '"':
+                _string = _cursor.readString(_fieldName);
+                return JsonToken.VALUE_STRING;
+            case 't':
+                _cursor.readLiteral("true", _fieldName);
+                return JsonToken.VALUE_TRUE;
+            case 'f':
+                _cursor.readLiteral("false", _fieldName);
+                return JsonToken.VALUE_FALSE;
+            case 'n':
+                _cursor.readLiteral("null", _fieldName);
+                return JsonToken.VALUE_NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    _numberKind = _cursor.readNumber(_fieldName);
+                    return JsonToken.VALUE_NUMBER;
+                }
+                throw _cursor.error("Invalid value for field : \"" + _fieldName + "\", unexpected char '" + c + "'");
+        }
+    }
+
+    /**
+     * Read the next event of the Json expression
+     *
+     * @return  The event read
+     */
+    public JsonToken next() {
+        if (_meter != null) return _meteredNext();
+        _token = _next();
+        return _token;
+    }
+
+    private JsonToken _meteredNext() {
+        long start = System.nanoTime();
+        _token = _next();
+        _meter.token(_token, System.nanoTime() - start, _scopesSize - 1);
+        return _token;
+    }
+
+    private JsonToken _next() {
+        int scope = _scopes[_scopesSize - 1];
+        char c;
+
+        switch (scope) {
+            case EMPTY_DOCUMENT:
+                _scopes[_scopesSize - 1] = NONEMPTY_DOCUMENT;
+                return _readValue();
+
+            case NONEMPTY_DOCUMENT:
+                if (_cursor.skipWhitespace()) {
+                    throw _cursor.error("Invalid Json expression : unexpected char '" + _cursor.peek() + "' after the root value");
+                }
+                return JsonToken.END_DOCUMENT;
+
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = _nextSignificantChar("a field or '}'");
+                if (c == '}') {
+                    _cursor.skip();
+                    _scopesSize--;
+                    return JsonToken.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw _cursor.error("Invalid Json expression : expecting ',' or '}' but found '" + c + "'");
+                    }
+                    _cursor.skip();
+                    c = _nextSignificantChar("a field");
+                }
+                if (c != '"') {
+                    throw _cursor.error("Invalid Json expression : expecting a field name but found '" + c + "'");
+                }
+                _string = (_expectedName != null && _cursor.readExpectedName(_expectedName)) ? _expectedName : _cursor.readName(_fieldName);
+                _fieldName = _string;
+                _scopes[_scopesSize - 1] = DANGLING_NAME;
+                return JsonToken.FIELD_NAME;
+
+            case DANGLING_NAME:
+                _expect(':');
+                _scopes[_scopesSize - 1] = NONEMPTY_OBJECT;
+                return _readValue();
+
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY:
+                if (!_nextItem(scope)) return JsonToken.END_ARRAY;
+                return _readValue();
+
+            default:
+                throw new IllegalStateException("Unknown scope : " + scope);
+        }
+    }
+
+    /**
+     * Move to the next item of the current list
+     *
+     * @return  true if the cursor is on the next item, or false if the list has ended
+     */
+    private boolean _nextItem(int scope) {
+        char c = _nextSignificantChar("a value or ']'");
+        if (c == ']') {
+            _cursor.skip();
+            _scopesSize--;
+            return false;
+        }
+        if (scope == NONEMPTY_ARRAY) {
+            if (c != ',') {
+                throw _cursor.error("Invalid Json expression : expecting ',' or ']' but found '" + c + "'");
+            }
+            _cursor.skip();
+        }
+        _scopes[_scopesSize - 1] = NONEMPTY_ARRAY;
+        return true;
+    }
+
+    /**
+     * Skip the next item of the current list without reading it, nor decoding its strings.
+     * Only the brackets of a skipped object or list are checked, like with skipValue.
+     *
+     * @return  true if an item has been skipped, or false if the list has ended, the current event being then its END_ARRAY
+     */
+    boolean skipItem() {
+        int scope = _scopes[_scopesSize - 1];
+        if (scope != EMPTY_ARRAY && scope != NONEMPTY_ARRAY) {
+            throw new IllegalStateException("The reader is not in a list");
+        }
+        if (!_nextItem(scope)) {
+            _token = JsonToken.END_ARRAY;
+            return false;
+        }
+        _nextSignificantChar("a value");
+        _cursor.skipValue(_fieldName);
+        _token = null;
+        return true;
+    }
+
+    /**
+     * Skip a whole value without reading it.
+     * If the current event is a FIELD_NAME, its value is skipped and the next event follows this value.
+     * If the current event is a START_OBJECT or a START_ARRAY, the reader moves to the matching END_OBJECT or END_ARRAY.
+     * Otherwise nothing is done.
+     * Only the brackets of the skipped objects and lists are checked, not their content.
+     */
+    public void skipValue() {
+        if (_token == JsonToken.FIELD_NAME) {
+            _expect(':');
+            _scopes[_scopesSize - 1] = NONEMPTY_OBJECT;
+            _nextSignificantChar("a value");
+            _cursor.skipValue(_fieldName);
+        }
+        else if (_token == JsonToken.START_OBJECT || _token == JsonToken.START_ARRAY) {
+            _cursor.skipContainer(_fieldName);
+            _scopesSize--;
+            _token = (_token == JsonToken.START_OBJECT) ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+        }
+    }
+
+    /**
+     * Read the next event, expecting a given field name.
+     * If the next event is a FIELD_NAME holding this name, the name is matched in place and the expected String is returned
+     * by getString, instead of a new one.
+     *
+     * @param   expected    The expected field name
+     * @return  The event read, which can be any event
+     */
+    JsonToken nextName(String expected) {
+        _expectedName = expected;
+        next();
+        _expectedName = null;
+        return _token;
+    }
+
+    /**
+     * Report the tokens read to a meter
+     *
+     * @param meter The meter, or null to stop reporting
+     */
+    void setMeter(JsonParseMeter meter) {
+        _meter = meter;
+    }
+
+    /**
+     * Return the count of chars read since the start of the expression
+     *
+     * @return  The count of chars read
+     */
+    long charsRead() {
+        return _cursor.charsRead();
+    }
+
+    /**
+     * Return the last event read
+     *
+     * @return  The last event read, or null if next has never been called
+     */
+    public JsonToken getToken() {
+        return _token;
+    }
+
+    /**
+     * Return the text of the last event read, for a FIELD_NAME or a VALUE_STRING.
+     *
+     * @return  The name of the field, or the string value
+     */
+    public String getString() {
+        if (_token != JsonToken.FIELD_NAME && _token != JsonToken.VALUE_STRING) {
+            throw new IllegalStateException("The current event is not a string but " + _token);
+        }
+        return _string;
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_NUMBER.
+     * The number is an Integer, a Long, a BigInteger, a Double or a BigDecimal, depending on its size and its format.
+     *
+     * @return  The number value
+     */
+    public Number getNumber() {
+        return _checkNumber(null).numberValue();
+    }
+
+    /**
+     * Return the kind of the last event read, for a VALUE_NUMBER.
+     *
+     * @return  INTEGER, LONG, BIG_INTEGER, DOUBLE or BIG_DECIMAL
+     */
+    public JsonValueKind getNumberKind() {
+        _checkNumber(null);
+        return _numberKind;
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_NUMBER of kind INTEGER, without boxing.
+     *
+     * @return  The number value
+     */
+    public int getInt() {
+        return (int)_checkNumber(JsonValueKind.INTEGER).numberBits();
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_NUMBER of kind INTEGER or LONG, without boxing.
+     *
+     * @return  The number value
+     */
+    public long getLong() {
+        if (_numberKind == JsonValueKind.INTEGER) return _checkNumber(null).numberBits();
+        return _checkNumber(JsonValueKind.LONG).numberBits();
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_NUMBER, as a double without boxing.
+     *
+     * @return  The number value, converted to a double if needed
+     */
+    public double getDouble() {
+        JsonCursor cursor = _checkNumber(null);
+        switch (_numberKind) {
+            case DOUBLE:
+                return Double.longBitsToDouble(cursor.numberBits());
+            case INTEGER:
+            case LONG:
+                return cursor.numberBits();
+            default:
+                return cursor.numberValue().doubleValue();
+        }
+    }
+
+    long getNumberBits() {
+        return _checkNumber(null).numberBits();
+    }
+
+    private JsonCursor _checkNumber(JsonValueKind expected) {
+        if (_token != JsonToken.VALUE_NUMBER) {
+            throw new IllegalStateException("The current event is not a number but " + _token);
+        }
+        if (expected != null && _numberKind != expected) {
+            throw new IllegalStateException("The current number is " + _numberKind.getValueType() + ", not " + expected.getValueType());
+        }
+        return _cursor;
+    }
+
+    /**
+     * Return the value of the last event read, for a VALUE_TRUE or a VALUE_FALSE.
+     *
+     * @return  The boolean value
+     */
+    public boolean getBoolean() {
+        if (_token != JsonToken.VALUE_TRUE && _token != JsonToken.VALUE_FALSE) {
+            throw new IllegalStateException("The current event is not a boolean but " + _token);
+        }
+        return _token == JsonToken.VALUE_TRUE;
+    }
+
+    /**
+     * Build an exception locating an error at the current position
+     *
+     * @param   message The description of the error
+     * @return  The exception to be thrown
+     */
+    IllegalArgumentException error(String message) {
+        return _cursor.error(message);
+    }
+
+    /**
+     * Return the count of objects and lists currently opened
+     *
+     * @return  The current depth in the Json expression
+     */
+    public int getDepth() {
+        return _scopesSize - 1;
+    }
+
+    /**
+     * Close the underlying Reader, if any
+     */
+    @Override
+    public void close() {
+        _cursor.close();
+    }
+}
@@ -0,0 +1,158 @@
+package jiib.jsonparser;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Write trees of JsonParsedObject as Json expressions, straight into an Appendable.
+ * Nothing is built in memory but the output itself, so a tree can be written to a file or a socket as it is walked.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedObject#writeJson(Appendable)
+ */
+final class JsonSerializer {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private JsonSerializer() {}
+
+    /**
+     * Write an object and its tree structure
+     *
+     * @param   object  The object to write
+     * @param   out     The destination of the Json expression
+     * @throws  IOException If the destination fails
+     */
+    static void writeObject(JsonParsedObject object, Appendable out) throws IOException {
+        out.append('{');
+        writeFields(object.getFieldsRef(), false, out);
+        out.append('}');
+    }
+
+    /**
+     * Write a collection of fields, separated by commas
+     *
+     * @param   fields          The fields to write
+     * @param   parentIsList    true to write only the values, as list items, or false to write the fields names too
+     * @param   out             The destination of the Json expression
+     * @throws  IOException If the destination fails
+     */
+    @SuppressWarnings("unchecked")
+    static void writeFields(List<JsonParsedField> fields, boolean parentIsList, Appendable out) throws IOException {
+        boolean first = true;
+        for (JsonParsedField field : fields) {
+            if (!first) out.append(',');
+            first = false;
+
+            if (!parentIsList) {
+                writeString(field.getName(), out);
+                out.append(':');
+            }
+
+            switch (field.getKind()) {
+                case OBJECT:
+                    writeObject((JsonParsedObject)field.getValue(), out);
+                    break;
+                case LIST:
+                    out.append('[');
+                    List<JsonParsedField> items = (List<JsonParsedField>)field.getValue();
+                    if (items instanceof JsonNumberList) {
+                        _writeNumbers((JsonNumberList)items, out);
+                    }
+                    else writeFields(items, true, out);
+                    out.append(']');
+                    break;
+                case STRING:
+                    writeString((String)field.getValue(), out);
+                    break;
+                case INTEGER:
+                case LONG:
+                case DOUBLE:
+                case BOOLEAN:
+                    writePrimitive(field.getKind(), field.bits(), out);
+                    break;
+                case BIG_INTEGER:
+                case BIG_DECIMAL:
+                    out.append(field.getValue().toString());
+                    break;
+                case NULL:
+                    out.append("null");
+                    break;
+                default:
+                    throw new ClassCastException("Unknow value type : " + field.getValueType());
+            }
+        }
+    }
+
+    /**
+     * Write the items of a list of numbers, without creating a JsonParsedField for each of them
+     */
+    private static void _writeNumbers(JsonNumberList numbers, Appendable out) throws IOException {
+        int size = numbers.size();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) out.append(',');
+            writePrimitive(numbers.kind(i), numbers.bits(i), out);
+        }
+    }
+
+    /**
+     * Write an Integer, Long, Double or Boolean value, without boxing when writing into a StringBuilder, a char buffer or UTF-8 bytes
+     *
+     * @param   kind    The kind of the value
+     * @param   bits    The value, as stored by JsonParsedField
+     * @param   out     The destination of the Json expression
+     * @throws  IOException If the destination fails
+     */
+    static void writePrimitive(JsonValueKind kind, long bits, Appendable out) throws IOException {
+        if (kind == JsonValueKind.BOOLEAN) {
+            out.append(bits != 0 ? "true" : "false");
+        }
+        else if (out instanceof StringBuilder) {
+            if (kind == JsonValueKind.DOUBLE) ((StringBuilder)out).append(Double.longBitsToDouble(bits));
+            else ((StringBuilder)out).append(bits);
+        }
+        else if (out instanceof JsonUtf8Output && kind != JsonValueKind.DOUBLE) {
+            ((JsonUtf8Output)out).appendLong(bits);
+        }
+        else if (out instanceof JsonCharOutput && kind != JsonValueKind.DOUBLE) {
+            ((JsonCharOutput)out).appendLong(bits);
+        }
+        else {
+            out.append(kind == JsonValueKind.DOUBLE ? Double.toString(Double.longBitsToDouble(bits)) : Long.toString(bits));
+        }
+    }
+
+    /**
+     * Write a quoted string, escaping the quotes, the backslashes and the control chars
+     *
+     * @param   value   The string to write
+     * @param   out     The destination of the Json expression
+     * @throws  IOException If the destination fails
+     */
+    static void writeString(String value, Appendable out) throws IOException {
+        out.append('"');
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+
+            // Write the chars before the one to escape at once
+            out.append(value, start, i);
+            switch (c) {
+                case '"':  out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                case '\b': out.append("\\b"); break;
+                case '\f': out.append("\\f"); break;
+                default:
+                    out.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.append(value, start, length);
+        out.append('"');
+    }
+}
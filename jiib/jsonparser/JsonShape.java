@@ -0,0 +1,205 @@
+package jiib.jsonparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The shape of a family of Json objects : the names of their fields, in their order, and the kinds of their values.
+ * A shape is learned from sample objects, then given to the parser to read the objects of the same family faster :
+ * the field names are matched in place against the expected ones, without building a String nor checking for duplicates,
+ * and the parsed objects share the index of their field names with the shape.
+ * An object which does not match the shape is still parsed, as usual, from the first field which does not match.
+ * For example :
+ * <pre>
+ *  JsonShape shape = JsonShape.learn(List.of(JsonParser.parse(firstMessage)));
+ *  JsonParser parser = new JsonParser();
+ *  for (String message : messages) {
+ *      JsonParsedObject parsedResult = parser.read(message, shape);
+ *  }
+ * </pre>
+ * A shape is immutable, and can be shared between threads.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parse(String, JsonShape)
+ */
+public final class JsonShape {
+
+    private final String[] _names;
+    // The kind of each value, or null when it differs from a sample to the other
+    private final JsonValueKind[] _kinds;
+    // The shape of the objects held by each field, directly or as the items of a list, or null
+    private final JsonShape[] _children;
+    // The positions of the fields, for the shapes with many fields
+    private final HashMap<String, Integer> _positions;
+
+    private JsonShape(String[] names, JsonValueKind[] kinds, JsonShape[] children) {
+        _names = names;
+        _kinds = kinds;
+        _children = children;
+        if (names.length > JsonFieldStore.INDEX_THRESHOLD) {
+            _positions = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                _positions.put(names[i], i);
+            }
+        }
+        else _positions = null;
+    }
+
+    /**
+     * Learn the shape shared by some sample objects.
+     * The samples must have the same fields, in the same order. The kinds of values which differ from a sample
+     * to the other are left open, and so are the nested objects which do not share a shape.
+     *
+     * @param   samples The sample objects
+     * @return  The shape of the samples
+     * @throws  IllegalArgumentException If there is no sample, or if the samples do not have the same fields in the same order
+     */
+    public static JsonShape learn(Collection<JsonParsedObject> samples) {
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("A shape can not be learned without samples");
+        }
+        JsonShape shape = _learn(new ArrayList<>(samples));
+        if (shape == null) {
+            throw new IllegalArgumentException("The samples do not have the same fields, in the same order");
+        }
+        return shape;
+    }
+
+    /**
+     * Learn the shape of a single sample object
+     *
+     * @param   sample  The sample object
+     * @return  The shape of the sample
+     */
+    public static JsonShape of(JsonParsedObject sample) {
+        return learn(List.of(sample));
+    }
+
+    /**
+     * Learn the shape shared by some objects
+     *
+     * @return  The shape, or null if the objects do not have the same fields in the same order
+     */
+    @SuppressWarnings("unchecked")
+    private static JsonShape _learn(List<JsonParsedObject> samples) {
+        List<JsonParsedField> first = samples.get(0).getFieldsRef();
+        int size = first.size();
+        String[] names = new String[size];
+        JsonValueKind[] kinds = new JsonValueKind[size];
+        JsonShape[] children = new JsonShape[size];
+
+        for (int i = 0; i < size; i++) {
+            String name = first.get(i).getName();
+            names[i] = name;
+
+            JsonValueKind kind = first.get(i).getKind();
+            List<JsonParsedObject> nested = new ArrayList<>();
+            for (JsonParsedObject sample : samples) {
+                List<JsonParsedField> fields = sample.getFieldsRef();
+                if (fields.size() != size || !fields.get(i).getName().equals(name)) return null;
+
+                JsonParsedField field = fields.get(i);
+                if (field.getKind() != kind) kind = null;
+                // The nested objects are gathered, to learn their own shape
+                if (field.getKind() == JsonValueKind.OBJECT) {
+                    nested.add((JsonParsedObject)field.getValue());
+                }
+                else if (field.getKind() == JsonValueKind.LIST) {
+                    for (JsonParsedField item : (List<JsonParsedField>)field.getValue()) {
+                        if (item.getKind() == JsonValueKind.OBJECT) nested.add((JsonParsedObject)item.getValue());
+                    }
+                }
+            }
+            kinds[i] = kind;
+            if (!nested.isEmpty() && (kind == JsonValueKind.OBJECT || kind == JsonValueKind.LIST)) {
+                children[i] = _learn(nested);
+            }
+        }
+        return new JsonShape(names, kinds, children);
+    }
+
+    /**
+     * Return the count of fields of the shape
+     *
+     * @return  The count of fields
+     */
+    public int getFieldCount() {
+        return _names.length;
+    }
+
+    /**
+     * Return the name of a field of the shape
+     *
+     * @param   index   The position of the field, starting at 0
+     * @return  The name of the field
+     */
+    public String getFieldName(int index) {
+        return _names[index];
+    }
+
+    /**
+     * Return the kind of value of a field of the shape
+     *
+     * @param   index   The position of the field, starting at 0
+     * @return  The kind of value, or null if it differs from a sample to the other
+     */
+    public JsonValueKind getFieldKind(int index) {
+        return _kinds[index];
+    }
+
+    /**
+     * Return the shape of the objects held by a field, as its value or as the items of its list
+     *
+     * @param   index   The position of the field, starting at 0
+     * @return  The shape of the nested objects, or null
+     */
+    JsonShape child(int index) {
+        return _children[index];
+    }
+
+    /**
+     * Return the position of a field
+     *
+     * @param   name    The name of the field
+     * @return  The position of the field, or -1 if the shape has no such field
+     */
+    int indexOf(String name) {
+        if (_positions != null) {
+            Integer position = _positions.get(name);
+            return (position == null) ? -1 : position;
+        }
+        for (int i = 0; i < _names.length; i++) {
+            if (_names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder res = new StringBuilder("{");
+        for (int i = 0; i < _names.length; i++) {
+            if (i > 0) res.append(", ");
+            res.append(_names[i]).append(": ");
+            if (_children[i] != null && _kinds[i] == JsonValueKind.LIST) res.append('[').append(_children[i]).append(']');
+            else if (_children[i] != null) res.append(_children[i]);
+            else res.append((_kinds[i] == null) ? "?" : _kinds[i].getValueType());
+        }
+        return res.append('}').toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof JsonShape)) return false;
+        JsonShape other = (JsonShape)obj;
+        return Arrays.equals(_names, other._names) && Arrays.equals(_kinds, other._kinds) && Arrays.equals(_children, other._children);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(_names) + Arrays.hashCode(_kinds);
+    }
+}
@@ -0,0 +1,111 @@
+package jiib.jsonparser;
+
+import java.util.Arrays;
+
+/**
+ * A bounded table of canonical strings, shared between parsings so that the field names and the short string values
+ * repeated from one Json expression to the other are held by a single String instance.
+ * The chars read are looked up in the table before any String is created, so a known string costs no allocation.
+ * For example :
+ * <pre>
+ *  JsonSymbolTable symbols = new JsonSymbolTable();
+ *  for (String jsonBody : jsonBodies) {
+ *      cache.add(JsonParser.parse(jsonBody, symbols));
+ *  }
+ * </pre>
+ * The table is a fixed array of slots, each holding the last string whose hash fell into it, so it never grows.
+ * It can be shared between threads without locking : a race only means a string is not deduplicated.
+ * The strings are never interned in the JVM, so the distinct names of untrusted inputs do not pile up out of the table.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parse(String, JsonSymbolTable)
+ */
+public final class JsonSymbolTable {
+
+    /** The default number of slots */
+    public static final int DEFAULT_CAPACITY = 4096;
+    /** The longest strings kept in the table, longer ones being rarely repeated */
+    public static final int MAX_LENGTH = 64;
+
+    private final String[] _symbols;
+    private final int _mask;
+
+    /**
+     * Create a table of DEFAULT_CAPACITY slots
+     */
+    public JsonSymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a table
+     *
+     * @param capacity  The number of slots, rounded up to a power of 2
+     */
+    public JsonSymbolTable(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity should be at least 1");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        _symbols = new String[size];
+        _mask = size - 1;
+    }
+
+    private static int _slot(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Return the canonical string of some chars, creating it if needed
+     *
+     * @param   buffer  The chars
+     * @param   start   The position of the first char
+     * @param   length  The number of chars
+     * @return  The canonical string
+     */
+    String lookup(char[] buffer, int start, int length) {
+        if (length > MAX_LENGTH) return new String(buffer, start, length);
+
+        // Same hash as String.hashCode, so the strings created are found back by canonical
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        int slot = _slot(hash, _mask);
+        String symbol = _symbols[slot];
+        if (symbol != null && symbol.length() == length) {
+            int i = 0;
+            while (i < length && symbol.charAt(i) == buffer[start + i]) i++;
+            if (i == length) return symbol;
+        }
+
+        symbol = new String(buffer, start, length);
+        _symbols[slot] = symbol;
+        return symbol;
+    }
+
+    /**
+     * Return the canonical string equal to a string
+     *
+     * @param   value   The string, already built
+     * @return  The canonical string
+     */
+    String canonical(String value) {
+        if (value.length() > MAX_LENGTH) return value;
+
+        int slot = _slot(value.hashCode(), _mask);
+        String symbol = _symbols[slot];
+        if (value.equals(symbol)) return symbol;
+
+        _symbols[slot] = value;
+        return value;
+    }
+
+    /**
+     * Empty the table
+     */
+    public void clear() {
+        Arrays.fill(_symbols, null);
+    }
+}
@@ -0,0 +1,35 @@
+package jiib.jsonparser;
+
+/**
+ * The events read one at a time by a JsonReader or a JsonFeeder
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonReader
+ * @see     jiib.jsonparser.JsonFeeder
+ */
+public enum JsonToken {
+    /** The opening of an object : '{' */
+    START_OBJECT,
+    /** The closing of an object : '}' */
+    END_OBJECT,
+    /** The opening of a list : '[' */
+    START_ARRAY,
+    /** The closing of a list : ']' */
+    END_ARRAY,
+    /** The name of a field in an object, its value being the next event */
+    FIELD_NAME,
+    /** A string value */
+    VALUE_STRING,
+    /** A number value */
+    VALUE_NUMBER,
+    /** The boolean value true */
+    VALUE_TRUE,
+    /** The boolean value false */
+    VALUE_FALSE,
+    /** The null value */
+    VALUE_NULL,
+    /** The end of the Json expression, returned again on each next call */
+    END_DOCUMENT,
+    /** No event can be read until more input is fed, only returned by a JsonFeeder */
+    NOT_AVAILABLE
+}
@@ -0,0 +1,459 @@
+package jiib.jsonparser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build a tree of JsonParsedObject from a sequence of parsing events.
+ * List items are named after their index in the list, starting at "1".
+ * A builder can build several trees one after the other, reusing its stack and its list builders.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedObject
+ */
+final class JsonTreeBuilder {
+
+    private JsonParsedObject _root = null;
+    // Each element is the JsonParsedObject or the JsonListBuilder currently opened
+    private Object[] _containers = new Object[16];
+    private int _depth = 0;
+    // The list builders, one per depth, reused from a list to the next
+    private JsonListBuilder[] _listBuilders = new JsonListBuilder[16];
+    private String _currentFieldName = "{none}";
+    // The parent of the values built alone, holding a single field at a time
+    private JsonParsedObject _holder = null;
+
+    private void _push(Object container) {
+        if (_depth == _containers.length) {
+            Object[] containers = new Object[_depth * 2];
+            System.arraycopy(_containers, 0, containers, 0, _depth);
+            _containers = containers;
+        }
+        _containers[_depth++] = container;
+    }
+
+    private void _add(JsonParsedField field) {
+        Object parent = _containers[_depth - 1];
+        if (parent instanceof JsonListBuilder) {
+            ((JsonListBuilder)parent).add(field);
+        }
+        else {
+            ((JsonParsedObject)parent).addField(field);
+        }
+    }
+
+    private String _nextFieldName() {
+        Object parent = _containers[_depth - 1];
+        if (parent instanceof JsonListBuilder) {
+            _currentFieldName = ((JsonListBuilder)parent).nextName();
+        }
+        return _currentFieldName;
+    }
+
+    /**
+     * Drop the tree being built, to build a new one
+     */
+    void reset() {
+        while (_depth > 0) {
+            _containers[--_depth] = null;
+        }
+        _root = null;
+        _currentFieldName = "{none}";
+    }
+
+    /**
+     * Open a new object, as the root object or as the value of the current field
+     */
+    void startObject() {
+        JsonParsedObject value = new JsonParsedObject();
+        if (_depth == 0) {
+            _root = value;
+        }
+        else {
+            _add(new JsonParsedField(_nextFieldName(), JsonValueKind.OBJECT, value));
+        }
+        _push(value);
+    }
+
+    /**
+     * Open a new list, as the value of the current field.
+     * The list is added to its parent once closed, when its items are known.
+     */
+    void startList() {
+        JsonListBuilder list = _listBuilder();
+        list.reset(_nextFieldName());
+        _push(list);
+    }
+
+    /**
+     * Return the list builder of the current depth
+     */
+    private JsonListBuilder _listBuilder() {
+        if (_depth == _listBuilders.length) {
+            JsonListBuilder[] listBuilders = new JsonListBuilder[_depth * 2];
+            System.arraycopy(_listBuilders, 0, listBuilders, 0, _depth);
+            _listBuilders = listBuilders;
+        }
+        JsonListBuilder list = _listBuilders[_depth];
+        if (list == null) {
+            list = new JsonListBuilder();
+            _listBuilders[_depth] = list;
+        }
+        return list;
+    }
+
+    /**
+     * Close the current object or list
+     */
+    void end() {
+        Object closed = _containers[--_depth];
+        _containers[_depth] = null;
+        if (closed instanceof JsonListBuilder) {
+            JsonListBuilder list = (JsonListBuilder)closed;
+            _add(new JsonParsedField(list.getName(), JsonValueKind.LIST, list.build()));
+        }
+    }
+
+    /**
+     * Set the name of the next field
+     *
+     * @param name  The name of the next field
+     */
+    void name(String name) {
+        _currentFieldName = name;
+    }
+
+    /**
+     * Add a value, as the value of the current field
+     *
+     * @param kind  The kind of the value
+     * @param value The value
+     */
+    void value(JsonValueKind kind, Object value) {
+        _add(new JsonParsedField(_nextFieldName(), kind, value));
+    }
+
+    /**
+     * Add an Integer, Long, Double or Boolean value, as the value of the current field, without boxing
+     *
+     * @param kind  The kind of the value
+     * @param bits  The value, as stored by JsonParsedField
+     */
+    void primitive(JsonValueKind kind, long bits) {
+        Object parent = _containers[_depth - 1];
+        if (parent instanceof JsonListBuilder) {
+            ((JsonListBuilder)parent).addPrimitive(kind, bits);
+        }
+        else {
+            ((JsonParsedObject)parent).addField(new JsonParsedField(_currentFieldName, kind, bits));
+        }
+    }
+
+    /**
+     * Return the completion state of the tree
+     *
+     * @return  true if the root object has been closed, or false
+     */
+    boolean isComplete() {
+        return _root != null && _depth == 0;
+    }
+
+    /**
+     * Return the root object of the tree
+     *
+     * @return  The root object of the tree, or null if no object has been opened
+     */
+    JsonParsedObject getRoot() {
+        return _root;
+    }
+
+    /**
+     * Build the tree of the value following in a reader
+     *
+     * @param   reader  The reader, positioned before the root object
+     * @return  The root object of the tree
+     */
+    static JsonParsedObject build(JsonReader reader) {
+        return new JsonTreeBuilder().buildRoot(reader, (JsonProjection)null);
+    }
+
+    /**
+     * Build the tree of the value following in a reader, keeping only the fields selected by a projection.
+     * The fields not selected are skipped by the reader without being decoded.
+     *
+     * @param   reader      The reader, positioned before the root object
+     * @param   projection  The fields to keep
+     * @return  The root object of the tree
+     */
+    static JsonParsedObject build(JsonReader reader, JsonProjection projection) {
+        return new JsonTreeBuilder().buildRoot(reader, projection);
+    }
+
+    /**
+     * Build the tree of the object the reader is on
+     *
+     * @param   reader  The reader, whose last event is the START_OBJECT of the object
+     * @return  The object, the reader being on its END_OBJECT event
+     */
+    static JsonParsedObject buildObject(JsonReader reader) {
+        JsonTreeBuilder builder = new JsonTreeBuilder();
+        builder.startObject();
+        while (!builder.isComplete()) {
+            builder._read(reader, reader.next());
+        }
+        return builder.getRoot();
+    }
+
+    /**
+     * Build a value of any kind alone, as a field, dropping any tree previously built
+     *
+     * @param   reader  The reader, whose last event is the first one of the value
+     * @param   token   The first event of the value
+     * @param   name    The name of the field holding the value
+     * @return  The field holding the value, the reader being on the last event of the value
+     */
+    JsonParsedField buildField(JsonReader reader, JsonToken token, String name) {
+        reset();
+        if (_holder == null) _holder = new JsonParsedObject();
+        _push(_holder);
+        _currentFieldName = name;
+        _read(reader, token);
+        while (_depth > 1) {
+            _read(reader, reader.next());
+        }
+        _containers[--_depth] = null;
+
+        JsonParsedField field = _holder.getField(0);
+        _holder.removeField(field);
+        return field;
+    }
+
+    /**
+     * Build the tree of the value following in a reader, dropping any tree previously built
+     *
+     * @param   reader      The reader, positioned before the root object
+     * @param   projection  The fields to keep, or null to keep them all
+     * @return  The root object of the tree
+     */
+    JsonParsedObject buildRoot(JsonReader reader, JsonProjection projection) {
+        _startRoot(reader);
+        startObject();
+        if (projection == null || projection.isWhole()) {
+            while (!isComplete()) {
+                _read(reader, reader.next());
+            }
+        }
+        else _readProjected(reader, projection);
+
+        // The builder does not keep the tree, once built
+        JsonParsedObject root = _root;
+        _root = null;
+        return root;
+    }
+
+    /**
+     * Build the tree of the value following in a reader, reading the objects of a shape through their expected fields.
+     * The objects which do not match their shape are read as usual, from their first field which does not match.
+     *
+     * @param   reader  The reader, positioned before the root object
+     * @param   shape   The shape of the root object
+     * @return  The root object of the tree
+     */
+    JsonParsedObject buildRoot(JsonReader reader, JsonShape shape) {
+        _startRoot(reader);
+        return _readShaped(reader, shape);
+    }
+
+    private void _startRoot(JsonReader reader) {
+        reset();
+        if (reader.next() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Invalid Json expression : Whole expression should be wrapped between opening and closing balises");
+        }
+    }
+
+    /**
+     * Read the fields of the object just opened, expecting those of a shape, until the object ends
+     */
+    private JsonParsedObject _readShaped(JsonReader reader, JsonShape shape) {
+        int size = shape.getFieldCount();
+        ArrayList<JsonParsedField> fields = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = shape.getFieldName(i);
+            JsonToken token = reader.nextName(name);
+            // The name is the expected String when matched in place, or an equal one when read across two buffers
+            if (token != JsonToken.FIELD_NAME || (reader.getString() != name && !reader.getString().equals(name))) {
+                return _readUnshaped(reader, token, fields);
+            }
+            fields.add(_readShapedValue(reader, reader.next(), name, shape.child(i)));
+        }
+
+        JsonToken token = reader.next();
+        if (token != JsonToken.END_OBJECT) {
+            return _readUnshaped(reader, token, fields);
+        }
+        return new JsonParsedObject(new JsonFieldStore(shape, fields));
+    }
+
+    /**
+     * Read the rest of an object which does not match its shape, from the event which does not match
+     */
+    private JsonParsedObject _readUnshaped(JsonReader reader, JsonToken token, List<JsonParsedField> fields) {
+        JsonParsedObject object = new JsonParsedObject();
+        for (JsonParsedField field : fields) {
+            object.addField(field);
+        }
+        int depth = _depth;
+        _push(object);
+        _read(reader, token);
+        while (_depth > depth) {
+            _read(reader, reader.next());
+        }
+        return object;
+    }
+
+    /**
+     * Read the value of a field of a shape, its nested objects being read through their own shape if any
+     */
+    private JsonParsedField _readShapedValue(JsonReader reader, JsonToken token, String name, JsonShape child) {
+        int depth = _depth;
+        switch (token) {
+            case START_OBJECT:
+                if (child != null) {
+                    return new JsonParsedField(name, JsonValueKind.OBJECT, _readShaped(reader, child));
+                }
+                JsonParsedObject object = new JsonParsedObject();
+                _push(object);
+                while (_depth > depth) {
+                    _read(reader, reader.next());
+                }
+                return new JsonParsedField(name, JsonValueKind.OBJECT, object);
+            case START_ARRAY:
+                JsonListBuilder list = _listBuilder();
+                list.reset(name);
+                _push(list);
+                for (JsonToken item = reader.next(); item != JsonToken.END_ARRAY; item = reader.next()) {
+                    if (item == JsonToken.START_OBJECT && child != null) {
+                        list.add(new JsonParsedField(list.nextName(), JsonValueKind.OBJECT, _readShaped(reader, child)));
+                        continue;
+                    }
+                    _read(reader, item);
+                    while (_depth > depth + 1) {
+                        _read(reader, reader.next());
+                    }
+                }
+                _containers[--_depth] = null;
+                return new JsonParsedField(name, JsonValueKind.LIST, list.build());
+            case VALUE_STRING:
+                return new JsonParsedField(name, JsonValueKind.STRING, reader.getString());
+            case VALUE_NUMBER:
+                JsonValueKind kind = reader.getNumberKind();
+                if (kind == JsonValueKind.BIG_INTEGER || kind == JsonValueKind.BIG_DECIMAL) {
+                    return new JsonParsedField(name, kind, reader.getNumber());
+                }
+                return new JsonParsedField(name, kind, reader.getNumberBits());
+            case VALUE_TRUE:
+                return new JsonParsedField(name, JsonValueKind.BOOLEAN, 1);
+            case VALUE_FALSE:
+                return new JsonParsedField(name, JsonValueKind.BOOLEAN, 0);
+            case VALUE_NULL:
+                return new JsonParsedField(name, JsonValueKind.NULL, null);
+            default:
+                throw new IllegalStateException("Unexpected event : " + token);
+        }
+    }
+
+    /**
+     * Read the content of the container just opened, keeping only the fields selected by a projection, until the container ends
+     */
+    private void _readProjected(JsonReader reader, JsonProjection projection) {
+        boolean isList = _containers[_depth - 1] instanceof JsonListBuilder;
+        int index = 0;
+        while (true) {
+            JsonProjection selected;
+            JsonToken token;
+            if (isList) {
+                selected = projection.child(JsonListBuilder.indexName(++index));
+                if (selected == null) {
+                    if (!reader.skipItem()) break;
+                    continue;
+                }
+                token = reader.next();
+                if (token == JsonToken.END_ARRAY) break;
+            }
+            else {
+                if (reader.next() == JsonToken.END_OBJECT) break;
+                String name = reader.getString();
+                selected = projection.child(name);
+                if (selected == null) {
+                    reader.skipValue();
+                    continue;
+                }
+                name(name);
+                token = reader.next();
+            }
+
+            if (selected.isWhole()) {
+                // Read the whole value, through the containers it opens
+                int depth = _depth;
+                _read(reader, token);
+                while (_depth > depth) {
+                    _read(reader, reader.next());
+                }
+            }
+            else if (token == JsonToken.START_OBJECT) {
+                startObject();
+                _readProjected(reader, selected);
+            }
+            else if (token == JsonToken.START_ARRAY) {
+                startList();
+                _readProjected(reader, selected);
+            }
+            // A value which is not an object or a list has no fields to select, so it is left out
+        }
+        end();
+    }
+
+    /**
+     * Add an event to the tree
+     */
+    private void _read(JsonReader reader, JsonToken token) {
+        switch (token) {
+            case START_OBJECT:
+                startObject();
+                break;
+            case START_ARRAY:
+                startList();
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                end();
+                break;
+            case FIELD_NAME:
+                name(reader.getString());
+                break;
+            case VALUE_STRING:
+                value(JsonValueKind.STRING, reader.getString());
+                break;
+            case VALUE_NUMBER:
+                JsonValueKind kind = reader.getNumberKind();
+                if (kind == JsonValueKind.BIG_INTEGER || kind == JsonValueKind.BIG_DECIMAL) {
+                    value(kind, reader.getNumber());
+                }
+                else {
+                    primitive(kind, reader.getNumberBits());
+                }
+                break;
+            case VALUE_TRUE:
+                primitive(JsonValueKind.BOOLEAN, 1);
+                break;
+            case VALUE_FALSE:
+                primitive(JsonValueKind.BOOLEAN, 0);
+                break;
+            case VALUE_NULL:
+                value(JsonValueKind.NULL, null);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected event : " + token);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package jiib.jsonparser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * An Appendable encoding the chars appended as UTF-8 bytes, straight into a byte buffer.
+ * ASCII chars, like field names and numbers mostly are, are encoded by a plain copy, and integers are written
+ * as digits without building a String. The buffer grows to hold the whole output, or is written to an OutputStream once full.
+ * Unpaired surrogates are encoded as '?'.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedObject#toJsonBytes()
+ */
+final class JsonUtf8Output implements Appendable {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    // The destination of the bytes, or null to keep them all in the buffer
+    private final OutputStream _out;
+    private byte[] _bytes;
+    private int _size = 0;
+    // The high surrogate waiting for its low surrogate, or 0
+    private char _highSurrogate = 0;
+
+    /**
+     * Create an output keeping the bytes in memory
+     */
+    JsonUtf8Output() {
+        _out = null;
+        _bytes = new byte[256];
+    }
+
+    /**
+     * Create an output writing the bytes to an OutputStream, through a fixed-size buffer
+     *
+     * @param out   The OutputStream to write the bytes to
+     */
+    JsonUtf8Output(OutputStream out) {
+        _out = out;
+        _bytes = new byte[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Make room for some more bytes, growing the buffer or writing it to the OutputStream
+     */
+    private void _ensure(int count) throws IOException {
+        if (_size + count <= _bytes.length) return;
+        if (_out != null) {
+            _out.write(_bytes, 0, _size);
+            _size = 0;
+        }
+        else _bytes = Arrays.copyOf(_bytes, Math.max(_bytes.length * 2, _size + count));
+    }
+
+    private void _encode(char c) throws IOException {
+        _ensure(4);
+        byte[] bytes = _bytes;
+        if (_highSurrogate != 0) {
+            char high = _highSurrogate;
+            _highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                bytes[_size++] = (byte)(0xF0 | (codePoint >> 18));
+                bytes[_size++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[_size++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[_size++] = (byte)(0x80 | (codePoint & 0x3F));
+                return;
+            }
+            bytes[_size++] = '?';
+            _ensure(3);
+            bytes = _bytes;
+        }
+
+        if (c < 0x80) {
+            bytes[_size++] = (byte)c;
+        }
+        else if (c < 0x800) {
+            bytes[_size++] = (byte)(0xC0 | (c >> 6));
+            bytes[_size++] = (byte)(0x80 | (c & 0x3F));
+        }
+        else if (Character.isHighSurrogate(c)) {
+            _highSurrogate = c;
+        }
+        else if (Character.isLowSurrogate(c)) {
+            bytes[_size++] = '?';
+        }
+        else {
+            bytes[_size++] = (byte)(0xE0 | (c >> 12));
+            bytes[_size++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+            bytes[_size++] = (byte)(0x80 | (c & 0x3F));
+        }
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        _encode(c);
+        return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        int i = start;
+        while (i < end) {
+            // Copy the ASCII chars at once, as far as the buffer allows
+            if (_highSurrogate == 0) {
+                if (_size == _bytes.length) _ensure(1);
+                byte[] bytes = _bytes;
+                int stop = Math.min(end, i + bytes.length - _size);
+                int size = _size;
+                char c;
+                while (i < stop && (c = csq.charAt(i)) < 0x80) {
+                    bytes[size++] = (byte)c;
+                    i++;
+                }
+                _size = size;
+                if (i == end) break;
+                if (i == stop) continue;
+            }
+            _encode(csq.charAt(i++));
+        }
+        return this;
+    }
+
+    /**
+     * Write an integer as ASCII digits, without building a String
+     *
+     * @param   value   The integer to write
+     * @throws  IOException If the OutputStream fails
+     */
+    void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            append(Long.toString(value));
+            return;
+        }
+        _ensure(20);
+        if (value < 0) {
+            _bytes[_size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) digits++;
+
+        int position = _size + digits;
+        _size = position;
+        do {
+            _bytes[--position] = (byte)('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    /**
+     * Write the bytes not written yet to the OutputStream, and flush it
+     *
+     * @throws  IOException If the OutputStream fails
+     */
+    void flush() throws IOException {
+        _finish();
+        if (_out == null) return;
+        _out.write(_bytes, 0, _size);
+        _size = 0;
+        _out.flush();
+    }
+
+    private void _finish() throws IOException {
+        if (_highSurrogate == 0) return;
+        _highSurrogate = 0;
+        _ensure(1);
+        _bytes[_size++] = '?';
+    }
+
+    /**
+     * Return the bytes written, when kept in memory
+     *
+     * @return  A new array holding the bytes written
+     * @throws  IOException Never, as the bytes are kept in memory
+     */
+    byte[] toByteArray() throws IOException {
+        _finish();
+        return Arrays.copyOf(_bytes, _size);
+    }
+}
@@ -0,0 +1,250 @@
+package jiib.jsonparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+/**
+ * A Reader decoding UTF-8 encoded bytes, straight into the chars buffer of the reader.
+ * The bytes are never copied into a String first, and runs of ASCII bytes, like field names and numbers,
+ * are decoded by a plain copy loop. Malformed sequences are decoded as U+FFFD.
+ * The bytes of an array or of a heap ByteBuffer are read in place, those of a direct ByteBuffer or of an InputStream by chunks.
+ * A reader can be reset on other bytes, keeping its chunk.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParser#parse(byte[])
+ */
+final class JsonUtf8Reader extends Reader {
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+    private static final byte[] NO_BYTES = new byte[0];
+
+    // The direct buffer whose bytes are still to be copied in the chunk, or null
+    private ByteBuffer _source = null;
+    // The stream whose bytes are still to be read in the chunk, or null
+    private InputStream _in = null;
+    // The chunk the bytes of a direct buffer or of a stream are copied in, kept from a reset to the next
+    private byte[] _chunk = null;
+    private byte[] _bytes = NO_BYTES;
+    private int _position = 0;
+    private int _limit = 0;
+    // The low surrogate of a pair when only its high surrogate fitted in the last read, or -1
+    private int _pendingChar = -1;
+
+    /**
+     * Create a reader with no bytes yet, to be reset before reading
+     */
+    JsonUtf8Reader() {}
+
+    /**
+     * Read bytes from an array, which is not copied
+     *
+     * @param bytes     The array holding the UTF-8 encoded chars
+     * @param offset    The position of the first byte to read
+     * @param length    The number of bytes to read
+     */
+    JsonUtf8Reader(byte[] bytes, int offset, int length) {
+        reset(bytes, offset, length);
+    }
+
+    /**
+     * Read the remaining bytes of a buffer, whose position is left unchanged
+     *
+     * @param buffer    The buffer holding the UTF-8 encoded chars
+     */
+    JsonUtf8Reader(ByteBuffer buffer) {
+        reset(buffer);
+    }
+
+    /**
+     * Read the bytes of a stream, by chunks
+     *
+     * @param in    The stream of the UTF-8 encoded chars, closed when this reader is closed
+     */
+    JsonUtf8Reader(InputStream in) {
+        reset(in);
+    }
+
+    /**
+     * Start reading bytes from an array, which is not copied
+     *
+     * @param bytes     The array holding the UTF-8 encoded chars
+     * @param offset    The position of the first byte to read
+     * @param length    The number of bytes to read
+     */
+    void reset(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("Invalid range : " + offset + " + " + length + " for " + bytes.length + " bytes");
+        }
+        _start(null, null, bytes, offset, offset + length);
+    }
+
+    /**
+     * Start reading the remaining bytes of a buffer, whose position is left unchanged
+     *
+     * @param buffer    The buffer holding the UTF-8 encoded chars
+     */
+    void reset(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            _start(null, null, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit());
+        }
+        else {
+            _start(buffer.duplicate(), null, _chunk(), 0, 0);
+        }
+    }
+
+    /**
+     * Start reading the bytes of a stream, by chunks
+     *
+     * @param in    The stream of the UTF-8 encoded chars, closed when this reader is closed
+     */
+    void reset(InputStream in) {
+        _start(null, in, _chunk(), 0, 0);
+    }
+
+    /**
+     * Drop the bytes being read, and the chunk if it is bigger than a given size
+     *
+     * @param maxSize   The size in bytes above which the chunk is dropped
+     */
+    void release(int maxSize) {
+        _start(null, null, NO_BYTES, 0, 0);
+        if (_chunk != null && _chunk.length > maxSize) _chunk = null;
+    }
+
+    private byte[] _chunk() {
+        if (_chunk == null) _chunk = new byte[CHUNK_SIZE];
+        return _chunk;
+    }
+
+    private void _start(ByteBuffer source, InputStream in, byte[] bytes, int position, int limit) {
+        _source = source;
+        _in = in;
+        _bytes = bytes;
+        _position = position;
+        _limit = limit;
+        _pendingChar = -1;
+    }
+
+    /**
+     * Copy the next bytes of the direct buffer or of the stream into the chunk, after the bytes not decoded yet
+     *
+     * @return  true if new bytes have been copied, or false
+     */
+    private boolean _fill() throws IOException {
+        if (_source == null && _in == null) return false;
+        if (_source != null && !_source.hasRemaining()) return false;
+
+        int remaining = _limit - _position;
+        System.arraycopy(_bytes, _position, _bytes, 0, remaining);
+        _position = 0;
+        _limit = remaining;
+        int count;
+        if (_source != null) {
+            count = Math.min(_bytes.length - remaining, _source.remaining());
+            _source.get(_bytes, remaining, count);
+        }
+        else {
+            count = _in.read(_bytes, remaining, _bytes.length - remaining);
+            if (count < 0) return false;
+        }
+        _limit = remaining + count;
+        return count > 0;
+    }
+
+    /**
+     * Decode the multi-byte sequence under the position, and move the position after it
+     *
+     * @return  The code point of the sequence, or U+FFFD if the sequence is malformed
+     */
+    private int _decodeSequence() {
+        byte[] bytes = _bytes;
+        int position = _position;
+        int first = bytes[position] & 0xFF;
+
+        int length, codePoint, min;
+        if (first >= 0xC2 && first <= 0xDF) {
+            length = 2;
+            codePoint = first & 0x1F;
+            min = 0x80;
+        }
+        else if (first >= 0xE0 && first <= 0xEF) {
+            length = 3;
+            codePoint = first & 0x0F;
+            min = 0x800;
+        }
+        else if (first >= 0xF0 && first <= 0xF4) {
+            length = 4;
+            codePoint = first & 0x07;
+            min = 0x10000;
+        }
+        else {
+            _position = position + 1;
+            return REPLACEMENT_CHAR;
+        }
+
+        for (int i = 1; i < length; i++) {
+            if (position + i >= _limit || (bytes[position + i] & 0xC0) != 0x80) {
+                // The sequence is cut, the next byte is decoded on its own
+                _position = position + i;
+                return REPLACEMENT_CHAR;
+            }
+            codePoint = (codePoint << 6) | (bytes[position + i] & 0x3F);
+        }
+        _position = position + length;
+
+        // Overlong encodings, surrogates and code points out of range are malformed
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            return REPLACEMENT_CHAR;
+        }
+        return codePoint;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+
+        int count = offset;
+        int end = offset + length;
+        if (_pendingChar >= 0) {
+            buffer[count++] = (char)_pendingChar;
+            _pendingChar = -1;
+        }
+
+        while (count < end) {
+            if (_position == _limit && !_fill()) break;
+
+            // Copy the ASCII bytes at once
+            byte[] bytes = _bytes;
+            int position = _position;
+            int stop = Math.min(_limit, position + (end - count));
+            while (position < stop && bytes[position] >= 0) {
+                buffer[count++] = (char)bytes[position++];
+            }
+            _position = position;
+            if (count == end || position == _limit) continue;
+
+            // A multi-byte sequence may be split between two chunks, a stream giving its bytes in any count
+            while (_limit - _position < 4 && _fill());
+            int codePoint = _decodeSequence();
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                buffer[count++] = (char)codePoint;
+            }
+            else {
+                buffer[count++] = Character.highSurrogate(codePoint);
+                if (count < end) buffer[count++] = Character.lowSurrogate(codePoint);
+                else _pendingChar = Character.lowSurrogate(codePoint);
+            }
+        }
+        return (count == offset) ? -1 : count - offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        InputStream in = _in;
+        _start(null, null, NO_BYTES, 0, 0);
+        if (in != null) in.close();
+    }
+}
@@ -0,0 +1,61 @@
+package jiib.jsonparser;
+
+/**
+ * The kinds of value a JsonParsedField can hold.
+ * Each kind matches one of the value types returned by JsonParsedField.getValueType.
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedField#getKind()
+ */
+public enum JsonValueKind {
+    /** A nested JsonParsedObject */
+    OBJECT("{object}"),
+    /** A list of JsonParsedField */
+    LIST("List"),
+    /** A String */
+    STRING("String"),
+    /** An int, stored without boxing */
+    INTEGER("Integer"),
+    /** A long, stored without boxing */
+    LONG("Long"),
+    /** A BigInteger, for integral numbers too big for a long */
+    BIG_INTEGER("BigInteger"),
+    /** A double, stored without boxing */
+    DOUBLE("Double"),
+    /** A BigDecimal, for decimal numbers a double would not hold */
+    BIG_DECIMAL("BigDecimal"),
+    /** A boolean, stored without boxing */
+    BOOLEAN("Boolean"),
+    /** The null value */
+    NULL("Null");
+
+    private final String _valueType;
+
+    JsonValueKind(String valueType) {
+        _valueType = valueType;
+    }
+
+    /**
+     * Return the value type matching this kind
+     *
+     * @return  The value type, as returned by JsonParsedField.getValueType
+     */
+    public String getValueType() {
+        return _valueType;
+    }
+
+    /**
+     * Return the kind matching a value type
+     *
+     * @param   valueType   The value type, as returned by JsonParsedField.getValueType
+     * @return  The matching kind
+     */
+    public static JsonValueKind fromValueType(String valueType) {
+        for (JsonValueKind kind : values()) {
+            if (kind._valueType.equals(valueType)) {
+                return kind;
+            }
+        }
+        throw new ClassCastException("Unknow value type : " + valueType);
+    }
+}
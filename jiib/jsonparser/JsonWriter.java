@@ -0,0 +1,348 @@
+package jiib.jsonparser;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A streaming generator, writing a Json expression one event at a time.
+ * The expression is written through a fixed-size buffer, so the memory used does not depend on the size of the expression,
+ * only on its depth. The events are checked as they are written, so the expression written is always valid.
+ * For example :
+ * <pre>
+ *  try (JsonWriter writer = new JsonWriter(outputStream)) {
+ *      writer.beginArray();
+ *      while (resultSet.next()) {
+ *          writer.beginObject()
+ *              .name("id").value(resultSet.getLong("id"))
+ *              .name("name").value(resultSet.getString("name"))
+ *              .endObject();
+ *      }
+ *      writer.endArray();
+ *  }
+ * </pre>
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonReader
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    // Scopes of the stack
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    // The Writer or the OutputStream the expression is written to
+    private final Closeable _out;
+    // The output encoding the expression straight into its buffer, a JsonCharOutput or a JsonUtf8Output, which writes it to _out once full
+    private final Appendable _buffer;
+    private int[] _scopes = new int[32];
+    private int _scopesSize = 1;
+
+    /**
+     * Create a writer on a Writer
+     *
+     * @param out   The Writer to write the Json expression to
+     */
+    public JsonWriter(Writer out) {
+        this(out, JsonCursor.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a writer on a Writer, with a specific buffer size
+     *
+     * @param out           The Writer to write the Json expression to
+     * @param bufferSize    The size of the chars buffer, flushed to the Writer once full
+     */
+    public JsonWriter(Writer out, int bufferSize) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("The buffer size should be at least 16 chars");
+        }
+        _out = out;
+        _buffer = new JsonCharOutput(out, bufferSize);
+        _scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Create a writer on an OutputStream, the Json expression being encoded in UTF-8 straight into a fixed-size byte buffer
+     *
+     * @param out   The OutputStream to write the Json expression to
+     */
+    public JsonWriter(OutputStream out) {
+        _out = out;
+        _buffer = new JsonUtf8Output(out);
+        _scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    private void _push(int scope) {
+        if (_scopesSize == _scopes.length) {
+            int[] scopes = new int[_scopesSize * 2];
+            System.arraycopy(_scopes, 0, scopes, 0, _scopesSize);
+            _scopes = scopes;
+        }
+        _scopes[_scopesSize++] = scope;
+    }
+
+    /**
+     * Check that a value can be written at this point, and write the comma separating it from the previous one
+     */
+    private void _beforeValue() throws IOException {
+        switch (_scopes[_scopesSize - 1]) {
+            case EMPTY_DOCUMENT:
+                _scopes[_scopesSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                throw new IllegalStateException("Invalid Json expression : the root value has already been written");
+            case EMPTY_ARRAY:
+                _scopes[_scopesSize - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                _buffer.append(',');
+                break;
+            case DANGLING_NAME:
+                _scopes[_scopesSize - 1] = NONEMPTY_OBJECT;
+                break;
+            default:
+                throw new IllegalStateException("Invalid Json expression : expecting a field name before a value in an object");
+        }
+    }
+
+    /**
+     * Write the buffer to the Writer or the OutputStream, and flush it
+     */
+    private void _flushBuffer() throws IOException {
+        if (_buffer instanceof JsonUtf8Output) ((JsonUtf8Output)_buffer).flush();
+        else ((JsonCharOutput)_buffer).flush();
+    }
+
+    /**
+     * Open an object
+     *
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter beginObject() throws IOException {
+        _beforeValue();
+        _push(EMPTY_OBJECT);
+        _buffer.append('{');
+        return this;
+    }
+
+    /**
+     * Close the current object
+     *
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter endObject() throws IOException {
+        int scope = _scopes[_scopesSize - 1];
+        if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) {
+            throw new IllegalStateException("Invalid Json expression : no object to close here");
+        }
+        _scopesSize--;
+        _buffer.append('}');
+        return this;
+    }
+
+    /**
+     * Open a list
+     *
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter beginArray() throws IOException {
+        _beforeValue();
+        _push(EMPTY_ARRAY);
+        _buffer.append('[');
+        return this;
+    }
+
+    /**
+     * Close the current list
+     *
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter endArray() throws IOException {
+        int scope = _scopes[_scopesSize - 1];
+        if (scope != EMPTY_ARRAY && scope != NONEMPTY_ARRAY) {
+            throw new IllegalStateException("Invalid Json expression : no list to close here");
+        }
+        _scopesSize--;
+        _buffer.append(']');
+        return this;
+    }
+
+    /**
+     * Write the name of the next field of the current object, its value being the next value written
+     *
+     * @param   name    The name of the field
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter name(String name) throws IOException {
+        int scope = _scopes[_scopesSize - 1];
+        if (scope == NONEMPTY_OBJECT) {
+            _buffer.append(',');
+        }
+        else if (scope != EMPTY_OBJECT) {
+            throw new IllegalStateException("Invalid Json expression : a field name can only be written in an object, before each value");
+        }
+        _scopes[_scopesSize - 1] = DANGLING_NAME;
+        JsonSerializer.writeString(name, _buffer);
+        _buffer.append(':');
+        return this;
+    }
+
+    /**
+     * Write a string value
+     *
+     * @param   value   The value, or null to write a null value
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) return nullValue();
+        _beforeValue();
+        JsonSerializer.writeString(value, _buffer);
+        return this;
+    }
+
+    /**
+     * Write an integer value, without boxing
+     *
+     * @param   value   The value
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter value(long value) throws IOException {
+        _beforeValue();
+        JsonSerializer.writePrimitive(JsonValueKind.LONG, value, _buffer);
+        return this;
+    }
+
+    /**
+     * Write a decimal value, without boxing
+     *
+     * @param   value   The value, which has to be finite
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Invalid value : " + value + " can not be written in a Json expression");
+        }
+        _beforeValue();
+        JsonSerializer.writePrimitive(JsonValueKind.DOUBLE, Double.doubleToRawLongBits(value), _buffer);
+        return this;
+    }
+
+    /**
+     * Write a boolean value
+     *
+     * @param   value   The value
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        _beforeValue();
+        _buffer.append(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Write a number value
+     *
+     * @param   value   The value, or null to write a null value
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) return nullValue();
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return value(value.doubleValue());
+        }
+        if (!(value instanceof BigInteger) && !(value instanceof BigDecimal)) {
+            // Any other Number is written through its decimal value, to be sure to write a valid number
+            value = new BigDecimal(value.toString());
+        }
+        _beforeValue();
+        _buffer.append(value.toString());
+        return this;
+    }
+
+    /**
+     * Write a null value
+     *
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter nullValue() throws IOException {
+        _beforeValue();
+        _buffer.append("null");
+        return this;
+    }
+
+    /**
+     * Write an object and its tree structure, as a value
+     *
+     * @param   object  The object, or null to write a null value
+     * @return  This writer
+     * @throws  IOException If the Writer fails
+     */
+    public JsonWriter value(JsonParsedObject object) throws IOException {
+        if (object == null) return nullValue();
+        _beforeValue();
+        JsonSerializer.writeObject(object, _buffer);
+        return this;
+    }
+
+    /**
+     * Return the count of objects and lists currently opened
+     *
+     * @return  The current depth in the Json expression
+     */
+    public int getDepth() {
+        return _scopesSize - 1;
+    }
+
+    /**
+     * Write the buffer to the Writer, and flush the Writer
+     *
+     * @throws  IOException If the Writer fails
+     */
+    @Override
+    public void flush() throws IOException {
+        _flushBuffer();
+    }
+
+    /**
+     * Flush and close the Writer
+     *
+     * @throws  IOException If the Writer fails
+     * @throws  IllegalStateException If the Json expression written is not complete, the Writer being closed anyway
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            _flushBuffer();
+        }
+        finally {
+            _out.close();
+        }
+        if (_scopesSize > 1 || _scopes[0] != NONEMPTY_DOCUMENT) {
+            throw new IllegalStateException("Invalid Json expression : the expression written is not complete");
+        }
+    }
+}
@@ -1,132 +1,158 @@
-package jiib.jsonparser.util;
+package jiib.jsonparser.query;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Stack;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jiib.jsonparser.util.DottedPath;
 
 /**
- * A simple representation of a path, where nodes are separated by a dot.
- * 
+ * A compiled query on the tree structure of a Json object, using the same syntax as a DottedPath.
+ * A query is compiled once into an immutable array of steps, and can then be used on any number of objects.
+ * Steps are field names, or list indexes starting at 1.
+ * <pre>
+ *  JsonQuery query = JsonQuery.compile("tlotr.gondor.cities.1.name");
+ *  for (JsonParsedObject object : objects) {
+ *      JsonParsedField field = object.getField(query);
+ *  }
+ * </pre>
+ *
  * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ * @see     jiib.jsonparser.JsonParsedObject#getField(JsonQuery)
  */
-public class DottedPath {
+public final class JsonQuery {
 
-    private Stack<String> path = new Stack<>();
+    private static final int CACHE_SIZE = 1024;
 
     /**
-     * Copy constructor for a new DottedPath
-     * 
-     * @param basePath  The original DottedPath to copy
+     * A compiled query of the cache, flagged when used since the last eviction
      */
-    public DottedPath(DottedPath basePath) {
-        path = basePath.asStack();
-    }
+    private static final class Cached {
+        final JsonQuery query;
+        volatile boolean used = true;
 
-    /**
-     * Constructor for a new DottedPath.
-     * Initialize its path with the given one.
-     * 
-     * @param basePath  The base path to start with (nodes should be separated by the same char as given as the param 'separator')
-     */
-    public DottedPath(String basePath) {
-        for (String node : basePath.split("\\.")) {
-            addNode(node);
+        Cached(JsonQuery query) {
+            this.query = query;
         }
     }
 
-    /**
-     * Add a new node at the end of the path.
-     * It should not contain the 'separator' char
-     * 
-     * @param node  The new node to add to the path
-     */
-    public void addNode(String node) {
-        if (! node.matches("^[^\\.\n]+$")) {
-            throw new IllegalArgumentException("A node cannot contains a dot or a \\n");
-        }
+    // Recently used compiled queries, by expression, read without locking
+    private static final ConcurrentHashMap<String, Cached> _cache = new ConcurrentHashMap<>();
 
-        path.push(node);
-    }
+    private final String _expression;
+    private final String[] _names;
+    // The list index of each step, or -1 if the step is not a number
+    private final int[] _indexes;
 
-    /**
-     * Remove the last node of the path
-     */
-    public void removeLastNode() {
-        if (! path.isEmpty()) {
-            path.pop();
+    private JsonQuery(String expression) {
+        if (expression.isEmpty()) {
+            throw new IllegalArgumentException("Empty query");
+        }
+
+        String[] names = expression.split("\\.", -1);
+        int[] indexes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].isEmpty()) {
+                throw new IllegalArgumentException("Invalid query '" + expression + "' : step " + (i + 1) + " is empty");
+            }
+            indexes[i] = _parseIndex(names[i]);
         }
+
+        _expression = expression;
+        _names = names;
+        _indexes = indexes;
     }
 
-    /**
-     * Remove the first node of the path
-     */
-    public void removeFirstNode() {
-        if (! path.isEmpty()) {
-            path.remove(0);
+    private static int _parseIndex(String name) {
+        if (name.length() > 9) return -1;
+        int index = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            index = index * 10 + (c - '0');
         }
+        return index;
     }
 
     /**
-     * Add a path at the end of the already existing path.
-     * 
-     * @param path  The DottedPath containing the path to add
+     * Compile a query, or return it from the cache if it has been compiled recently.
+     * The cache is read without locking, so a query found in it is returned without any allocation.
+     *
+     * @param   expression  The query, with its steps separated by dots
+     * @return  The compiled query
      */
-    public void addPath(DottedPath path) {
-        for (String node : path.asStack()) {
-            this.path.push(node);
+    public static JsonQuery compile(String expression) {
+        Cached cached = _cache.get(expression);
+        if (cached != null) {
+            // The flag is only written when cleared, so the hits do not write to memory shared by the threads
+            if (!cached.used) cached.used = true;
+            return cached.query;
         }
+
+        JsonQuery query = new JsonQuery(expression);
+        cached = _cache.putIfAbsent(expression, new Cached(query));
+        if (cached != null) return cached.query;
+        if (_cache.size() > CACHE_SIZE) _evict();
+        return query;
     }
 
     /**
-     * Return the empty state of the current path
-     * 
-     * @return  true if the path is empty, or false
+     * Remove the queries not used since the last eviction, until the cache is back to its size.
+     * The flags of the queries kept are cleared, so each query is given a second chance before being removed.
      */
-    public Boolean isEmpty() {
-        return path.isEmpty();
+    private static synchronized void _evict() {
+        while (_cache.size() > CACHE_SIZE) {
+            Iterator<Cached> it = _cache.values().iterator();
+            while (it.hasNext() && _cache.size() > CACHE_SIZE) {
+                Cached cached = it.next();
+                if (cached.used) cached.used = false;
+                else it.remove();
+            }
+        }
     }
 
     /**
-     * Return the last node of the current path
-     * 
-     * @return  The last node of the current path
+     * Compile the query matching a path.
+     * The query is kept by the path until it is changed, so a path can be used on any number of objects without being compiled again.
+     *
+     * @param   path    The path to compile
+     * @return  The compiled query
      */
-    public String lastNode() {
-        if (path.isEmpty()) return null;
-        return path.lastElement();
+    public static JsonQuery compile(DottedPath path) {
+        if (path.isEmpty()) throw new IllegalArgumentException("Empty path");
+        return path.toQuery();
     }
 
     /**
-     * Return the first node of the current path
-     * 
-     * @return The first node of the current path
+     * Return the count of steps of this query
+     *
+     * @return  The count of steps
      */
-    public String firstNode() {
-        if (path.isEmpty()) return null;
-        return path.firstElement();
+    public int size() {
+        return _names.length;
     }
 
     /**
-     * Return all the path nodes as a list
-     * 
-     * @return The path nodes as a list
+     * Return a step of this query, as a field name
+     *
+     * @param   step    The index of the step, starting at 0
+     * @return  The field name of the step
      */
-    public List<String> getNodes() {
-        return new ArrayList<String>(path);
+    public String getName(int step) {
+        return _names[step];
     }
 
     /**
-     * Return the path as a stack
-     * 
-     * @return The path as a stack
+     * Return a step of this query, as a list index
+     *
+     * @param   step    The index of the step, starting at 0
+     * @return  The list index of the step, starting at 1, or -1 if the step is not a number
      */
-    private Stack<String> asStack() {
-        return path;
+    public int getIndex(int step) {
+        return _indexes[step];
     }
 
     @Override
     public String toString() {
-        if (path.isEmpty()) return "{null}";
-        return String.join(".", path);
+        return _expression;
     }
 }
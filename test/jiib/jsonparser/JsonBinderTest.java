@@ -0,0 +1,156 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonParser.parse(String, Class) : the types bound, the values missing, null or of the wrong kind
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonBinderTest {
+
+    public enum Level { LOW, HIGH }
+
+    public record Point(int x, int y) {}
+
+    public record Shape(String name, Level level, List<Point> points, Map<String, List<Long>> tags, int[] sizes, Point[] corners) {}
+
+    public static class Bean {
+        public String name;
+        public Integer count;
+        private double _ratio;
+        private boolean _active;
+
+        public void setRatio(double ratio) {
+            _ratio = ratio;
+        }
+
+        public void setActive(boolean active) {
+            _active = active;
+        }
+    }
+
+    public static class Immutable {
+        private final String _id;
+        private final long _size;
+
+        public Immutable(String id, long size) {
+            _id = id;
+            _size = size;
+        }
+    }
+
+    public record Numbers(long l, double d, BigInteger bi, BigDecimal bd, Number n, char c, Object any) {}
+
+    @Test
+    void bindsRecordsWithGenericMembers() {
+        Shape shape = JsonParser.parse("{\"name\":\"s\",\"level\":\"HIGH\",\"points\":[{\"x\":1,\"y\":2},{\"y\":4,\"x\":3}],"
+            + "\"tags\":{\"a\":[1,3000000000]},\"sizes\":[5,6],\"corners\":[{\"x\":0,\"y\":0},null]}", Shape.class);
+
+        assertEquals("s", shape.name());
+        assertEquals(Level.HIGH, shape.level());
+        assertEquals(List.of(new Point(1, 2), new Point(3, 4)), shape.points());
+        assertEquals(Map.of("a", List.of(1L, 3000000000L)), shape.tags());
+        assertArrayEquals(new int[] {5, 6}, shape.sizes());
+        assertArrayEquals(new Point[] {new Point(0, 0), null}, shape.corners());
+    }
+
+    @Test
+    void bindsBeansThroughFieldsAndSetters() {
+        Bean bean = JsonParser.parse("{\"name\":\"b\",\"unknown\":{\"x\":[1,{\"y\":2}]},\"ratio\":0.5,\"active\":true}", Bean.class);
+
+        assertEquals("b", bean.name);
+        assertNull(bean.count);
+        assertEquals(0.5, bean._ratio);
+        assertTrue(bean._active);
+    }
+
+    @Test
+    void bindsThroughTheWidestConstructor() {
+        Immutable immutable = JsonParser.parse("{\"id\":\"i\",\"size\":12}", Immutable.class);
+
+        assertEquals("i", immutable._id);
+        assertEquals(12, immutable._size);
+    }
+
+    @Test
+    void leavesMissingFieldsToTheirDefault() {
+        Numbers numbers = JsonParser.parse("{}", Numbers.class);
+
+        assertEquals(0, numbers.l());
+        assertEquals(0, numbers.d());
+        assertNull(numbers.bi());
+        assertEquals(0, numbers.c());
+        assertNull(numbers.any());
+    }
+
+    @Test
+    void widensNumbers() {
+        Numbers numbers = JsonParser.parse("{\"l\":1,\"d\":2,\"bi\":3,\"bd\":4.5,\"n\":123456789012345678901234567890,\"c\":\"z\","
+            + "\"any\":{\"a\":[1,\"s\",true,null]}}", Numbers.class);
+
+        assertEquals(1, numbers.l());
+        assertEquals(2.0, numbers.d());
+        assertEquals(BigInteger.valueOf(3), numbers.bi());
+        assertEquals(new BigDecimal("4.5"), numbers.bd());
+        assertEquals(new BigInteger("123456789012345678901234567890"), numbers.n());
+        assertEquals('z', numbers.c());
+        assertEquals(Map.of("a", Arrays.asList(1, "s", true, null)), numbers.any());
+    }
+
+    @Test
+    void bindsRootCollections() {
+        assertEquals(List.of("a", "b"), JsonParser.parse("[\"a\",\"b\"]", List.class));
+        assertEquals(Set.of(1, 2), JsonParser.parse("[1,2,1]", Set.class));
+        assertFalse(JsonParser.parse("{\"b\":1,\"a\":2}", SortedMap.class).isEmpty());
+        assertEquals(JsonParser.parse("{\"a\":1}"), JsonParser.parse("{\"a\":1}", JsonParsedObject.class));
+    }
+
+    @Test
+    void rejectsNullForPrimitives() {
+        ClassCastException error = assertThrows(ClassCastException.class, () -> JsonParser.parse("{\"x\":null,\"y\":1}", Point.class));
+        assertEquals("The field 'x' is Null, not int", error.getMessage());
+    }
+
+    @Test
+    void rejectsValuesOfTheWrongKind() {
+        assertThrows(ClassCastException.class, () -> JsonParser.parse("{\"x\":\"1\",\"y\":1}", Point.class));
+        assertThrows(ClassCastException.class, () -> JsonParser.parse("{\"x\":1.5,\"y\":1}", Point.class));
+        assertThrows(ClassCastException.class, () -> JsonParser.parse("{\"c\":\"zz\"}", Numbers.class));
+        assertThrows(ClassCastException.class, () -> JsonParser.parse("{\"points\":{}}", Shape.class));
+        ClassCastException error = assertThrows(ClassCastException.class, () -> JsonParser.parse("{\"points\":[{\"x\":1,\"y\":true}]}", Shape.class));
+        assertEquals("The field 'y' is Boolean, not Integer", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{\"level\":\"MEDIUM\"}", Shape.class));
+    }
+
+    @Test
+    void rejectsIntegersTooBig() {
+        assertThrows(ClassCastException.class, () -> JsonParser.parse("{\"x\":3000000000,\"y\":1}", Point.class));
+    }
+
+    @Test
+    void rejectsUnboundableTypes() {
+        assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{}", Runnable.class));
+        assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{}", java.io.InputStream.class));
+    }
+
+    @Test
+    void rejectsTrailingContent() {
+        assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{\"x\":1,\"y\":2} {}", Point.class));
+    }
+}
@@ -0,0 +1,88 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonDeserializationPlan : the constructor matching the values of an object, and the factories kept per Class
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonDeserializationPlanTest {
+
+    public static class Tagged {
+        final String _name;
+        final List<?> _values;
+
+        public Tagged(String name, List<?> values) {
+            _name = name;
+            _values = values;
+        }
+
+        public Tagged(String name, Integer count) {
+            _name = name;
+            _values = null;
+            if (count < 0) throw new IllegalArgumentException("Negative count");
+        }
+    }
+
+    public static class Wide {
+        public Wide(String a, String b, String c, String d, String e, String f, String g) {}
+    }
+
+    @Test
+    void givesTheListsAsList() {
+        Tagged tagged = JsonParser.parse("{\"name\":\"t\",\"values\":[1,2]}").tryDeserializing(Tagged.class);
+
+        assertEquals("t", tagged._name);
+        assertEquals(List.of(1, 2), tagged._values);
+        assertEquals(List.of("x"), JsonParser.parse("{\"name\":\"t\",\"values\":[\"x\"]}").tryDeserializing(Tagged.class)._values);
+    }
+
+    @Test
+    void matchesTheNullArgumentsWithAnyParameter() {
+        Tagged tagged = JsonParser.parse("{\"name\":null,\"values\":[true]}").tryDeserializing(Tagged.class);
+        assertNull(tagged._name);
+        assertEquals(List.of(true), tagged._values);
+
+        // A null argument matches the parameter of either constructor, both leaving no values
+        Tagged nulls = JsonParser.parse("{\"name\":\"n\",\"values\":null}").tryDeserializing(Tagged.class);
+        assertEquals("n", nulls._name);
+        assertNull(nulls._values);
+    }
+
+    @Test
+    void failsWithoutMatchingConstructor() {
+        ClassCastException error = assertThrows(ClassCastException.class,
+            () -> JsonParser.parse("{\"name\":\"t\",\"values\":2.5}").tryDeserializing(Tagged.class));
+        assertEquals("No public constructor for class <" + Tagged.class.getName() + "> with args : java.lang.String,java.lang.Double",
+            error.getMessage().substring(0, error.getMessage().indexOf('\n')));
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+            () -> JsonParser.parse("{\"name\":\"t\",\"count\":-1}").tryDeserializing(Tagged.class));
+        assertInstanceOf(IllegalArgumentException.class, thrown.getCause().getCause());
+    }
+
+    @Test
+    void keepsABoundedCountOfFactories() {
+        JsonDeserializationPlan plan = JsonDeserializationPlan.of(Wide.class);
+        assertSame(plan, JsonDeserializationPlan.of(Wide.class));
+
+        // Each pattern of null values is another list of argument types
+        for (int nulls = 0; nulls < 1 << 7; nulls++) {
+            StringBuilder json = new StringBuilder("{");
+            for (int i = 0; i < 7; i++) {
+                json.append(i == 0 ? "" : ",").append("\"f").append(i).append("\":").append((nulls & (1 << i)) != 0 ? "null" : "\"v\"");
+            }
+            JsonParser.parse(json.append('}').toString()).tryDeserializing(Wide.class);
+        }
+        assertEquals(JsonDeserializationPlan.MAX_FACTORIES, plan.getFactoryCount());
+    }
+}
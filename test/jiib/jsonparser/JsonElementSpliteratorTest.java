@@ -0,0 +1,110 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonParser.parseElements : the items of a root list read one at a time, and the expressions which are not a single list
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonElementSpliteratorTest {
+
+    public record Item(int i, String s) {}
+
+    /**
+     * A never ending root list, generated as it is read
+     */
+    private static final class EndlessList extends Reader {
+
+        private final StringBuilder _pending = new StringBuilder("[");
+        private int _items = 0;
+        private long _charsRead = 0;
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            while (_pending.length() < length) {
+                _pending.append(_items == 0 ? "" : ",").append("{\"i\":").append(_items).append(",\"s\":\"s").append(_items).append("\"}");
+                _items++;
+            }
+            _pending.getChars(0, length, buffer, offset);
+            _pending.delete(0, length);
+            _charsRead += length;
+            return length;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    @Test
+    void readsTheItemsOneAtATime() {
+        EndlessList input = new EndlessList();
+
+        try (Stream<JsonParsedField> items = JsonParser.parseElements(input)) {
+            List<JsonParsedField> first = items.limit(3).collect(Collectors.toList());
+
+            assertEquals(3, first.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(String.valueOf(i + 1), first.get(i).getName());
+                assertEquals(i, ((JsonParsedObject)first.get(i).getValue()).getField("i").getValue());
+            }
+        }
+        // Only the first chunk of the endless input has been read
+        assertTrue(input._charsRead <= 2 * JsonCursor.DEFAULT_BUFFER_SIZE, input._charsRead + " chars read");
+
+        try (Stream<Item> items = JsonParser.parseElements(new EndlessList(), Item.class)) {
+            assertEquals(List.of(new Item(0, "s0"), new Item(1, "s1")), items.limit(2).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void readsEveryKindOfItem() {
+        String json = " [1, \"a\", [2, 3], {\"b\":null}, true, 2.5] ";
+
+        try (Stream<JsonParsedField> items = JsonParser.parseElements(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(List.of(JsonValueKind.INTEGER, JsonValueKind.STRING, JsonValueKind.LIST, JsonValueKind.OBJECT, JsonValueKind.BOOLEAN, JsonValueKind.DOUBLE),
+                items.map(JsonParsedField::getKind).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void readsAnEmptyRootList() {
+        try (Stream<JsonParsedField> items = JsonParser.parseElements(new StringReader(" [ ] "))) {
+            assertEquals(0, items.count());
+        }
+        try (Stream<Item> items = JsonParser.parseElements(new StringReader("[]"), Item.class)) {
+            assertEquals(0, items.count());
+        }
+    }
+
+    @Test
+    void rejectsAnythingButASingleList() {
+        _assertFails("[1,2] 3");
+        _assertFails("[1,2]]");
+        _assertFails("[1,2],[3]");
+        _assertFails("[] {}");
+        _assertFails("{\"a\":[1]}");
+        _assertFails("[1,2");
+        _assertFails("");
+    }
+
+    private static void _assertFails(String json) {
+        assertThrows(IllegalArgumentException.class, () -> {
+            try (Stream<JsonParsedField> items = JsonParser.parseElements(new StringReader(json))) {
+                items.forEach(item -> {});
+            }
+        }, json);
+    }
+}
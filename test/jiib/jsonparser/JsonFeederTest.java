@@ -0,0 +1,124 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonFeeder : the trees and events read from an expression split into chunks at every position
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonFeederTest {
+
+    // Multi-byte chars, escapes, literals and numbers of every kind, to be cut in their middle
+    private static final String SAMPLE = "{ \"café\" : \"€ 😀 \\u00e9\\n\\\"\", \"list\" : [true, false, null, -12, 3000000000,"
+        + " 2.5e-3, 123456789012345678901234567890, 3.14159265358979323846264338327950288], \"o\":{\"p\":{}} }";
+
+    @Test
+    void parsesEveryTwoChunksSplit() {
+        byte[] json = SAMPLE.getBytes(StandardCharsets.UTF_8);
+        JsonParsedObject expected = JsonParser.parse(SAMPLE);
+
+        for (int split = 0; split < json.length; split++) {
+            JsonFeeder feeder = new JsonFeeder();
+            feeder.feed(json, 0, split);
+            assertNull(feeder.poll(), "split at " + split);
+            feeder.feed(json, split, json.length - split);
+            assertEquals(expected, feeder.poll(), "split at " + split);
+            feeder.endOfInput();
+            assertEquals(JsonToken.END_DOCUMENT, feeder.next());
+        }
+    }
+
+    @Test
+    void parsesByteByByte() {
+        byte[] json = SAMPLE.getBytes(StandardCharsets.UTF_8);
+        JsonFeeder feeder = new JsonFeeder();
+        JsonParsedObject root = null;
+        for (int i = 0; i < json.length; i++) {
+            assertNull(root);
+            feeder.feed(new byte[] {json[i]});
+            root = feeder.poll();
+        }
+
+        assertEquals(JsonParser.parse(SAMPLE), root);
+    }
+
+    @Test
+    void readsEventsAcrossChunks() {
+        JsonFeeder feeder = new JsonFeeder();
+        List<String> events = new ArrayList<>();
+
+        feeder.feed("{\"na".getBytes(StandardCharsets.UTF_8));
+        _readEvents(feeder, events);
+        assertTrue(feeder.needsInput());
+        feeder.feed("me\":[1".getBytes(StandardCharsets.UTF_8));
+        _readEvents(feeder, events);
+        feeder.feed("2,\"x\"]}".getBytes(StandardCharsets.UTF_8));
+        _readEvents(feeder, events);
+        feeder.endOfInput();
+
+        assertEquals(JsonToken.END_DOCUMENT, feeder.next());
+        assertEquals(List.of("START_OBJECT", "FIELD_NAME name", "START_ARRAY", "VALUE_NUMBER 12", "VALUE_STRING x", "END_ARRAY", "END_OBJECT"), events);
+    }
+
+    @Test
+    void locatesErrorsLikeTheParser() {
+        for (String json : new String[] {"{\"a\":1,\"b\":tru}", "{\"a\":[1 2]}", "{\"a\":1} x", "{\"a\":1,}", "{\"a\":01}"}) {
+            String expected = assertThrows(IllegalArgumentException.class, () -> JsonParser.parse(json)).getMessage();
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+            for (int split = 0; split <= bytes.length; split++) {
+                JsonFeeder feeder = new JsonFeeder();
+                int at = split;
+                IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> {
+                    feeder.feed(bytes, 0, at);
+                    _readAll(feeder);
+                    feeder.feed(bytes, at, bytes.length - at);
+                    _readAll(feeder);
+                    feeder.endOfInput();
+                    _readAll(feeder);
+                });
+                assertEquals(expected, error.getMessage(), json + " split at " + split);
+            }
+        }
+    }
+
+    @Test
+    void rejectsAChunkFedTooEarly() {
+        JsonFeeder feeder = new JsonFeeder();
+        feeder.feed("{\"a\":1,".getBytes(StandardCharsets.UTF_8));
+        assertEquals(JsonToken.START_OBJECT, feeder.next());
+
+        assertThrows(IllegalStateException.class, () -> feeder.feed("\"b\":2}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void _readAll(JsonFeeder feeder) {
+        // Once the root object is returned, the events after it are read by the next call
+        while (feeder.poll() != null);
+    }
+
+    private static void _readEvents(JsonFeeder feeder, List<String> events) {
+        for (JsonToken token = feeder.next(); token != JsonToken.NOT_AVAILABLE; token = feeder.next()) {
+            switch (token) {
+                case FIELD_NAME:
+                case VALUE_STRING:
+                    events.add(token + " " + feeder.getString());
+                    break;
+                case VALUE_NUMBER:
+                    events.add(token + " " + feeder.getInt());
+                    break;
+                default:
+                    events.add(token.toString());
+            }
+        }
+    }
+}
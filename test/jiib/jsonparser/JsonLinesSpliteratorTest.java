@@ -0,0 +1,107 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonParser.parseLines : the records of a Json Lines input parsed by batches, in order or not, and the errors with their line
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonLinesSpliteratorTest {
+
+    private static final int RECORDS = 5 * JsonLinesSpliterator.BATCH_LINES + 7;
+
+    private ExecutorService _executor;
+
+    @BeforeEach
+    void startExecutor() {
+        _executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        _executor.shutdownNow();
+    }
+
+    @Test
+    void givesTheRecordsInTheOrderOfTheLines() {
+        List<Integer> ids = _ids(true);
+
+        assertEquals(RECORDS, ids.size());
+        for (int i = 0; i < RECORDS; i++) {
+            assertEquals(i, ids.get(i));
+        }
+    }
+
+    @Test
+    void givesEveryRecordWhenUnordered() {
+        List<Integer> ids = _ids(false);
+
+        assertEquals(RECORDS, ids.size());
+        TreeSet<Integer> sorted = new TreeSet<>(ids);
+        assertEquals(RECORDS, sorted.size());
+        assertEquals(0, sorted.first());
+        assertEquals(RECORDS - 1, sorted.last());
+    }
+
+    @Test
+    void skipsBlankLines() {
+        try (Stream<JsonParsedObject> records = JsonParser.parseLines(_input("\n{\"a\":1}\n   \n\t\n{\"a\":2}\r\n\n"), true, _executor)) {
+            assertEquals("[{\"a\":1}, {\"a\":2}]", records.map(JsonParsedObject::toJson).collect(Collectors.toList()).toString());
+        }
+        try (Stream<JsonParsedObject> records = JsonParser.parseLines(_input(""), true, _executor)) {
+            assertEquals(0, records.count());
+        }
+    }
+
+    @Test
+    void locatesErrorsByLine() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> {
+            try (Stream<JsonParsedObject> records = JsonParser.parseLines(_input("{\"a\":1}\n\n  \n{\"a\":}\n"), true, _executor)) {
+                records.count();
+            }
+        });
+        assertTrue(error.getMessage().endsWith(" on line 4"), error.getMessage());
+
+        // An error in a later batch
+        StringBuilder lines = new StringBuilder();
+        for (int i = 1; i <= 3 * JsonLinesSpliterator.BATCH_LINES; i++) {
+            lines.append(i == 600 ? "{\"a\":[1,}" : "{\"a\":" + i + "}").append('\n');
+        }
+        error = assertThrows(IllegalArgumentException.class, () -> {
+            try (Stream<JsonParsedObject> records = JsonParser.parseLines(_input(lines.toString()), false, _executor)) {
+                records.count();
+            }
+        });
+        assertTrue(error.getMessage().endsWith(" on line 600"), error.getMessage());
+    }
+
+    private List<Integer> _ids(boolean ordered) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < RECORDS; i++) {
+            lines.append("{\"id\":").append(i).append(",\"name\":\"n").append(i).append("\"}\n");
+        }
+        try (Stream<JsonParsedObject> records = JsonParser.parseLines(_input(lines.toString()), ordered, _executor)) {
+            return records.map(record -> (Integer)record.getField("id").getValue()).collect(Collectors.toList());
+        }
+    }
+
+    private static ByteArrayInputStream _input(String lines) {
+        return new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8));
+    }
+}
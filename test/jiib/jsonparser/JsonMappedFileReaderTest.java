@@ -0,0 +1,72 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Check JsonMappedFileReader : the chars decoded across the windows of the mapping, whatever their size
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonMappedFileReaderTest {
+
+    private static final String JSON = "{\"s\":\"aé€😀b\",\"t\":\"😀😀\",\"l\":[1,\"ß\"]}";
+
+    @TempDir
+    Path _directory;
+
+    @Test
+    void decodesCharsSplitBetweenWindows() throws IOException {
+        Path file = Files.writeString(_directory.resolve("split.json"), JSON, StandardCharsets.UTF_8);
+        JsonParsedObject expected = JsonParser.parse(JSON);
+
+        // Every multi-byte char is split at each of its bytes by one of these window sizes
+        for (int windowSize = 4; windowSize <= 16; windowSize++) {
+            try (JsonMappedFileReader reader = new JsonMappedFileReader(file, windowSize)) {
+                assertEquals(expected, JsonParser.parse(reader), "window of " + windowSize + " bytes");
+            }
+            assertEquals(JSON, _readByChar(file, windowSize), "window of " + windowSize + " bytes");
+        }
+    }
+
+    @Test
+    void readsTheWholeFileInOneWindow() throws IOException {
+        Path file = Files.writeString(_directory.resolve("whole.json"), JSON, StandardCharsets.UTF_8);
+
+        try (JsonReader reader = new JsonReader(file)) {
+            assertEquals(JsonToken.START_OBJECT, reader.next());
+        }
+        assertEquals(JsonParser.parse(JSON), JsonParser.parse(file));
+        assertEquals(JSON, _readByChar(file, JsonMappedFileReader.DEFAULT_WINDOW_SIZE));
+    }
+
+    @Test
+    void readsAnEmptyFile() throws IOException {
+        Path file = Files.createFile(_directory.resolve("empty.json"));
+
+        try (JsonMappedFileReader reader = new JsonMappedFileReader(file, 4)) {
+            assertEquals(-1, reader.read(new char[8], 0, 8));
+        }
+    }
+
+    /**
+     * Read a file one char at a time, so the surrogate pairs are given apart
+     */
+    private static String _readByChar(Path file, int windowSize) throws IOException {
+        StringBuilder chars = new StringBuilder();
+        char[] buffer = new char[1];
+        try (JsonMappedFileReader reader = new JsonMappedFileReader(file, windowSize)) {
+            while (reader.read(buffer, 0, 1) == 1) {
+                chars.append(buffer[0]);
+            }
+        }
+        return chars.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonNumberList : the lists of numbers kept as primitives, the kinds of their items, and the typed accessors
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonNumberListTest {
+
+    @Test
+    void widensIntegersToLongs() {
+        JsonParsedField field = _list("[1,3000000000,-2]");
+
+        assertInstanceOf(JsonNumberList.class, field.getValue());
+        _assertItems(field, JsonValueKind.INTEGER, JsonValueKind.LONG, JsonValueKind.INTEGER);
+        assertEquals(3000000000L, _items(field).get(1).getValue());
+        assertArrayEquals(new long[] {1, 3000000000L, -2}, field.getLongArray());
+        assertArrayEquals(new double[] {1, 3e9, -2}, field.getDoubleArray());
+        assertThrows(ClassCastException.class, field::getIntArray);
+        assertEquals("{\"l\":[1,3000000000,-2]}", JsonParser.parse("{\"l\":[1,3000000000,-2]}").toJson());
+    }
+
+    @Test
+    void inflatesMixedListsToFields() {
+        JsonParsedField field = _list("[1,2.5,\"x\",3000000000]");
+
+        assertInstanceOf(JsonFieldList.class, field.getValue());
+        _assertItems(field, JsonValueKind.INTEGER, JsonValueKind.DOUBLE, JsonValueKind.STRING, JsonValueKind.LONG);
+        _assertItems(_list("[1,2,null]"), JsonValueKind.INTEGER, JsonValueKind.INTEGER, JsonValueKind.NULL);
+        _assertItems(_list("[true,1]"), JsonValueKind.BOOLEAN, JsonValueKind.INTEGER);
+        assertThrows(ClassCastException.class, field::getDoubleArray);
+    }
+
+    @Test
+    void keepsNegativeZeroADouble() {
+        JsonParsedField doubles = _list("[-0.0,1.5]");
+        JsonParsedField mixed = _list("[1,-0.0]");
+
+        _assertItems(doubles, JsonValueKind.DOUBLE, JsonValueKind.DOUBLE);
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(doubles.getDoubleArray()[0]));
+        _assertItems(mixed, JsonValueKind.INTEGER, JsonValueKind.DOUBLE);
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(mixed.getDoubleArray()[1]));
+        assertEquals("{\"l\":[1,-0.0]}", JsonParser.parse("{\"l\":[1,-0.0]}").toJson());
+    }
+
+    @Test
+    void givesTheItemsThroughTheTypedAccessors() {
+        JsonParsedField ints = _list("[3,-1,2147483647]");
+        JsonParsedField doubles = _list("[0.5,2.0]");
+
+        assertArrayEquals(new int[] {3, -1, 2147483647}, ints.getIntArray());
+        assertArrayEquals(new long[] {3, -1, 2147483647}, ints.getLongArray());
+        assertArrayEquals(new double[] {3, -1, 2147483647}, ints.getDoubleArray());
+        assertArrayEquals(new double[] {0.5, 2.0}, doubles.getDoubleArray());
+        assertThrows(ClassCastException.class, doubles::getIntArray);
+        assertThrows(ClassCastException.class, doubles::getLongArray);
+        // The arrays are copies
+        ints.getIntArray()[0] = 42;
+        assertEquals(3, ints.getIntArray()[0]);
+        assertEquals("2", _items(doubles).get(1).getName());
+    }
+
+    @Test
+    void startsEachListAnew() {
+        JsonParsedObject object = JsonParser.parse("{\"a\":[1,\"x\"],\"b\":[2,3],\"c\":[],\"d\":[4.5]}");
+
+        assertInstanceOf(JsonFieldList.class, object.getField("a").getValue());
+        assertInstanceOf(JsonNumberList.class, object.getField("b").getValue());
+        assertInstanceOf(JsonFieldList.class, object.getField("c").getValue());
+        assertArrayEquals(new double[] {4.5}, object.getField("d").getDoubleArray());
+    }
+
+    private static JsonParsedField _list(String json) {
+        return JsonParser.parse("{\"l\":" + json + "}").getField("l");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<JsonParsedField> _items(JsonParsedField field) {
+        return (List<JsonParsedField>)field.getValue();
+    }
+
+    private static void _assertItems(JsonParsedField field, JsonValueKind... kinds) {
+        List<JsonParsedField> items = _items(field);
+        assertEquals(kinds.length, items.size());
+        for (int i = 0; i < kinds.length; i++) {
+            assertEquals(kinds[i], items.get(i).getKind());
+            assertEquals(String.valueOf(i + 1), items.get(i).getName());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonParsedObject : equality, the cached hashes cleared when the tree changes, and the frozen copies
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonParsedObjectTest {
+
+    @Test
+    void equalsWhateverTheOrderOfTheFields() {
+        JsonParsedObject object = JsonParser.parse("{\"a\":1,\"b\":[true,{\"c\":null}],\"d\":\"s\"}");
+        JsonParsedObject other = JsonParser.parse("{\"d\":\"s\",\"b\":[true,{\"c\":null}],\"a\":1}");
+
+        assertEquals(object, other);
+        assertEquals(object.hashCode(), other.hashCode());
+        assertNotEquals(object, JsonParser.parse("{\"a\":1,\"b\":[{\"c\":null},true],\"d\":\"s\"}"));
+        assertNotEquals(object, JsonParser.parse("{\"a\":1.0,\"b\":[true,{\"c\":null}],\"d\":\"s\"}"));
+    }
+
+    @Test
+    void clearsTheHashWhenANestedObjectChanges() {
+        JsonParsedObject object = JsonParser.parse("{\"a\":{\"b\":{\"c\":1}}}");
+        int hash = object.hashCode();
+
+        JsonParsedObject nested = (JsonParsedObject)((JsonParsedObject)object.getField("a").getValue()).getField("b").getValue();
+        nested.removeField(nested.getField("c"));
+
+        assertNotEquals(hash, object.hashCode());
+        assertEquals(JsonParser.parse("{\"a\":{\"b\":{}}}").hashCode(), object.hashCode());
+    }
+
+    @Test
+    void clearsTheHashWhenAListChanges() {
+        JsonParsedObject object = JsonParser.parse("{\"l\":[\"a\",\"b\"]}");
+        int hash = object.hashCode();
+
+        @SuppressWarnings("unchecked")
+        List<JsonParsedField> items = (List<JsonParsedField>)object.getField("l").getValue();
+        items.remove(1);
+
+        JsonParsedObject expected = JsonParser.parse("{\"l\":[\"a\"]}");
+        assertNotEquals(hash, object.hashCode());
+        assertEquals(expected, object);
+        assertEquals(expected.hashCode(), object.hashCode());
+    }
+
+    @Test
+    void clearsTheHashWhenAListNestedInAListChanges() {
+        JsonParsedObject object = JsonParser.parse("{\"o\":{\"l\":[[\"a\"],{\"x\":1}]}}");
+        int hash = object.hashCode();
+
+        @SuppressWarnings("unchecked")
+        List<JsonParsedField> items = (List<JsonParsedField>)((JsonParsedObject)object.getField("o").getValue()).getField("l").getValue();
+        @SuppressWarnings("unchecked")
+        List<JsonParsedField> nested = (List<JsonParsedField>)items.get(0).getValue();
+        nested.clear();
+
+        assertNotEquals(hash, object.hashCode());
+        assertEquals(JsonParser.parse("{\"o\":{\"l\":[[],{\"x\":1}]}}").hashCode(), object.hashCode());
+    }
+
+    @Test
+    void keepsListsOfNumbersReadOnly() {
+        JsonParsedObject object = JsonParser.parse("{\"l\":[1,2]}");
+
+        @SuppressWarnings("unchecked")
+        List<JsonParsedField> items = (List<JsonParsedField>)object.getField("l").getValue();
+        assertThrows(UnsupportedOperationException.class, () -> items.remove(0));
+    }
+
+    @Test
+    void comparesStructures() {
+        JsonParsedObject object = JsonParser.parse("{\"a\":1,\"b\":null}");
+
+        assertTrue(object.hasSameStructure(JsonParser.parse("{\"a\":2,\"b\":null}")));
+        assertFalse(object.hasSameStructure(JsonParser.parse("{\"b\":null,\"a\":2}")));
+        assertFalse(object.hasSameStructure(JsonParser.parse("{\"a\":\"2\",\"b\":null}")));
+        assertEquals(object.getShapeFingerprint(), JsonParser.parse("{\"a\":2,\"b\":null}").getShapeFingerprint());
+    }
+
+    @Test
+    void rejectsAnyChangeOfAFrozenTree() {
+        JsonParsedObject frozen = JsonParser.parse("{\"a\":1,\"o\":{\"b\":true},\"l\":[\"x\",{\"c\":null}],\"n\":[1,2]}").freeze();
+        JsonParsedObject nested = (JsonParsedObject)frozen.getField("o").getValue();
+        @SuppressWarnings("unchecked")
+        List<JsonParsedField> items = (List<JsonParsedField>)frozen.getField("l").getValue();
+        @SuppressWarnings("unchecked")
+        List<JsonParsedField> numbers = (List<JsonParsedField>)frozen.getField("n").getValue();
+        JsonParsedObject item = (JsonParsedObject)items.get(1).getValue();
+        JsonParsedField field = new JsonParsedField("z", JsonValueKind.NULL, (Object)null);
+
+        assertTrue(frozen.isFrozen());
+        assertTrue(nested.isFrozen());
+        assertTrue(item.isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addField(field));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.removeField(frozen.getField("a")));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.replaceField(frozen.getField("a"), field.rename("a")));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.getFields().clear());
+        assertThrows(UnsupportedOperationException.class, () -> nested.addField(field));
+        assertThrows(UnsupportedOperationException.class, () -> nested.removeField(nested.getField("b")));
+        assertThrows(UnsupportedOperationException.class, () -> item.addField(field));
+        assertThrows(UnsupportedOperationException.class, () -> items.add(field));
+        assertThrows(UnsupportedOperationException.class, () -> items.set(0, field));
+        assertThrows(UnsupportedOperationException.class, () -> items.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> numbers.remove(0));
+        assertEquals(JsonParser.parse("{\"a\":1,\"o\":{\"b\":true},\"l\":[\"x\",{\"c\":null}],\"n\":[1,2]}"), frozen);
+    }
+
+    @Test
+    void freezesACopy() {
+        JsonParsedObject object = JsonParser.parseLazy("{\"a\":1,\"o\":{\"b\":[true]}}");
+        JsonParsedObject frozen = object.freeze();
+
+        assertNotSame(object, frozen);
+        assertSame(frozen, frozen.freeze());
+        assertFalse(object.isFrozen());
+        assertEquals(object, frozen);
+
+        // The source stays mutable, and its changes do not reach the frozen copy
+        object.addField(new JsonParsedField("c", JsonValueKind.STRING, "s"));
+        JsonParsedObject nested = (JsonParsedObject)object.getField("o").getValue();
+        nested.removeField(nested.getField("b"));
+        assertEquals(JsonParser.parse("{\"a\":1,\"o\":{},\"c\":\"s\"}"), object);
+        assertEquals(JsonParser.parse("{\"a\":1,\"o\":{\"b\":[true]}}"), frozen);
+    }
+
+    @Test
+    void findsTheFieldsOfAWideFrozenObject() {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "" : ",").append("\"f").append(i).append("\":").append(i);
+        }
+        JsonParsedObject frozen = JsonParser.parse(json.append('}').toString()).freeze();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, frozen.getField("f" + i).getValue());
+        }
+        // Names of the same hash, and names missing from a table whose slots are partly filled
+        assertNull(frozen.getField("f100"));
+        assertNull(frozen.getField("F1"));
+        assertNull(frozen.getField(""));
+        assertNull(frozen.getField("Aa"));
+        assertNull(frozen.getField("BB"));
+    }
+}
@@ -0,0 +1,107 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check the measures given to the listeners, and their sums kept by JsonParserStats
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonParserStatsTest {
+
+    public static class Point {
+        public Point(Integer x, Integer y) {}
+    }
+
+    @Test
+    void measuresEveryOperation() {
+        List<JsonParseMetrics> measures = new ArrayList<>();
+        JsonParserListener listener = measures::add;
+        JsonParser.addListener(listener);
+        try {
+            JsonParsedObject object = JsonParser.parse("{\"a\":[1,2],\"b\":{\"c\":true}}");
+            object.toJson();
+            JsonParser.parse("{\"x\":1,\"y\":2}").tryDeserializing(Point.class);
+            assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{\"a\":[1,}"));
+            JsonParsedObject partial = JsonParser.parse("{\"x\":1}");
+            assertThrows(ClassCastException.class, () -> partial.tryDeserializing(Point.class));
+        }
+        finally {
+            assertTrue(JsonParser.removeListener(listener));
+        }
+
+        assertEquals(7, measures.size());
+        _assertMeasure(measures.get(0), JsonParseMetrics.Operation.PARSE, 26, 13, 2, false);
+        _assertMeasure(measures.get(1), JsonParseMetrics.Operation.TO_JSON, 26, 0, 0, false);
+        _assertMeasure(measures.get(2), JsonParseMetrics.Operation.PARSE, 13, 7, 1, false);
+        _assertMeasure(measures.get(3), JsonParseMetrics.Operation.DESERIALIZE, 0, 0, 0, false);
+        _assertMeasure(measures.get(4), JsonParseMetrics.Operation.PARSE, 8, 4, 2, true);
+        assertInstanceOf(IllegalArgumentException.class, measures.get(4).getError());
+        _assertMeasure(measures.get(6), JsonParseMetrics.Operation.DESERIALIZE, 0, 0, 0, true);
+
+        // Nothing is measured once the listener is removed
+        JsonParser.parse("{\"a\":1}").toJson();
+        assertEquals(7, measures.size());
+        assertFalse(JsonParser.removeListener(listener));
+    }
+
+    @Test
+    void sumsTheMeasures() {
+        JsonParserStats stats = new JsonParserStats();
+        JsonParser.addListener(stats);
+        try {
+            JsonParser.parse("{\"a\":[1,2],\"b\":{\"c\":true}}").toJson();
+            assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{\"a\":[1,}"));
+            JsonParser.parse("{\"x\":1,\"y\":2}").tryDeserializing(Point.class);
+        }
+        finally {
+            JsonParser.removeListener(stats);
+        }
+
+        assertEquals(3, stats.getParseCount());
+        assertEquals(1, stats.getParseErrorCount());
+        assertEquals(26 + 8 + 13, stats.getCharCount());
+        assertEquals(13 + 4 + 7, stats.getTokenCount());
+        assertEquals(2, stats.getMaxDepth());
+        assertEquals(1, stats.getToJsonCount());
+        assertEquals(1, stats.getDeserializeCount());
+        assertEquals(0, stats.getDeserializeErrorCount());
+
+        stats.reset();
+        assertEquals(0, stats.getParseCount());
+        assertEquals(0, stats.getTokenCount());
+        assertEquals(0, stats.getMaxDepth());
+    }
+
+    @Test
+    void countsTheAllocationsAgainAfterAReset() {
+        JsonParserStats stats = new JsonParserStats();
+        stats.operationDone(new JsonParseMetrics(JsonParseMetrics.Operation.TO_JSON, 2, 0, 0, 0, 0, 10, 0, -1, null));
+        assertEquals(-1, stats.getAllocatedBytes());
+
+        stats.reset();
+        assertEquals(0, stats.getAllocatedBytes());
+        stats.operationDone(new JsonParseMetrics(JsonParseMetrics.Operation.TO_JSON, 2, 0, 0, 0, 0, 10, 0, 64, null));
+        assertEquals(64, stats.getAllocatedBytes());
+    }
+
+    private static void _assertMeasure(JsonParseMetrics metrics, JsonParseMetrics.Operation operation, long chars, long tokens, int depth, boolean failed) {
+        assertEquals(operation, metrics.getOperation());
+        assertEquals(chars, metrics.getCharCount());
+        assertEquals(tokens, metrics.getTokenCount());
+        assertEquals(depth, metrics.getMaxDepth());
+        assertTrue(metrics.getTotalNanos() >= 0);
+        if (failed) assertTrue(metrics.getError() != null);
+        else assertNull(metrics.getError());
+    }
+}
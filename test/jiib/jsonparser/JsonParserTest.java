@@ -0,0 +1,243 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jiib.jsonparser.util.DottedPath;
+
+/**
+ * Check JsonParser and JsonReader : the values and kinds parsed, and the errors with their positions
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonParserTest {
+
+    private static final String SAMPLE = " {\"s\" : \"a\\u00e9\\n\\\"\" , \"i\":-12, \"l\":3000000000, \"d\":2.5e-3, \"t\":true, \"f\":false, \"n\":null,"
+        + " \"list\":[1,\"x\",{\"o\":[]}], \"obj\":{}} ";
+
+    @Test
+    void parsesEveryKindOfValue() {
+        JsonParsedObject object = JsonParser.parse(SAMPLE);
+
+        assertEquals(9, object.getFieldCount());
+        assertEquals("a\u00e9\n\"", object.getField("s").getValue());
+        assertEquals(JsonValueKind.INTEGER, object.getField("i").getKind());
+        assertEquals(-12, object.getField("i").getInt());
+        assertEquals(JsonValueKind.LONG, object.getField("l").getKind());
+        assertEquals(3000000000L, object.getField("l").getLong());
+        assertEquals(JsonValueKind.DOUBLE, object.getField("d").getKind());
+        assertEquals(2.5e-3, object.getField("d").getDouble());
+        assertTrue(object.getField("t").getBoolean());
+        assertFalse(object.getField("f").getBoolean());
+        assertEquals(JsonValueKind.NULL, object.getField("n").getKind());
+        assertNull(object.getField("n").getValue());
+        assertEquals(JsonValueKind.OBJECT, object.getField("obj").getKind());
+        assertEquals(0, ((JsonParsedObject)object.getField("obj").getValue()).getFieldCount());
+        assertNull(object.getField("missing"));
+    }
+
+    @Test
+    void namesListItemsAfterTheirIndex() {
+        JsonParsedObject object = JsonParser.parse(SAMPLE);
+
+        @SuppressWarnings("unchecked")
+        List<JsonParsedField> items = (List<JsonParsedField>)object.getField("list").getValue();
+        assertEquals(3, items.size());
+        assertEquals("1", items.get(0).getName());
+        assertEquals(JsonValueKind.STRING, items.get(1).getKind());
+        assertEquals(JsonValueKind.OBJECT, items.get(2).getKind());
+        assertEquals(JsonValueKind.LIST, object.getField(new DottedPath("list.3.o")).getKind());
+    }
+
+    @Test
+    void keepsBigNumbersExact() {
+        JsonParsedObject object = JsonParser.parse("{\"i\":123456789012345678901234567890,\"d\":3.14159265358979323846264338327950288}");
+
+        assertEquals(JsonValueKind.BIG_INTEGER, object.getField("i").getKind());
+        assertEquals(new BigInteger("123456789012345678901234567890"), object.getField("i").getValue());
+        assertEquals(JsonValueKind.BIG_DECIMAL, object.getField("d").getKind());
+        assertEquals(new BigDecimal("3.14159265358979323846264338327950288"), object.getField("d").getValue());
+    }
+
+    @Test
+    void parsesTheSameTreeFromEveryInput() {
+        JsonParsedObject expected = JsonParser.parse(SAMPLE);
+        byte[] bytes = SAMPLE.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(expected, JsonParser.parse(new StringReader(SAMPLE)));
+        assertEquals(expected, JsonParser.parse(new ByteArrayInputStream(bytes)));
+        assertEquals(expected, JsonParser.parse(bytes));
+        assertEquals(expected, JsonParser.parse(expected.toJson()));
+    }
+
+    @Test
+    void readsEveryInputWithTheSameParser() {
+        String json = "{\"s\":\"\u00e9\u20ac\ud83d\ude00\",\"l\":[1,2]}";
+        JsonParsedObject expected = JsonParser.parse(json);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        JsonParser parser = new JsonParser();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected, parser.read(bytes));
+            assertEquals(expected, parser.read(direct));
+            assertEquals(expected, parser.read(new ByteArrayInputStream(bytes)));
+            // A stream giving its bytes one at a time splits every multi-byte char
+            assertEquals(expected, parser.read(new ByteArrayInputStream(bytes) {
+                @Override
+                public synchronized int read(byte[] buffer, int offset, int length) {
+                    return super.read(buffer, offset, Math.min(length, 1));
+                }
+            }));
+            assertEquals(expected, parser.read(json));
+        }
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    void reusesTheParserOfTheThread() throws InterruptedException {
+        JsonParser parser = JsonParser.local();
+        assertSame(parser, JsonParser.local());
+
+        JsonParsedObject first = parser.read(SAMPLE);
+        JsonParsedObject second = JsonParser.local().read("{\"a\":[1,{\"b\":\"c\"}]}");
+        // The trees built do not share the buffers reused from a call to the next
+        assertEquals(JsonParser.parse(SAMPLE), first);
+        assertEquals(JsonParser.parse("{\"a\":[1,{\"b\":\"c\"}]}"), second);
+
+        JsonParser[] other = new JsonParser[1];
+        Thread thread = new Thread(() -> other[0] = JsonParser.local());
+        thread.start();
+        thread.join();
+        assertNotSame(parser, other[0]);
+    }
+
+    @Test
+    void guardsAgainstReentrantParsing() {
+        JsonParser parser = JsonParser.local();
+        List<Object> calledBack = new ArrayList<>();
+        // A Reader calling the parser back while it is parsing
+        StringReader reader = new StringReader("{\"a\":1}") {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (calledBack.isEmpty()) {
+                    calledBack.add(JsonParser.local());
+                    calledBack.add(assertThrows(IllegalStateException.class, () -> parser.read("{}")));
+                    calledBack.add(assertThrows(IllegalStateException.class, parser::reset));
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        assertEquals(JsonParser.parse("{\"a\":1}"), parser.read(reader));
+        assertEquals(3, calledBack.size());
+        assertNotSame(parser, calledBack.get(0));
+        // The parser is released after the parsing, even a failed one
+        assertThrows(IllegalArgumentException.class, () -> parser.read("{\"a\":}"));
+        assertSame(parser, JsonParser.local());
+        assertEquals(JsonParser.parse("{}"), parser.read("{}"));
+    }
+
+    @Test
+    void dropsTheBuffersGrownTooBig() {
+        // A number longer than the default buffer can only be read from a Reader by a parser which kept a bigger buffer
+        String number = "{\"n\":" + "1".repeat(2 * JsonCursor.DEFAULT_BUFFER_SIZE) + "}";
+        JsonParser parser = new JsonParser();
+
+        parser.read(_longExpression(JsonParser.MAX_RETAINED_SIZE / 2));
+        assertEquals(JsonValueKind.BIG_INTEGER, parser.read(new StringReader(number)).getField("n").getKind());
+
+        parser.read(_longExpression(2 * JsonParser.MAX_RETAINED_SIZE));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> parser.read(new StringReader(number)));
+        assertTrue(error.getMessage().contains("token longer than the " + JsonCursor.DEFAULT_BUFFER_SIZE + " chars buffer"), error.getMessage());
+
+        parser.read(_longExpression(JsonParser.MAX_RETAINED_SIZE / 2));
+        parser.reset();
+        assertThrows(IllegalArgumentException.class, () -> parser.read(new StringReader(number)));
+    }
+
+    private static String _longExpression(int length) {
+        return "{\"s\":\"" + "x".repeat(length - 8) + "\"}";
+    }
+
+    @Test
+    void parsesRootValues() {
+        assertEquals(JsonValueKind.LIST, JsonParser.parseValue("[1,2]").getKind());
+        assertEquals(12, JsonParser.parseValue(" 12 ").getInt());
+        assertEquals("s", JsonParser.parseValue("\"s\"").getValue());
+        assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("[1]"));
+    }
+
+    @Test
+    void rejectsTrailingContent() {
+        _assertError("{\"a\":1} x", "Invalid Json expression : unexpected char 'x' after the root value at position 8");
+        _assertError("{\"a\":1}}", "Invalid Json expression : unexpected char '}' after the root value at position 7");
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> JsonParser.parseValue("1 2"));
+        assertEquals("Invalid Json expression : unexpected char '2' after the root value at position 2", error.getMessage());
+    }
+
+    @Test
+    void locatesErrors() {
+        _assertError("", "Invalid Json expression : unexpected end of input, expecting a value at position 0");
+        _assertError("{\"a\":1,}", "Invalid Json expression : expecting a field name but found '}' at position 7");
+        _assertError("{\"a\":1 \"b\":2}", "Invalid Json expression : expecting ',' or '}' but found '\"' at position 7");
+        _assertError("{\"a\":}", "Invalid value for field : \"a\", unexpected char '}' at position 5");
+        _assertError("{\"a\":[1,]}", "Invalid value for field : \"a\", unexpected char ']' at position 8");
+        _assertError("{\"a\":tru}", "Invalid value for field : \"a\" at position 5");
+        _assertError("{\"a\":01}", "Invalid value for field : \"a\" at position 6");
+        _assertError("{\"a\":1.}", "Invalid value for field : \"a\", digits are expected after the '.' at position 7");
+        _assertError("{\"a\":\"x}", "Invalid string value for field : \"a\", the string is never closed at position 8");
+        _assertError("{\"a\":\"\\x\"}", "Invalid string value for field : \"a\", invalid escape sequence '\\x' at position 6");
+    }
+
+    @Test
+    void rejectsDuplicatedNames() {
+        assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{\"a\":1,\"a\":2}"));
+    }
+
+    @Test
+    void readsTokensWithTheirDepth() {
+        JsonReader reader = new JsonReader("{\"a\":[1,true],\"b\":\"s\"}");
+        List<String> tokens = new ArrayList<>();
+        for (JsonToken token = reader.next(); token != JsonToken.END_DOCUMENT; token = reader.next()) {
+            tokens.add(token + "/" + reader.getDepth());
+        }
+
+        assertEquals(List.of("START_OBJECT/1", "FIELD_NAME/1", "START_ARRAY/2", "VALUE_NUMBER/2", "VALUE_TRUE/2", "END_ARRAY/1",
+            "FIELD_NAME/1", "VALUE_STRING/1", "END_OBJECT/0"), tokens);
+    }
+
+    @Test
+    void skipsValues() {
+        JsonReader reader = new JsonReader("{\"a\":{\"b\":[1,{\"c\":2}]},\"d\":3}");
+        assertEquals(JsonToken.START_OBJECT, reader.next());
+        assertEquals(JsonToken.FIELD_NAME, reader.next());
+        reader.skipValue();
+        assertEquals(JsonToken.FIELD_NAME, reader.next());
+        assertEquals("d", reader.getString());
+        assertEquals(JsonToken.VALUE_NUMBER, reader.next());
+        assertEquals(3, reader.getInt());
+    }
+
+    private static void _assertError(String json, String message) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> JsonParser.parse(json));
+        assertEquals(message, error.getMessage());
+    }
+}
@@ -0,0 +1,210 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonPatch : the patches computed by diff, their Json expression, and their application
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonPatchTest {
+
+    private static final String[] NAMES = {"a", "b", "c", "d/e", "f~g"};
+
+    @Test
+    void diffsBigNumbersWithTheSameJavaHashCode() {
+        // Both values have the same BigInteger.hashCode()
+        JsonParsedObject source = JsonParser.parse("{\"a\":18446744073709551647}");
+        JsonParsedObject target = JsonParser.parse("{\"a\":18446744078004518912}");
+        assertEquals(source.getField("a").getValue().hashCode(), target.getField("a").getValue().hashCode());
+        assertNotEquals(source, target);
+
+        JsonPatch patch = JsonPatch.diff(source, target);
+
+        assertEquals("[{\"op\":\"replace\",\"path\":\"/a\",\"value\":18446744078004518912}]", patch.toJson());
+        patch.apply(source);
+        assertEquals(target, source);
+    }
+
+    @Test
+    void diffsEqualObjectsToAnEmptyPatch() {
+        JsonParsedObject source = JsonParser.parse("{\"a\":[1,{\"b\":2.50}],\"c\":null}");
+        JsonParsedObject target = JsonParser.parse("{\"c\":null,\"a\":[1,{\"b\":2.50}]}");
+
+        assertTrue(JsonPatch.diff(source, target).isEmpty());
+    }
+
+    @Test
+    void diffsBigDecimalsOfAnotherScale() {
+        JsonParsedObject source = JsonParser.parse("{\"a\":1.00000000000000000001}");
+        JsonParsedObject target = JsonParser.parse("{\"a\":1.000000000000000000010}");
+
+        JsonPatch patch = JsonPatch.diff(source, target);
+        assertEquals(1, patch.getOperations().size());
+    }
+
+    @Test
+    void appliesEveryOperation() {
+        JsonParsedObject object = JsonParser.parse("{\"a\":1,\"l\":[1,2],\"o\":{\"p\":true},\"x/y\":0}");
+
+        JsonPatch.parse("[{\"op\":\"add\",\"path\":\"/l/-\",\"value\":3},"
+            + "{\"op\":\"add\",\"path\":\"/l/0\",\"value\":0},"
+            + "{\"op\":\"remove\",\"path\":\"/a\"},"
+            + "{\"op\":\"replace\",\"path\":\"/o/p\",\"value\":{\"q\":[]}},"
+            + "{\"op\":\"move\",\"from\":\"/x~1y\",\"path\":\"/o/p/q/0\"},"
+            + "{\"op\":\"copy\",\"from\":\"/l\",\"path\":\"/c\"},"
+            + "{\"op\":\"test\",\"path\":\"/c/3\",\"value\":3}]").apply(object);
+
+        assertEquals(JsonParser.parse("{\"l\":[0,1,2,3],\"o\":{\"p\":{\"q\":[0]}},\"c\":[0,1,2,3]}"), object);
+    }
+
+    @Test
+    void appliesAsAWhole() {
+        String json = "{\"a\":1,\"l\":[1,2],\"o\":{\"p\":true}}";
+        JsonParsedObject object = JsonParser.parse(json);
+
+        _assertFails(object, "[{\"op\":\"add\",\"path\":\"/b\",\"value\":2},{\"op\":\"remove\",\"path\":\"/zz\"}]");
+        _assertFails(object, "[{\"op\":\"add\",\"path\":\"/l/-\",\"value\":3},{\"op\":\"move\",\"from\":\"/o\",\"path\":\"/a\"},"
+            + "{\"op\":\"add\",\"path\":\"\",\"value\":{\"q\":1}},{\"op\":\"test\",\"path\":\"/q\",\"value\":2}]");
+        _assertFails(object, "[{\"op\":\"remove\",\"path\":\"/l/0\"},{\"op\":\"replace\",\"path\":\"/o/p\",\"value\":[1]},"
+            + "{\"op\":\"copy\",\"from\":\"/l\",\"path\":\"/o/p/0\"},{\"op\":\"remove\",\"path\":\"/x/y\"}]");
+
+        assertEquals(json, object.toJson());
+    }
+
+    @Test
+    void changesListsInPlace() {
+        JsonParsedObject object = JsonParser.parse("{\"l\":[{\"a\":1},\"x\",{\"b\":[true]}]}");
+        List<?> items = (List<?>)object.getField("l").getValue();
+        Object nested = ((JsonParsedObject)((JsonParsedField)items.get(2)).getValue()).getField("b").getValue();
+
+        JsonPatch.parse("[{\"op\":\"add\",\"path\":\"/l/2/b/0\",\"value\":false},"
+            + "{\"op\":\"remove\",\"path\":\"/l/1\"},"
+            + "{\"op\":\"replace\",\"path\":\"/l/0/a\",\"value\":2}]").apply(object);
+
+        assertEquals(JsonParser.parse("{\"l\":[{\"a\":2},{\"b\":[false,true]}]}"), object);
+        assertSame(items, object.getField("l").getValue());
+        assertSame(nested, ((JsonParsedObject)((JsonParsedField)items.get(1)).getValue()).getField("b").getValue());
+        _assertNamedAfterIndex(items);
+    }
+
+    @Test
+    void inflatesListsOfNumbersOnce() {
+        JsonParsedObject object = JsonParser.parse("{\"l\":[1,2,3],\"m\":[[4.5,5.5]]}");
+        String json = object.toJson();
+
+        _assertFails(object, "[{\"op\":\"add\",\"path\":\"/l/0\",\"value\":0},{\"op\":\"remove\",\"path\":\"/zz\"}]");
+        assertEquals(json, object.toJson());
+
+        JsonPatch.parse("[{\"op\":\"add\",\"path\":\"/l/0\",\"value\":0},"
+            + "{\"op\":\"replace\",\"path\":\"/l/3\",\"value\":\"c\"},"
+            + "{\"op\":\"remove\",\"path\":\"/m/0/0\"},"
+            + "{\"op\":\"copy\",\"from\":\"/l\",\"path\":\"/c\"},"
+            + "{\"op\":\"test\",\"path\":\"/c/1\",\"value\":1}]").apply(object);
+
+        assertEquals(JsonParser.parse("{\"l\":[0,1,2,\"c\"],\"m\":[[5.5]],\"c\":[0,1,2,\"c\"]}"), object);
+        _assertNamedAfterIndex((List<?>)object.getField("l").getValue());
+        _assertNamedAfterIndex((List<?>)object.getField("c").getValue());
+        _assertNamedAfterIndex((List<?>)((JsonParsedField)((List<?>)object.getField("m").getValue()).get(0)).getValue());
+    }
+
+    @Test
+    void namesListItemsAfterTheirIndex() {
+        StringBuilder json = new StringBuilder("{\"l\":[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",").append("\"v").append(i).append('"');
+        }
+        JsonParsedObject object = JsonParser.parse(json.append("]}").toString());
+
+        StringBuilder patch = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            patch.append(i == 0 ? "" : ",").append("{\"op\":\"remove\",\"path\":\"/l/").append(i * 3).append("\"}");
+            patch.append(",{\"op\":\"add\",\"path\":\"/l/").append(i * 5).append("\",\"value\":").append(i).append('}');
+        }
+        JsonPatch.parse(patch.append(']').toString()).apply(object);
+
+        List<?> items = (List<?>)object.getField("l").getValue();
+        assertEquals(1000, items.size());
+        _assertNamedAfterIndex(items);
+    }
+
+    @Test
+    void rejectsInvalidPatches() {
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.parse("{}"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.parse("[{\"op\":\"swap\",\"path\":\"/a\"}]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.parse("[{\"op\":\"add\",\"path\":\"/a\"}]"));
+        assertThrows(IllegalArgumentException.class,
+            () -> JsonPatch.parse("[{\"op\":\"move\",\"from\":\"/a\",\"path\":\"/a/b\"}]").apply(JsonParser.parse("{\"a\":{}}")));
+    }
+
+    @Test
+    void roundTripsRandomTrees() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            JsonParsedObject source = JsonParser.parse(_randomObject(random, 3));
+            JsonParsedObject target = JsonParser.parse(_randomObject(random, 3));
+            // The hashes are cached before the patch changes the object
+            source.hashCode();
+
+            JsonPatch patch = JsonPatch.parse(JsonPatch.diff(source, target).toJson());
+            patch.apply(source);
+
+            assertEquals(target, source);
+            assertTrue(JsonPatch.diff(source, target).isEmpty());
+        }
+    }
+
+    private static void _assertNamedAfterIndex(List<?> items) {
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(String.valueOf(i + 1), ((JsonParsedField)items.get(i)).getName());
+        }
+    }
+
+    private static void _assertFails(JsonParsedObject object, String patch) {
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.parse(patch).apply(object));
+    }
+
+    private static String _randomObject(Random random, int depth) {
+        StringBuilder json = new StringBuilder("{");
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append('"').append(NAMES[(i + random.nextInt(2)) % NAMES.length]).append(i).append("\":").append(_randomValue(random, depth));
+        }
+        return json.append('}').toString();
+    }
+
+    private static String _randomValue(Random random, int depth) {
+        switch (random.nextInt(depth > 0 ? 7 : 5)) {
+            case 0:
+                return Integer.toString(random.nextInt(3));
+            case 1:
+                return "\"s" + random.nextInt(3) + "\"";
+            case 2:
+                return random.nextBoolean() ? "null" : "true";
+            case 3:
+                return random.nextBoolean() ? "18446744073709551647" : "18446744078004518912";
+            case 4:
+                return random.nextBoolean() ? "0.5" : "1.50";
+            case 5:
+                StringBuilder list = new StringBuilder("[");
+                int size = random.nextInt(4);
+                for (int i = 0; i < size; i++) {
+                    if (i > 0) list.append(',');
+                    list.append(_randomValue(random, depth - 1));
+                }
+                return list.append(']').toString();
+            default:
+                return _randomObject(random, depth - 1);
+        }
+    }
+}
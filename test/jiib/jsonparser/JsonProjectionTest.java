@@ -0,0 +1,54 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import jiib.jsonparser.util.DottedPath;
+
+/**
+ * Check JsonProjection : the fields kept while parsing, the list items numbered again, and the "*" node
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonProjectionTest {
+
+    @Test
+    void numbersTheKeptListItemsFromOne() {
+        JsonParsedObject object = JsonParser.parse("{\"items\":[{\"x\":1,\"y\":\"a\"},{\"y\":\"b\"},{\"x\":3,\"y\":\"c\"}],\"z\":0}",
+            JsonProjection.of("items.3.x", "items.1.y"));
+
+        assertEquals("{\"items\":[{\"y\":\"a\"},{\"x\":3}]}", object.toJson());
+        // The third item of the expression is now the second one
+        assertEquals(3, object.getField(new DottedPath("items.2.x")).getValue());
+        assertThrows(IllegalArgumentException.class, () -> object.getField(new DottedPath("items.3.x")));
+    }
+
+    @Test
+    void spreadsAnyToTheNamedSiblings() {
+        JsonParsedObject object = JsonParser.parse("{\"a\":{\"k\":{\"b\":1,\"c\":2,\"d\":3},\"j\":{\"b\":4,\"c\":5}},"
+            + "\"user\":{\"id\":1,\"name\":\"n\",\"x\":0},\"o\":{\"id\":2,\"name\":\"m\"}}",
+            JsonProjection.of("a.*.b", "a.k.c", "*.id", "user.name"));
+
+        assertEquals("{\"a\":{\"k\":{\"b\":1,\"c\":2},\"j\":{\"b\":4}},\"user\":{\"id\":1,\"name\":\"n\"},\"o\":{\"id\":2}}", object.toJson());
+    }
+
+    @Test
+    void selectsListItemsWithAny() {
+        JsonParsedObject object = JsonParser.parse("{\"l\":[{\"a\":1,\"b\":2},{\"a\":3,\"b\":4}],\"m\":[[1,2],[3]]}",
+            JsonProjection.of("l.*.a", "l.2", "m.*.2"));
+
+        // A whole item wins over the fields selected by "*", and a list with no item selected is kept empty
+        assertEquals("{\"l\":[{\"a\":1},{\"a\":3,\"b\":4}],\"m\":[[2],[]]}", object.toJson());
+    }
+
+    @Test
+    void keepsAWholeValueOverItsChildren() {
+        String json = "{\"a\":{\"b\":{\"c\":1},\"d\":[2]},\"e\":3}";
+
+        assertEquals("{\"a\":{\"b\":{\"c\":1},\"d\":[2]}}", JsonParser.parse(json, JsonProjection.of("a.b.c", "a")).toJson());
+        assertEquals("{\"a\":{\"b\":{\"c\":1},\"d\":[2]}}", JsonParser.parse(json, JsonProjection.of("a", "a.b.c")).toJson());
+        assertThrows(IllegalArgumentException.class, () -> JsonProjection.of("a", ""));
+    }
+}
@@ -0,0 +1,93 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonShape : the objects read through their expected fields, and the fallback to the usual parsing
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonShapeTest {
+
+    private static final String SAMPLE = "{\"id\":1,\"name\":\"a\",\"tags\":[{\"k\":\"x\"}],\"f3\":0,\"f4\":0,\"f5\":0,\"f6\":0,\"f7\":0,\"f8\":0}";
+
+    @Test
+    void readsTheFieldsOfTheShape() {
+        JsonShape shape = JsonShape.of(JsonParser.parse(SAMPLE));
+        String json = "{\"id\":2,\"name\":\"b\",\"tags\":[{\"k\":\"y\"},{\"k\":\"z\"}],\"f3\":1,\"f4\":2,\"f5\":3,\"f6\":4,\"f7\":5,\"f8\":6}";
+
+        JsonParsedObject object = JsonParser.parse(json, shape);
+
+        assertEquals(JsonParser.parse(json), object);
+        assertEquals(9, shape.getFieldCount());
+        // The fields matched in place are named by the Strings of the shape
+        List<JsonParsedField> fields = object.getFieldsRef();
+        for (int i = 0; i < shape.getFieldCount(); i++) {
+            assertSame(shape.getFieldName(i), fields.get(i).getName());
+            assertSame(fields.get(i), object.getField(shape.getFieldName(i)));
+        }
+        assertNull(object.getField("missing"));
+        @SuppressWarnings("unchecked")
+        JsonParsedObject tag = (JsonParsedObject)((List<JsonParsedField>)object.getField("tags").getValue()).get(1).getValue();
+        assertSame(shape.child(2).getFieldName(0), tag.getFieldsRef().get(0).getName());
+    }
+
+    @Test
+    void fallsBackOnOtherFields() {
+        JsonShape shape = JsonShape.of(JsonParser.parse("{\"a\":1,\"b\":2,\"c\":3}"));
+
+        for (String json : new String[] {"{\"a\":1,\"c\":3,\"b\":2}", "{\"a\":1,\"b\":2,\"c\":3,\"d\":4}", "{\"a\":1,\"b\":2}", "{\"x\":[],\"a\":1}", "{}"}) {
+            JsonParsedObject object = JsonParser.parse(json, shape);
+            assertEquals(JsonParser.parse(json), object);
+            assertEquals(json, object.toJson());
+        }
+        JsonParsedObject reordered = JsonParser.parse("{\"a\":1,\"c\":3,\"b\":2}", shape);
+        assertSame(shape.getFieldName(0), reordered.getFieldsRef().get(0).getName());
+        assertNotSame(shape.getFieldName(2), reordered.getField("c").getName());
+        assertEquals(3, reordered.getField("c").getValue());
+    }
+
+    @Test
+    void rejectsDuplicatedNames() {
+        JsonShape shape = JsonShape.of(JsonParser.parse("{\"a\":1,\"b\":2}"));
+
+        assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{\"a\":1,\"b\":2,\"a\":3}", shape));
+        assertThrows(IllegalArgumentException.class, () -> JsonParser.parse("{\"a\":1,\"a\":2}", shape));
+    }
+
+    @Test
+    void detachesFromTheShapeWhenChanged() {
+        JsonShape shape = JsonShape.of(JsonParser.parse(SAMPLE));
+        JsonParsedObject object = JsonParser.parse(SAMPLE, shape);
+
+        object.addField(new JsonParsedField("extra", JsonValueKind.BOOLEAN, 1));
+        object.removeField(object.getField("name"));
+
+        assertEquals(true, object.getField("extra").getValue());
+        assertNull(object.getField("name"));
+        assertEquals(0, object.getField("f8").getValue());
+        assertEquals(1, object.getField("id").getValue());
+        // The shape itself is left unchanged
+        assertEquals("name", shape.getFieldName(1));
+        assertEquals(JsonShape.of(JsonParser.parse(SAMPLE)), shape);
+    }
+
+    @Test
+    void learnsOnlyFromMatchingSamples() {
+        JsonShape shape = JsonShape.learn(List.of(JsonParser.parse("{\"a\":1,\"b\":\"s\"}"), JsonParser.parse("{\"a\":2.5,\"b\":\"t\"}")));
+
+        assertNull(shape.getFieldKind(0));
+        assertEquals(JsonValueKind.STRING, shape.getFieldKind(1));
+        assertThrows(IllegalArgumentException.class,
+            () -> JsonShape.learn(List.of(JsonParser.parse("{\"a\":1}"), JsonParser.parse("{\"b\":1}"))));
+        assertThrows(IllegalArgumentException.class, () -> JsonShape.learn(List.of()));
+    }
+}
@@ -0,0 +1,37 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonSymbolTable : the strings shared between parsings, and kept out of the JVM string pool
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonSymbolTableTest {
+
+    @Test
+    void sharesRepeatedStrings() {
+        JsonSymbolTable symbols = new JsonSymbolTable();
+        JsonParsedObject first = JsonParser.parse("{\"name\":\"value\",\"esc\\u0061ped\":\"v\\u0061lue\"}", symbols);
+        JsonParsedObject second = JsonParser.parse("{\"name\":\"value\",\"escaped\":\"value\"}", symbols);
+
+        assertSame(first.getField(0).getName(), second.getField(0).getName());
+        assertSame(first.getField(0).getValue(), second.getField(0).getValue());
+        assertSame(first.getField(1).getName(), second.getField(1).getName());
+        assertSame(first.getField(1).getValue(), second.getField(1).getValue());
+    }
+
+    @Test
+    void doesNotInternNames() {
+        // Another instance of the name is put in the pool first, to be returned if the parsed name were interned
+        String pooled = ("name_" + System.nanoTime()).intern();
+        JsonParsedObject object = JsonParser.parse("{\"" + pooled + "\":1}", new JsonSymbolTable());
+
+        assertEquals(pooled, object.getField(0).getName());
+        assertNotSame(pooled, object.getField(0).getName());
+    }
+}
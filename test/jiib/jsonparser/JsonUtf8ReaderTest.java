@@ -0,0 +1,138 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonUtf8Reader and JsonUtf8Output : the UTF-8 decoding and encoding, the malformed sequences,
+ * and the chars split between two chunks
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonUtf8ReaderTest {
+
+    private static final String TEXT = "aé€😀\u0000߿ࠀ￿􏿿";
+
+    @Test
+    void decodesEveryLengthOfSequence() throws IOException {
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(TEXT, _read(new JsonUtf8Reader(bytes, 0, bytes.length), 64));
+        assertEquals(TEXT, _read(new JsonUtf8Reader(ByteBuffer.wrap(bytes)), 64));
+        assertEquals(TEXT, _read(new JsonUtf8Reader(new ByteArrayInputStream(bytes)), 64));
+        // A single char at a time, the surrogate pairs being given apart
+        assertEquals(TEXT, _read(new JsonUtf8Reader(bytes, 0, bytes.length), 1));
+        assertEquals("é€", _read(new JsonUtf8Reader(bytes, 1, 5), 64));
+    }
+
+    @Test
+    void replacesMalformedSequences() throws IOException {
+        byte[][] malformed = {
+            {(byte)0x80},                               // A continuation byte alone
+            {(byte)0xC0, (byte)0xAF},                   // An overlong '/'
+            {(byte)0xE0, (byte)0x80, (byte)0xAF},       // Another overlong '/'
+            {(byte)0xED, (byte)0xA0, (byte)0x80},       // A surrogate
+            {(byte)0xF4, (byte)0x90, (byte)0x80, (byte)0x80},   // Beyond U+10FFFF
+            {(byte)0xFF},
+        };
+        for (byte[] sequence : malformed) {
+            String text = _read(new JsonUtf8Reader(sequence, 0, sequence.length), 64);
+            assertEquals("�".repeat(text.length()), text);
+        }
+
+        // A cut sequence is replaced once, and the byte following it is decoded on its own
+        byte[] cut = {'a', (byte)0xE2, (byte)0x82, 'b', (byte)0xF0, (byte)0x9F};
+        assertEquals("a�b�", _read(new JsonUtf8Reader(cut, 0, cut.length), 64));
+    }
+
+    @Test
+    void decodesCharsSplitBetweenChunks() throws IOException {
+        // The 4-byte chars straddle the 8K chunks at each of their bytes
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3 * 8192; i++) {
+            text.append((i % 5 == 0) ? "😀" : (i % 3 == 0) ? "€" : "a");
+        }
+        String expected = text.toString();
+        byte[] bytes = expected.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 3).put(new byte[] {'x', 'y', 'z'}).put(bytes).flip().position(3);
+
+        assertEquals(expected, _read(new JsonUtf8Reader(direct), 1000));
+        assertEquals(expected, _read(new JsonUtf8Reader(direct), 1));
+        assertEquals(3, direct.position());
+        assertEquals(expected, _read(new JsonUtf8Reader(new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, 7));
+            }
+        }), 333));
+    }
+
+    @Test
+    void resetsOnOtherBytes() throws IOException {
+        JsonUtf8Reader reader = new JsonUtf8Reader();
+        byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(-1, reader.read(new char[4], 0, 4));
+        reader.reset(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip());
+        assertEquals(TEXT, _read(reader, 3));
+        reader.reset(bytes, 0, bytes.length);
+        assertEquals(TEXT, _read(reader, 3));
+        reader.release(0);
+        assertEquals(-1, reader.read(new char[4], 0, 4));
+    }
+
+    @Test
+    void encodesEveryLengthOfSequence() throws IOException {
+        JsonUtf8Output output = new JsonUtf8Output();
+        output.append(TEXT);
+        output.appendLong(Long.MIN_VALUE);
+        output.appendLong(-42);
+
+        assertArrayEquals((TEXT + Long.MIN_VALUE + "-42").getBytes(StandardCharsets.UTF_8), output.toByteArray());
+    }
+
+    @Test
+    void replacesUnpairedSurrogates() throws IOException {
+        JsonUtf8Output output = new JsonUtf8Output();
+        output.append("a\udc00b\ud800c");
+        // A pair appended in two calls
+        output.append('\ud83d').append('\ude00');
+        output.append('\ud800');
+
+        assertEquals("a?b?c😀?", new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void encodesCharsSplitBetweenChunks() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3 * 8192; i++) {
+            text.append((i % 5 == 0) ? "😀" : (i % 3 == 0) ? "€" : "a");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonUtf8Output output = new JsonUtf8Output(bytes);
+        for (int i = 0; i < text.length(); i += 1000) {
+            output.append(text, i, Math.min(i + 1000, text.length()));
+        }
+        output.flush();
+
+        assertArrayEquals(text.toString().getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+    }
+
+    private static String _read(Reader reader, int bufferSize) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[bufferSize];
+        for (int count; (count = reader.read(buffer, 0, bufferSize)) >= 0; ) {
+            text.append(buffer, 0, count);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package jiib.jsonparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check JsonWriter : the same expression written to a Writer or an OutputStream, whatever the buffer size, and the events rejected
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonWriterTest {
+
+    private static final String TREE = "{\"s\":\"é€😀\\n\",\"l\":[1,-9223372036854775808,2.5,true,null,{}]}";
+
+    @Test
+    void writesTheSameExpressionToEveryOutput() throws IOException {
+        String expected = "[" + Long.MAX_VALUE + ",\"a\\\"bé😀\",-0.5,1.10,false,null,{\"k\":" + TREE + ",\"e\":[]}," + TREE + "]";
+
+        for (int bufferSize : new int[] {16, 17, 64, 8192}) {
+            StringWriter chars = new StringWriter();
+            try (JsonWriter writer = new JsonWriter(chars, bufferSize)) {
+                _write(writer);
+            }
+            assertEquals(expected, chars.toString());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonWriter writer = new JsonWriter(bytes)) {
+            _write(writer);
+        }
+        assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesTheBufferOnFlush() throws IOException {
+        StringWriter chars = new StringWriter();
+        JsonWriter writer = new JsonWriter(chars);
+
+        writer.beginObject().name("a").value(1);
+        assertEquals("", chars.toString());
+        writer.flush();
+        assertEquals("{\"a\":1", chars.toString());
+        writer.endObject().close();
+        assertEquals("{\"a\":1}", chars.toString());
+    }
+
+    @Test
+    void rejectsInvalidEvents() throws IOException {
+        JsonWriter writer = new JsonWriter(new StringWriter());
+        assertThrows(IllegalStateException.class, () -> writer.name("a"));
+        writer.beginObject();
+        assertThrows(IllegalStateException.class, () -> writer.value(1));
+        assertThrows(IllegalStateException.class, writer::endArray);
+        assertThrows(IllegalArgumentException.class, () -> writer.name("a").value(Double.NaN));
+        assertThrows(IllegalStateException.class, writer::close);
+    }
+
+    private static void _write(JsonWriter writer) throws IOException {
+        writer.beginArray()
+            .value(Long.MAX_VALUE)
+            .value("a\"bé😀")
+            .value(-0.5)
+            .value(new BigDecimal("1.10"))
+            .value(false)
+            .nullValue()
+            .beginObject()
+                .name("k").value(JsonParser.parse(TREE))
+                .name("e").beginArray().endArray()
+            .endObject()
+            .value(JsonParser.parse(TREE))
+            .endArray();
+    }
+}
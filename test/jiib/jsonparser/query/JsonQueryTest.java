@@ -0,0 +1,65 @@
+package jiib.jsonparser.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import jiib.jsonparser.JsonParsedObject;
+import jiib.jsonparser.JsonParser;
+import jiib.jsonparser.util.DottedPath;
+
+/**
+ * Check JsonQuery : the compiled steps, the cache, and the queries kept by the paths
+ *
+ * @author  <a href="https://github.com/JiiB1">JiiB</a> (JiiB1 on GitHub)
+ */
+class JsonQueryTest {
+
+    private static final JsonParsedObject OBJECT = JsonParser.parse("{\"a\":{\"b\":[{\"c\":1},{\"c\":2}]},\"d\":3}");
+
+    @Test
+    void compilesSteps() {
+        JsonQuery query = JsonQuery.compile("a.b.2.c");
+
+        assertEquals(4, query.size());
+        assertEquals("a", query.getName(0));
+        assertEquals(-1, query.getIndex(0));
+        assertEquals(2, query.getIndex(2));
+        assertEquals(2, OBJECT.getField(query).getInt());
+        assertNull(OBJECT.getField(JsonQuery.compile("a.b.3.c")));
+        assertThrows(IllegalArgumentException.class, () -> JsonQuery.compile("a..b"));
+    }
+
+    @Test
+    void returnsCachedQueries() {
+        assertSame(JsonQuery.compile("a.b.1.c"), JsonQuery.compile("a.b.1.c"));
+
+        // The cache keeps its size, and still compiles the evicted queries
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("q" + i, JsonQuery.compile("q" + i).getName(0));
+        }
+    }
+
+    @Test
+    void keepsTheQueryOfAPathUntilItChanges() {
+        DottedPath path = new DottedPath("a.b.1");
+        JsonQuery query = JsonQuery.compile(path);
+        assertSame(query, JsonQuery.compile(path));
+
+        path.addNode("c");
+        assertEquals(1, OBJECT.getField(path).getInt());
+        path.removeFirstNode();
+        assertThrows(IllegalArgumentException.class, () -> OBJECT.getField(path));
+
+        DottedPath copy = new DottedPath(new DottedPath("a.b.2.c"));
+        DottedPath original = new DottedPath("a.b.2.c");
+        DottedPath changed = new DottedPath(original);
+        assertEquals(2, OBJECT.getField(original).getInt());
+        changed.removeLastNode();
+        assertEquals(2, OBJECT.getField(original).getInt());
+        assertEquals(2, OBJECT.getField(copy).getInt());
+    }
+}